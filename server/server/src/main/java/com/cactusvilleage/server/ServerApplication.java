@@ -1,5 +1,6 @@
 package com.cactusvilleage.server;
 
+import com.cactusvilleage.server.global.util.SeoulTime;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -19,7 +20,7 @@ import java.util.TimeZone;
 public class ServerApplication {
     @PostConstruct
     public void started() {
-        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Seoul"));
+        TimeZone.setDefault(TimeZone.getTimeZone(SeoulTime.ZONE));
     }
 
 
@@ -7,6 +7,7 @@ import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.Hibernate;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -69,7 +70,10 @@ public class Member extends Auditable {
     }
 
     public void addChallenge(Challenge challenge) {
-        this.challenges.add(challenge);
+        // 챌린지 목록이 로딩되지 않았다면 FK 만으로 충분하므로 목록을 읽지 않는다
+        if (Hibernate.isInitialized(challenges) && !challenges.contains(challenge)) {
+            this.challenges.add(challenge);
+        }
 
         if (challenge.getMember() != this) {
             challenge.setMember(this);
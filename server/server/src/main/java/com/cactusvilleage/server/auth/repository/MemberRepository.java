@@ -1,6 +1,6 @@
 package com.cactusvilleage.server.auth.repository;
 import com.cactusvilleage.server.auth.entities.Member;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,5 +19,5 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     @Transactional(readOnly = true)
     boolean existsByProviderId(String providerId);
     @Transactional(readOnly = true)
-    List<Member> findAllByDeleted(boolean deleted, Sort sort);
+    List<Member> findAllByDeleted(boolean deleted, Pageable pageable);
 }
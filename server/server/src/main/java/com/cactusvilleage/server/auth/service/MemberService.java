@@ -15,6 +15,7 @@ import com.cactusvilleage.server.auth.web.dto.request.RecoveryDto;
 import com.cactusvilleage.server.auth.web.dto.response.EditResponseDto;
 import com.cactusvilleage.server.auth.web.dto.response.MemberInfoResponseDto;
 import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.service.RankingService;
 import com.cactusvilleage.server.global.exception.BusinessLogicException;
 import com.cactusvilleage.server.global.infra.email.EmailSender;
 import com.cactusvilleage.server.global.response.SingleResponseDto;
@@ -34,6 +35,7 @@ import org.thymeleaf.context.Context;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Optional;
@@ -57,6 +59,8 @@ public class MemberService {
     private final PasswordEncoder passwordEncoder;
     private final EmailSender awsSesSender;
     private final CookieUtil jwtCookieUtil;
+    private final RankingService rankingService;
+    private final Clock clock;
 
     public void signup(PlainSignupDto signupDto) {
         Member member = signupDto.toMember(passwordEncoder);
@@ -141,6 +145,7 @@ public class MemberService {
         Member deletedMember = deleteByType(foundMember);
 
         memberRepository.save(deletedMember);
+        rankingService.remove(memberId);
 
         jwtCookieUtil.deleteCookie(request, response, "access_token");
         jwtCookieUtil.deleteCookie(request, response, "refresh_token");
@@ -188,8 +193,8 @@ public class MemberService {
                     .build();
         } else {
 
-            int progress = (int) ((double) challenge.getHistories().size() / challenge.getTargetDate() * 100);
-            int now = (int) Duration.between(challenge.getCreatedAt().toLocalDate().atStartOfDay(), LocalDate.now().atStartOfDay()).toDays() + 1;
+            int progress = (int) ((double) challenge.getHistoryCount() / challenge.getTargetDate() * 100);
+            int now = (int) Duration.between(challenge.getCreatedAt().toLocalDate().atStartOfDay(), LocalDate.now(clock).atStartOfDay()).toDays() + 1;
 
             return MemberInfoResponseDto.builder()
                     .email(member.getEmail())
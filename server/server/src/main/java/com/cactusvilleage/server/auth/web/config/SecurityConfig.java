@@ -75,6 +75,7 @@ public class SecurityConfig {
                 .antMatchers(HttpMethod.DELETE, "/api/*/members").permitAll()
                 .antMatchers("/*/oauth2/**").permitAll()
                 .antMatchers("/").permitAll()
+                .antMatchers(HttpMethod.POST, "/api/*/rankings/rebuild", "/api/*/stats/backfill").hasRole("ADMIN")
                 .anyRequest().authenticated()
 
                 .and()
@@ -2,27 +2,39 @@ package com.cactusvilleage.server.challenge.entities;
 
 import com.cactusvilleage.server.auth.entities.Member;
 import com.cactusvilleage.server.global.audit.Auditable;
+import com.cactusvilleage.server.global.util.UuidV7;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.*;
+import org.hibernate.Hibernate;
 
 import javax.persistence.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Getter
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_challenge_member_status", columnList = "MEMBER_ID, status"),
+        @Index(name = "idx_challenge_status_due_date", columnList = "status, DUE_DATE")},
+        uniqueConstraints = @UniqueConstraint(name = Challenge.ACTIVE_MEMBER_UNIQUE, columnNames = "ACTIVE_MEMBER_ID"))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Challenge extends Auditable {
 
+    public static final String ACTIVE_MEMBER_UNIQUE = "uk_challenge_active_member";
+
+    // insert batch 가 필요하면 META-INF/orm-pooled-ids.xml 로 id 전략을 바꾼다 (이유와 전환 순서는 그 파일에)
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "CHALLENGE_ID")
     private Long id;
 
+    // 시간 순 UUID 라 insert 가 인덱스 끝에 몰린다
+    // 새 챌린지를 만들 때만 생성 (필드 초기화로 두면 Hibernate 가 조회할 때마다 만들고 버린다)
     @Column(columnDefinition = "BINARY(16)")
-    private UUID uuid = UUID.randomUUID();
+    private UUID uuid;
 
     @Enumerated(EnumType.STRING)
     private ChallengeType challengeType;
@@ -33,6 +45,10 @@ public class Challenge extends Auditable {
     @Column(updatable = false)
     private Integer targetTime;
 
+    // 챌린지가 끝나는 날 (등록일 + targetDate), 배치는 이 날짜가 지난 챌린지만 읽는다 (컬럼 추가 이전 챌린지는 null)
+    @Column(name = "DUE_DATE", updatable = false)
+    private LocalDate dueDate;
+
     @Column
     private int stamp;
 
@@ -42,11 +58,30 @@ public class Challenge extends Auditable {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    // 히스토리 등록과 배치 마무리가 동시에 같은 챌린지를 바꾸면 나중에 커밋하는 쪽이 실패한다
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    // 진행 중일 때만 MEMBER_ID, 그 외에는 null -> 회원당 진행 중인 챌린지 하나를 unique 인덱스로 보장
+    @Column(name = "ACTIVE_MEMBER_ID")
+    private Long activeMemberId;
+
+    // 히스토리 수와 마지막 히스토리 날짜, 히스토리 insert 시 같이 갱신 (컬럼 추가 이전 챌린지는 null)
+    @Column
+    private Integer historyCount = 0;
+
+    @Column
+    private LocalDate lastHistoryDate;
+
+    // startDate 는 등록일 (서비스가 Clock 빈으로 구한 Asia/Seoul 날짜)
     @Builder
-    public Challenge(ChallengeType challengeType, Integer targetDate, Integer targetTime) {
+    public Challenge(ChallengeType challengeType, Integer targetDate, Integer targetTime, LocalDate startDate) {
+        this.uuid = UuidV7.randomUUID();
         this.challengeType = challengeType;
         this.targetDate = targetDate;
         this.targetTime = targetTime;
+        this.dueDate = startDate.plusDays(targetDate);
     }
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -55,6 +90,7 @@ public class Challenge extends Auditable {
     private Member member;
 
     @JsonManagedReference // json 출력 시, 순환참조 방지
+    @OrderBy("createdAt ASC")
     @OneToMany(mappedBy = "challenge")
     private List<History> histories = new ArrayList<>();
 
@@ -64,30 +100,72 @@ public class Challenge extends Auditable {
 
     public void setStatus(Status status) {
         this.status = status;
+        updateActiveMemberId();
     }
 
     public void setNotified(boolean notified) {
         this.notified = notified;
     }
 
+    // 연관관계 편의 메서드는 상대 컬렉션이 이미 로딩된 경우에만 메모리 상의 목록을 맞춘다
+    // -> 새 챌린지, 히스토리를 붙일 때 기존 행을 전부 읽지 않고 FK 만 채운다
     public void setMember(Member member) {
-        if (this.member != null) {  // 기존 Member와 연관관계가 있다면 Member에서 해당 Challenge 삭제
+        if (this.member == member) { // 무한 루프 방지
+            return;
+        }
+        if (this.member != null && Hibernate.isInitialized(this.member.getChallenges())) {  // 기존 Member와 연관관계가 있다면 Member에서 해당 Challenge 삭제
             this.member.getChallenges().remove(this);
-
         }
         this.member = member;
-        if (!member.getChallenges().contains(this)) { // 무한 루프 방지
-            member.addChallenge(this);
+        updateActiveMemberId();
+        member.addChallenge(this);
+    }
+
+    public void addHistory(History history) {
+        if (history.getChallenge() != this) {  // 히스토리 쪽에서 연관관계를 맺으면 다시 이 메서드로 돌아온다
+            history.setChallenge(this);
+            return;
+        }
 
+        int count = getHistoryCount();
+        if (Hibernate.isInitialized(histories)) {
+            this.histories.add(history);
         }
+        this.historyCount = count + 1;
+        this.lastHistoryDate = history.getHistoryDate();
     }
 
-    public void addHistory(History history) {
-        this.histories.add(history);
+    public LocalDate getDueDate() {
+        if (dueDate == null) {
+            return getCreatedAt().toLocalDate().plusDays(targetDate);
+        }
+        return dueDate;
+    }
 
-        if (history.getChallenge() != this) {  // 무한 루프 방지
-            history.setChallenge(this);
+    public int getHistoryCount() {
+        if (historyCount == null) {
+            syncHistoryColumns();
         }
+        return historyCount;
+    }
+
+    public LocalDate getLastHistoryDate() {
+        if (historyCount == null) {
+            syncHistoryColumns();
+        }
+        return lastHistoryDate;
+    }
+
+    // 컬럼이 비어 있는 기존 챌린지는 한 번만 히스토리 목록으로 채운다
+    private void syncHistoryColumns() {
+        this.historyCount = histories.size();
+        this.lastHistoryDate = histories.isEmpty()
+                ? null
+                : histories.get(histories.size() - 1).getCreatedAt().toLocalDate();
+    }
+
+    private void updateActiveMemberId() {
+        this.activeMemberId = (status == Status.IN_PROGRESS && member != null) ? member.getId() : null;
     }
 
     public enum ChallengeType {
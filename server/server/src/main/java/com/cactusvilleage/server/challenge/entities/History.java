@@ -3,14 +3,20 @@ package com.cactusvilleage.server.challenge.entities;
 import com.cactusvilleage.server.global.audit.Auditable;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.Hibernate;
 
 import javax.persistence.*;
+import java.time.LocalDate;
 
 @Getter
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = History.CHALLENGE_DATE_UNIQUE, columnNames = {"CHALLENGE_ID", "HISTORY_DATE"}))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class History extends Auditable {
 
+    public static final String CHALLENGE_DATE_UNIQUE = "uk_history_challenge_date";
+
+    // Challenge.id 와 같이 바뀐다 (Challenge 참고)
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "HISTORY_ID")
@@ -22,11 +28,15 @@ public class History extends Auditable {
     @Column(updatable = false, columnDefinition = "TEXT")
     private String contents; // 감사 일기 text, s3에 업로드된 Multipart/form-data 이미지 fileName
 
+    @Column(name = "HISTORY_DATE", updatable = false)
+    private LocalDate historyDate; // 챌린지당 하루 한 번만 등록되도록 unique 인덱스로 보장
+
+    // historyDate 는 등록일 (서비스가 Clock 빈으로 구한 Asia/Seoul 날짜)
     @Builder
-    public History(String time, String contents) {
+    public History(String time, String contents, LocalDate historyDate) {
         this.time = time;
         this.contents = contents;
-
+        this.historyDate = historyDate;
     }
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,16 +44,16 @@ public class History extends Auditable {
     @JsonIgnore
     private Challenge challenge;
 
+    // 기존 히스토리 목록을 로딩하지 않고 FK 만 채운다 (목록이 이미 로딩된 경우에만 같이 갱신)
     public void setChallenge(Challenge challenge) {
-        if (this.challenge != null) {
+        if (this.challenge == challenge) { // 무한 루프 방지
+            return;
+        }
+        if (this.challenge != null && Hibernate.isInitialized(this.challenge.getHistories())) {
             this.challenge.getHistories().remove(this);
         }
 
         this.challenge = challenge;
-        if (!challenge.getHistories().contains(this)) {
-            challenge.addHistory(this);
-        }
+        challenge.addHistory(this);
     }
 }
-
-
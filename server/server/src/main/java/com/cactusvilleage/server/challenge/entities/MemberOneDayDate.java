@@ -0,0 +1,50 @@
+package com.cactusvilleage.server.challenge.entities;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 회원이 히스토리 하나로 끝낸 챌린지를 시작한 날짜, 진행한 날 수에 그 날짜를 이미 셌는지 확인하는 용도.
+ * (MEMBER_ID, START_DATE) 가 기본 키라 같은 날짜는 한 번만 들어간다.
+ */
+@Getter
+@Entity
+@Table(name = "MEMBER_ONE_DAY_DATE")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberOneDayDate {
+
+    @EmbeddedId
+    private Key key;
+
+    public MemberOneDayDate(Long memberId, LocalDate startDate) {
+        this.key = new Key(memberId, startDate);
+    }
+
+    @Getter
+    @Embeddable
+    @EqualsAndHashCode
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class Key implements Serializable {
+
+        @Column(name = "MEMBER_ID")
+        private Long memberId;
+
+        @Column(name = "START_DATE")
+        private LocalDate startDate;
+
+        public Key(Long memberId, LocalDate startDate) {
+            this.memberId = memberId;
+            this.startDate = startDate;
+        }
+    }
+}
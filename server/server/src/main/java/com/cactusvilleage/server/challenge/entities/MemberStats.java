@@ -0,0 +1,88 @@
+package com.cactusvilleage.server.challenge.entities;
+
+import com.cactusvilleage.server.global.audit.Auditable;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.MapKeyColumn;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 회원별 챌린지 통계 (끝난 챌린지 수, 챌린지를 진행한 날 수, 도장 번호별 개수).
+ * 챌린지가 끝날 때마다 갱신해 기록/랭킹 조회 시 챌린지와 히스토리를 다시 계산하지 않는다.
+ * 도장은 번호(1~8)별 개수만 MEMBER_STAMP_COUNT 에 두므로 챌린지 수가 늘어도 행 수가 늘지 않는다.
+ * 히스토리 하나로 끝난 챌린지의 시작 날짜는 {@link MemberOneDayDate} 에 따로 둔다.
+ */
+@Getter
+@Entity
+@Table(name = "MEMBER_STATS")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberStats extends Auditable {
+
+    @Id
+    @Column(name = "MEMBER_ID")
+    private Long memberId;
+
+    @Column
+    private int totalChall;
+
+    @Column
+    private int totalDate;
+
+    // 도장 번호 -> 개수, 많아야 8행이므로 통계와 같이 읽는다
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "MEMBER_STAMP_COUNT", joinColumns = @JoinColumn(name = "MEMBER_ID"))
+    @MapKeyColumn(name = "STAMP")
+    @Column(name = "STAMP_COUNT")
+    private Map<Integer, Integer> stampCounts = new TreeMap<>();
+
+    // 갱신은 행을 잠그고 하지만 (MemberStatsService), 잠그지 않고 저장하는 경로가 생겨도 덮어쓰지 않도록 남겨둔다
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    public MemberStats(Long memberId) {
+        this.memberId = memberId;
+    }
+
+    // 히스토리 하나로 끝난 챌린지는 시작한 날짜 기준으로 하루만 센다 (그 날짜를 처음 기록한 경우에만 newOneDayDate)
+    public void addFinishedChallenge(int historyCount, boolean newOneDayDate, int stamp) {
+        this.totalChall++;
+        if (historyCount != 1) {
+            this.totalDate += historyCount;
+        } else if (newOneDayDate) {
+            this.totalDate++;
+        }
+        if (stamp != 0) {
+            this.stampCounts.merge(stamp, 1, Integer::sum);
+        }
+    }
+
+    public void reset(int totalChall, int totalDate, Map<Integer, Integer> stampCounts) {
+        this.totalChall = totalChall;
+        this.totalDate = totalDate;
+        this.stampCounts.clear();
+        this.stampCounts.putAll(stampCounts);
+    }
+
+    // 도장 번호 순으로 개수만큼 펼친 목록 (e.g {1=2, 8=1} -> [1, 1, 8])
+    public List<Integer> getStampList() {
+        List<Integer> stamps = new ArrayList<>();
+        new TreeMap<>(stampCounts).forEach((stamp, count) -> stamps.addAll(Collections.nCopies(count, stamp)));
+        return stamps;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import java.time.LocalDate;
+
+public interface ChallengeDue {
+    Long getId();
+
+    LocalDate getDueDate();
+}
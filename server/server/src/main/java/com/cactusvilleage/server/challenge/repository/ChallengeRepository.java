@@ -1,13 +1,152 @@
 package com.cactusvilleage.server.challenge.repository;
 
 import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.Status;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ChallengeRepository extends JpaRepository<Challenge, Long> {
     @Transactional(readOnly = true)
-    List<Challenge> findAllByMemberId(Long memberId);
+    Optional<Challenge> findByMemberIdAndStatus(Long memberId, Status status);
 
-}
\ No newline at end of file
+    @Transactional(readOnly = true)
+    boolean existsByMemberIdAndStatus(Long memberId, Status status);
+
+    // 끝난 챌린지와 히스토리를 한 번의 fetch join 으로 조회 (N+1 방지)
+    @Transactional(readOnly = true)
+    @Query("select distinct c from Challenge c left join fetch c.histories " +
+            "where c.member.id = :memberId and c.status in :statuses order by c.id")
+    List<Challenge> findAllWithHistoriesByMemberIdAndStatusIn(@Param("memberId") Long memberId,
+                                                              @Param("statuses") Collection<Status> statuses);
+
+    // 커서(챌린지 id)보다 오래된 끝난 챌린지 id 를 최신순으로 limit 만큼 조회
+    @Transactional(readOnly = true)
+    @Query("select c.id from Challenge c " +
+            "where c.member.id = :memberId and c.status in :statuses and c.id < :cursor order by c.id desc")
+    List<Long> findIdsByMemberIdAndStatusInBefore(@Param("memberId") Long memberId,
+                                                  @Param("statuses") Collection<Status> statuses,
+                                                  @Param("cursor") Long cursor,
+                                                  Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query("select distinct c from Challenge c left join fetch c.histories where c.id in :ids order by c.id desc")
+    List<Challenge> findAllWithHistoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 오늘 기준으로 기간이 끝난 진행 중인 챌린지 (일괄 처리의 통계, 상태 UPDATE 가 모두 이 조건을 쓴다)
+    // DUE_DATE 가 없는 이전 챌린지는 생성일 + 목표일로 계산, timestampadd, cast 는 MySQL 과 H2 모두 지원한다
+    String DUE_IN_PROGRESS = "c.status = 'IN_PROGRESS' " +
+            "and (c.due_date <= :today or (c.due_date is null and timestampadd(DAY, c.target_date, cast(c.created_at as date)) <= :today))";
+
+    // 챌린지의 히스토리 수 (HISTORY_COUNT 컬럼 추가 이전 챌린지는 히스토리를 센다)
+    String HISTORY_COUNT = "coalesce(c.history_count, (select count(*) from history h where h.challenge_id = c.challenge_id))";
+
+    // 히스토리를 목표일만큼 채운 챌린지
+    String FILLED = HISTORY_COUNT + " = c.target_date";
+
+    // 기간이 끝났고 히스토리를 채운 챌린지에 도장 1~8 랜덤, 상태를 바꾸기 전에 뽑아 통계와 같은 값을 쓴다
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update challenge c set c.stamp = floor(1 + rand() * 8) where " + DUE_IN_PROGRESS + " and " + FILLED,
+            nativeQuery = true)
+    int stampDueSuccesses(@Param("today") LocalDate today);
+
+    // 기간이 끝났고 히스토리를 채운 챌린지의 회원 id, 성공한 챌린지마다 한 번씩 (탈퇴한 회원 제외, 랭킹 반영용)
+    @Transactional(readOnly = true)
+    @Query(value = "select c.member_id from challenge c join member m on m.member_id = c.member_id " +
+            "where " + DUE_IN_PROGRESS + " and " + FILLED + " and m.deleted = 0",
+            nativeQuery = true)
+    List<Long> findMemberIdsOfDueSuccesses(@Param("today") LocalDate today);
+
+    // 기간이 끝났고 히스토리를 채운 챌린지를 한 번에 SUCCESS 처리 (도장은 stampDueSuccesses 에서 뽑은 값)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update challenge c set c.status = 'SUCCESS', c.active_member_id = null, c.updated_at = :now, c.version = c.version + 1 " +
+            "where " + DUE_IN_PROGRESS + " and " + FILLED,
+            nativeQuery = true)
+    int bulkSucceedDueChallenges(@Param("today") LocalDate today, @Param("now") LocalDateTime now);
+
+    // 남은 기간이 끝난 챌린지를 한 번에 FAIL 처리 (SUCCESS 처리 이후 실행)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update challenge c set c.status = 'FAIL', c.active_member_id = null, c.updated_at = :now, c.version = c.version + 1 " +
+            "where " + DUE_IN_PROGRESS,
+            nativeQuery = true)
+    int bulkFailDueChallenges(@Param("today") LocalDate today, @Param("now") LocalDateTime now);
+
+    // DUE_DATE 컬럼 추가 이전에 등록된 진행 중 챌린지의 DUE_DATE 를 채운다
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update challenge c set c.due_date = timestampadd(DAY, c.target_date, cast(c.created_at as date)) " +
+            "where c.status = 'IN_PROGRESS' and c.due_date is null",
+            nativeQuery = true)
+    int fillMissingDueDates();
+
+    // HISTORY_COUNT 컬럼 추가 이전에 등록된 진행 중 챌린지의 히스토리 수, 마지막 히스토리 날짜를 채운다
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update challenge c set " +
+            "c.history_count = (select count(*) from history h where h.challenge_id = c.challenge_id), " +
+            "c.last_history_date = (select max(cast(h.created_at as date)) from history h where h.challenge_id = c.challenge_id) " +
+            "where c.status = 'IN_PROGRESS' and c.history_count is null",
+            nativeQuery = true)
+    int fillMissingHistoryColumns();
+
+    // ACTIVE_MEMBER_ID 컬럼 추가 이전에 등록된 진행 중 챌린지의 ACTIVE_MEMBER_ID 를 채운다
+    // 진행 중 챌린지가 둘 이상인 회원은 먼저 정리해야 한다 (ActiveMemberBackfill), 남아 있으면 unique 인덱스 위반으로 실패한다
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update challenge c set c.active_member_id = c.member_id " +
+            "where c.status = 'IN_PROGRESS' and c.active_member_id is null",
+            nativeQuery = true)
+    int fillMissingActiveMemberIds();
+
+    // 같은 상태의 챌린지가 둘 이상인 회원 id (unique 인덱스 이전에 생긴 중복 진행 중 챌린지 정리용)
+    @Transactional(readOnly = true)
+    @Query("select c.member.id from Challenge c where c.status = :status group by c.member.id having count(c) > 1")
+    List<Long> findMemberIdsHavingSeveral(@Param("status") Status status);
+
+    // 회원의 챌린지를 최신순으로 잠그고 조회
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Challenge c where c.member.id = :memberId and c.status = :status order by c.id desc")
+    List<Challenge> findAllForUpdateByMemberIdAndStatus(@Param("memberId") Long memberId, @Param("status") Status status);
+
+    // 기간이 끝난 진행 중 챌린지의 id 범위 (파티션 분할용)
+    @Transactional(readOnly = true)
+    @Query("select min(c.id) as minId, max(c.id) as maxId from Challenge c " +
+            "where c.status = :status and c.dueDate <= :today")
+    IdRange findIdRangeByStatusAndDueDate(@Param("status") Status status, @Param("today") LocalDate today);
+
+    // until 까지 끝나는 진행 중인 챌린지의 id 와 종료일 (만료 스케줄러 적재용, DUE_DATE 인덱스 범위 조회)
+    @Transactional(readOnly = true)
+    @Query("select c.id as id, c.dueDate as dueDate from Challenge c where c.status = :status and c.dueDate <= :until")
+    List<ChallengeDue> findDueDatesByStatusUntil(@Param("status") Status status, @Param("until") LocalDate until);
+
+    // 기간이 지났는데 아직 진행 중인 챌린지 id (배치 본 step 이 버전 충돌로 건너뛴 챌린지 재처리용)
+    @Transactional(readOnly = true)
+    @Query("select c.id from Challenge c where c.status = :status and (c.dueDate <= :today or c.dueDate is null) order by c.id")
+    List<Long> findDueIdsByStatus(@Param("status") Status status, @Param("today") LocalDate today);
+
+    // 다른 노드, 배치와 동시에 처리하지 않도록 행을 잠그고 조회
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Challenge c where c.id = :id and c.status = :status")
+    Optional<Challenge> findForUpdateByIdAndStatus(@Param("id") Long id, @Param("status") Status status);
+
+    // 탈퇴하지 않은 회원별 성공한 챌린지 수 (랭킹 재구성용)
+    @Transactional(readOnly = true)
+    @Query("select c.member.id as memberId, count(c) as stamps from Challenge c " +
+            "where c.status = :status and c.member.deleted = false group by c.member.id")
+    List<StampCount> countByStatusGroupByMember(@Param("status") Status status);
+
+}
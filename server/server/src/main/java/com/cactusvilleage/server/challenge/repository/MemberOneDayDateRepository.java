@@ -0,0 +1,30 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import com.cactusvilleage.server.challenge.entities.MemberOneDayDate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.cactusvilleage.server.challenge.repository.ChallengeRepository.DUE_IN_PROGRESS;
+import static com.cactusvilleage.server.challenge.repository.ChallengeRepository.HISTORY_COUNT;
+
+public interface MemberOneDayDateRepository extends JpaRepository<MemberOneDayDate, MemberOneDayDate.Key> {
+
+    @Query("select d from MemberOneDayDate d where d.key.memberId = :memberId")
+    List<MemberOneDayDate> findAllByMemberId(@Param("memberId") Long memberId);
+
+    // 기간이 끝난 히스토리 하나짜리 챌린지의 시작 날짜 중 아직 기록하지 않은 날짜 (MemberStatsRepository.addDueChallenges 이후 실행)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into member_one_day_date (member_id, start_date) " +
+            "select distinct c.member_id, cast(c.created_at as date) from challenge c " +
+            "where " + DUE_IN_PROGRESS + " and " + HISTORY_COUNT + " = 1 " +
+            "and not exists (select 1 from member_one_day_date d where d.member_id = c.member_id and d.start_date = cast(c.created_at as date))",
+            nativeQuery = true)
+    int addDueStartDates(@Param("today") LocalDate today);
+}
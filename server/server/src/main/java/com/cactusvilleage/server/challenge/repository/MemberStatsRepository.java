@@ -0,0 +1,73 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import com.cactusvilleage.server.challenge.entities.MemberStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.cactusvilleage.server.challenge.repository.ChallengeRepository.DUE_IN_PROGRESS;
+import static com.cactusvilleage.server.challenge.repository.ChallengeRepository.FILLED;
+import static com.cactusvilleage.server.challenge.repository.ChallengeRepository.HISTORY_COUNT;
+
+public interface MemberStatsRepository extends JpaRepository<MemberStats, Long> {
+
+    // 같은 회원의 챌린지가 동시에 끝나도 통계를 차례로 갱신하도록 행을 잠그고 조회
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from MemberStats s where s.memberId = :memberId")
+    Optional<MemberStats> findForUpdateByMemberId(@Param("memberId") Long memberId);
+
+    // 아래는 기간이 끝난 챌린지를 일괄 처리할 때 상태를 바꾸기 전에 같은 조건으로 통계에 더하는 쿼리 (실행 순서대로)
+
+    // 기간이 끝난 챌린지가 있는데 통계가 없는 회원의 빈 통계 (select 목록의 파라미터는 타입을 알 수 없어 cast, datetime 은 MySQL 과 H2 모두 지원한다)
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into member_stats (member_id, total_chall, total_date, version, created_at, updated_at) " +
+            "select distinct c.member_id, 0, 0, 0, cast(:now as datetime), cast(:now as datetime) from challenge c where " + DUE_IN_PROGRESS + " " +
+            "and not exists (select 1 from member_stats s where s.member_id = c.member_id)",
+            nativeQuery = true)
+    int createMissingOfDue(@Param("today") LocalDate today, @Param("now") LocalDateTime now);
+
+    // 끝난 챌린지 수와 진행한 날 수를 더한다, 히스토리 하나로 끝난 챌린지는 아직 기록하지 않은 시작 날짜만 하루로 센다
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update member_stats s set " +
+            "s.total_chall = s.total_chall + (select count(*) from challenge c where " + DUE_IN_PROGRESS + " and c.member_id = s.member_id), " +
+            "s.total_date = s.total_date " +
+            "+ (select coalesce(sum(" + HISTORY_COUNT + "), 0) from challenge c " +
+            "where " + DUE_IN_PROGRESS + " and c.member_id = s.member_id and " + HISTORY_COUNT + " <> 1) " +
+            "+ (select count(distinct cast(c.created_at as date)) from challenge c " +
+            "where " + DUE_IN_PROGRESS + " and c.member_id = s.member_id and " + HISTORY_COUNT + " = 1 " +
+            "and not exists (select 1 from member_one_day_date d where d.member_id = c.member_id and d.start_date = cast(c.created_at as date))), " +
+            "s.version = s.version + 1, s.updated_at = :now " +
+            "where s.member_id in (select c.member_id from challenge c where " + DUE_IN_PROGRESS + ")",
+            nativeQuery = true)
+    int addDueChallenges(@Param("today") LocalDate today, @Param("now") LocalDateTime now);
+
+    // 성공할 챌린지의 도장 번호 중 회원에게 아직 없는 번호의 0 개 행
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into member_stamp_count (member_id, stamp, stamp_count) " +
+            "select distinct c.member_id, c.stamp, 0 from challenge c where " + DUE_IN_PROGRESS + " and " + FILLED + " " +
+            "and not exists (select 1 from member_stamp_count m where m.member_id = c.member_id and m.stamp = c.stamp)",
+            nativeQuery = true)
+    int createMissingStampCountsOfDue(@Param("today") LocalDate today);
+
+    // 성공할 챌린지의 도장 번호별 개수를 더한다
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update member_stamp_count m set m.stamp_count = m.stamp_count + " +
+            "(select count(*) from challenge c where " + DUE_IN_PROGRESS + " and " + FILLED + " " +
+            "and c.member_id = m.member_id and c.stamp = m.stamp) " +
+            "where exists (select 1 from challenge c where " + DUE_IN_PROGRESS + " and " + FILLED + " " +
+            "and c.member_id = m.member_id and c.stamp = m.stamp)",
+            nativeQuery = true)
+    int addDueStampCounts(@Param("today") LocalDate today);
+}
@@ -0,0 +1,7 @@
+package com.cactusvilleage.server.challenge.repository;
+
+public interface StampCount {
+    Long getMemberId();
+
+    Long getStamps();
+}
@@ -0,0 +1,60 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.cactusvilleage.server.challenge.entities.Status.FAIL;
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+
+/**
+ * ACTIVE_MEMBER_ID unique 인덱스 이전에 등록된 진행 중 챌린지는 컬럼이 null 이라 인덱스가 중복 등록을 막지 못한다.
+ * 기동 시 한 번 채워서 기존 진행 중 챌린지도 인덱스에 걸리게 한다.
+ * 인덱스 이전에 이미 진행 중 챌린지가 둘 이상 생긴 회원은 가장 최근 챌린지만 남기고 나머지를 FAIL 로 마무리한다.
+ */
+@Slf4j
+@Component
+public class ActiveMemberBackfill {
+
+    private final ChallengeRepository challengeRepository;
+    private final MemberStatsService memberStatsService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ActiveMemberBackfill(ChallengeRepository challengeRepository,
+                                MemberStatsService memberStatsService,
+                                PlatformTransactionManager transactionManager) {
+        this.challengeRepository = challengeRepository;
+        this.memberStatsService = memberStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fill() {
+        for (Long memberId : challengeRepository.findMemberIdsHavingSeveral(IN_PROGRESS)) {
+            transactionTemplate.executeWithoutResult(status -> failOlderChallenges(memberId));
+        }
+
+        int filled = challengeRepository.fillMissingActiveMemberIds();
+        if (filled > 0) {
+            log.info("Filled active_member_id of {} in-progress challenges", filled);
+        }
+    }
+
+    // 다른 노드가 같은 회원을 먼저 정리했다면 잠근 뒤 다시 읽은 목록에는 하나만 남아 있다
+    private void failOlderChallenges(Long memberId) {
+        List<Challenge> inProgress = challengeRepository.findAllForUpdateByMemberIdAndStatus(memberId, IN_PROGRESS);
+        for (Challenge older : inProgress.subList(Math.min(1, inProgress.size()), inProgress.size())) {
+            log.warn("Member {} had {} in-progress challenges, failing older challenge {}",
+                    memberId, inProgress.size(), older.getId());
+            older.setStatus(FAIL);
+            memberStatsService.recordFinished(older);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.repository.ChallengeDue;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.global.infra.lock.RedisLeaderLock;
+import io.netty.util.HashedWheelTimer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+
+/**
+ * 챌린지마다 종료 시각을 timing wheel 에 등록해 두고, 시각이 되면 batch-size 개씩 나눠서 마무리한다.
+ * 종료 시각은 종료일 00:00 (KST) 에 챌린지 id 로 정한 지연(spread 이내)을 더해 한 번에 몰리지 않게 한다.
+ * 리더 락을 잡은 노드 하나만 wheel 을 갖고 마무리한다 (노드마다 같은 챌린지를 잠그고 다시 확인하지 않는다).
+ * 소유 노드는 내일까지 끝나는 진행 중인 챌린지를 load-interval 마다 DB 에서 다시 적재하므로, 다른 노드에서 등록한 챌린지도 종료 전에 올라온다.
+ * 락을 넘겨받은 노드는 DB 에서 다시 적재하고, 그래도 놓친 챌린지는 challengeStatusJob 이 처리한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "challenge.expiry.enabled", havingValue = "true")
+public class ChallengeExpiryScheduler {
+
+    private static final String LOCK_NAME = "challengeExpiry";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(30);
+
+    private final ChallengeRepository challengeRepository;
+    private final ChallengeFinalizer challengeFinalizer;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisLeaderLock leaderLock;
+    private final Clock clock;
+    private final long spread;
+    private final int batchSize;
+    private final long loadInterval;
+
+    private final HashedWheelTimer wheel = new HashedWheelTimer(1, TimeUnit.SECONDS, 512);
+    private final Queue<Long> expired = new ConcurrentLinkedQueue<>();
+    private final Set<Long> registered = ConcurrentHashMap.newKeySet();
+    // 소유권을 잃으면 올린다 -> 이전 소유 기간에 등록한 timeout 은 실행되어도 큐에 넣지 않는다
+    private volatile long generation;
+    private volatile RedisLeaderLock.Lease lease;
+    private volatile LocalDate loadedUntil;
+    private long nextLoadAt;
+
+    public ChallengeExpiryScheduler(ChallengeRepository challengeRepository,
+                                    ChallengeFinalizer challengeFinalizer,
+                                    PlatformTransactionManager transactionManager,
+                                    RedisLeaderLock leaderLock,
+                                    Clock clock,
+                                    @Value("${challenge.expiry.spread:1800000}") long spread,
+                                    @Value("${challenge.expiry.batch-size:50}") int batchSize,
+                                    @Value("${challenge.expiry.load-interval:600000}") long loadInterval) {
+        this.challengeRepository = challengeRepository;
+        this.challengeFinalizer = challengeFinalizer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderLock = leaderLock;
+        this.clock = clock;
+        this.spread = spread;
+        this.batchSize = batchSize;
+        this.loadInterval = loadInterval;
+    }
+
+    // 소유 노드이고 적재 범위 안에서 끝나는 챌린지만 바로 등록, 나머지는 소유 노드의 다음 적재에서 올라온다
+    public void register(Challenge challenge) {
+        LocalDate until = loadedUntil;
+        if (isOwner() && until != null && !challenge.getDueDate().isAfter(until)) {
+            register(challenge.getId(), challenge.getDueDate(), generation);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${challenge.expiry.drain-interval:1000}")
+    public void tick() {
+        if (!holdOwnership()) {
+            return;
+        }
+        if (clock.millis() >= nextLoadAt) {
+            load();
+        }
+        drain();
+    }
+
+    // 만료된 챌린지를 큐가 빌 때까지 batch-size 개씩 한 트랜잭션으로 마무리
+    void drain() {
+        List<Long> ids = new ArrayList<>(batchSize);
+        Long id;
+        while ((id = expired.poll()) != null) {
+            ids.add(id);
+            if (ids.size() == batchSize) {
+                finalizeBatch(ids);
+                ids.clear();
+            }
+        }
+        if (!ids.isEmpty()) {
+            finalizeBatch(ids);
+        }
+    }
+
+    private void finalizeBatch(List<Long> ids) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Long challengeId : ids) {
+                // 배치가 먼저 처리했다면 IN_PROGRESS 가 아니므로 조회되지 않는다
+                challengeRepository.findForUpdateByIdAndStatus(challengeId, IN_PROGRESS)
+                        .ifPresent(challengeFinalizer::finalizeIfDue);
+            }
+        });
+        // 아직 끝나지 않았다면 (시계 차이 등) 다음 적재에서 다시 등록된다
+        registered.removeAll(ids);
+    }
+
+    private boolean isOwner() {
+        RedisLeaderLock.Lease current = lease;
+        return current != null && current.isHeld();
+    }
+
+    private boolean holdOwnership() {
+        if (isOwner()) {
+            return true;
+        }
+        if (lease != null) {
+            log.warn("Expiry ownership lost (token {}), dropping the wheel", lease.getToken());
+            release();
+        }
+
+        lease = leaderLock.tryAcquire(LOCK_NAME, LOCK_TTL).orElse(null);
+        if (lease == null) {
+            return false;
+        }
+        log.info("Expiry ownership acquired (token {})", lease.getToken());
+        nextLoadAt = 0;
+        return true;
+    }
+
+    // 내일까지 끝나는 진행 중인 챌린지 중 아직 wheel 에 없는 것을 등록
+    private void load() {
+        challengeRepository.fillMissingDueDates();
+        LocalDate until = LocalDate.now(clock).plusDays(1);
+        long owned = generation;
+        List<ChallengeDue> challenges = challengeRepository.findDueDatesByStatusUntil(IN_PROGRESS, until);
+        int added = 0;
+        for (ChallengeDue challenge : challenges) {
+            if (register(challenge.getId(), challenge.getDueDate(), owned)) {
+                added++;
+            }
+        }
+        loadedUntil = until;
+        nextLoadAt = clock.millis() + loadInterval;
+        log.info("Expiry wheel loaded {} of {} challenges due until {}", added, challenges.size(), until);
+    }
+
+    private boolean register(Long challengeId, LocalDate dueDate, long owned) {
+        if (!registered.add(challengeId)) {
+            return false;
+        }
+        long expireAt = dueDate.atStartOfDay(clock.getZone()).toInstant().toEpochMilli() + Math.floorMod(challengeId * 2654435761L, spread);
+        long delay = Math.max(0, expireAt - clock.millis());
+        wheel.newTimeout(timeout -> {
+            if (generation == owned) {
+                expired.add(challengeId);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private void release() {
+        generation++;
+        loadedUntil = null;
+        registered.clear();
+        expired.clear();
+        if (lease != null) {
+            lease.close();
+            lease = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        release();
+        wheel.stop();
+    }
+}
@@ -0,0 +1,55 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static com.cactusvilleage.server.challenge.entities.Status.FAIL;
+import static com.cactusvilleage.server.challenge.entities.Status.SUCCESS;
+
+// 기간이 끝난 챌린지를 SUCCESS / FAIL 로 마무리 (배치와 만료 스케줄러가 같이 사용)
+// 상태 변경(closeIfDue)과 통계, 랭킹 반영(recordFinished)을 나눠, 배치는 writer 가 version 을 확인하고 쓴 챌린지만 반영한다
+@Component
+@RequiredArgsConstructor
+public class ChallengeFinalizer {
+    private final RankingService rankingService;
+    private final MemberStatsService memberStatsService;
+    private final Clock clock;
+
+    // 행을 잠그고 다시 읽은 챌린지용 (recheck, 만료 스케줄러), 아직 기간이 남은 챌린지면 아무것도 하지 않고 false
+    public boolean finalizeIfDue(Challenge challenge) {
+        if (!closeIfDue(challenge)) {
+            return false;
+        }
+        recordFinished(challenge);
+        return true;
+    }
+
+    // 상태와 도장만 바꾼다 (부수 효과 없음), 다시 처리하면 도장을 새로 뽑지만 저장되는 것은 writer 가 쓴 값 하나뿐
+    public boolean closeIfDue(Challenge challenge) {
+        if (challenge.getDueDate().isAfter(LocalDate.now(clock))) {
+            return false;
+        }
+
+        boolean success = challenge.getHistoryCount() == challenge.getTargetDate();
+        if (success) {
+            challenge.setStatus(SUCCESS);
+            challenge.setStamp(new Random().nextInt(8) + 1);
+        } else {
+            challenge.setStatus(FAIL);
+        }
+        return true;
+    }
+
+    // 통계, 랭킹 반영. 통계는 현재 트랜잭션 안에서, 랭킹은 커밋된 뒤에 반영되므로 롤백되거나 건너뛴 챌린지는 반영되지 않는다
+    public void recordFinished(Challenge challenge) {
+        if (challenge.getStatus() == SUCCESS) {
+            rankingService.increaseStamp(challenge.getMember().getId());
+        }
+        memberStatsService.recordFinished(challenge);
+    }
+}
@@ -5,27 +5,35 @@ import com.cactusvilleage.server.auth.repository.MemberRepository;
 import com.cactusvilleage.server.auth.service.MemberService;
 import com.cactusvilleage.server.auth.util.SecurityUtil;
 import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.MemberStats;
 import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
 import com.cactusvilleage.server.challenge.validator.ChallengeValidator;
 import com.cactusvilleage.server.challenge.web.dto.request.EnrollDto;
 import com.cactusvilleage.server.challenge.web.dto.response.*;
 import com.cactusvilleage.server.global.exception.BusinessLogicException;
 import com.cactusvilleage.server.global.response.SingleResponseDto;
+import com.cactusvilleage.server.global.util.ConstraintViolations;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.cactusvilleage.server.challenge.entities.Status.*;
@@ -42,24 +50,20 @@ public class ChallengeService {
     private final MemberService memberService;
     private final ChallengeRepository challengeRepository;
     private final MemberRepository memberRepository;
+    private final RankingService rankingService;
+    private final MemberStatsService memberStatsService;
+    private final ObjectMapper objectMapper;
+    private final WateringMessagePool wateringMessagePool;
+    private final ObjectProvider<ChallengeExpiryScheduler> challengeExpiryScheduler;
+    private final Clock clock;
     private final static int RANKER_SIZE = 3;
-    @Value("classpath:/static/water.txt")
-    private Resource fileResource;
+    private final static int RANKING_PAGE_SIZE = 20;
 
     public EnrollResponseDto enrollChallenge(EnrollDto enrollDto, String type) {
 
         // 유저와 챌린지 매핑하기 위해 꺼내오기
         Member member = memberService.findMember(SecurityUtil.getCurrentMemberId());
 
-        List<Challenge> validateChallenge = challengeRepository.findAll().stream()
-                .filter(found -> found.getStatus().equals(IN_PROGRESS) && found.getMember().getId().equals(SecurityUtil.getCurrentMemberId()))
-                .collect(Collectors.toList());
-
-        // 회원 한 명당 하나의 챌린지만 등록할 수 있다
-        if (!validateChallenge.isEmpty()) {
-            throw new BusinessLogicException(ENROLL_CHALLENGE_CANNOT_BE_DUPLICATED);
-        }
-
         // 감사 챌린지 말고 다른 챌린지는 targetTime 필드가 필수 값이라는 exception 발생
         if (!type.equals(Challenge.ChallengeType.THANKS.toString().toLowerCase())
                 && enrollDto.getTargetTime() == null) {
@@ -71,11 +75,29 @@ public class ChallengeService {
                 .challengeType(Challenge.ChallengeType.valueOf(type.toUpperCase())) // 쿼리파라미터로 받는 것과 Entity 매핑
                 .targetDate(enrollDto.getTargetDate())
                 .targetTime(enrollDto.getTargetTime())
+                .startDate(LocalDate.now(clock))
                 .build();
 
+        // 회원 한 명당 하나의 챌린지만 등록할 수 있다
+        if (challengeRepository.existsByMemberIdAndStatus(member.getId(), IN_PROGRESS)) {
+            throw new BusinessLogicException(ENROLL_CHALLENGE_CANNOT_BE_DUPLICATED);
+        }
+
         challenge.setStatus(IN_PROGRESS);
         challenge.setMember(member);
-        challengeRepository.save(challenge);
+
+        // 동시에 들어온 등록 요청은 조회를 함께 통과하므로 ACTIVE_MEMBER_ID unique 인덱스에서 걸러진다
+        try {
+            challengeRepository.saveAndFlush(challenge);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, Challenge.ACTIVE_MEMBER_UNIQUE)) {
+                throw new BusinessLogicException(ENROLL_CHALLENGE_CANNOT_BE_DUPLICATED);
+            }
+            throw e;
+        }
+
+        // 만료 스케줄러를 켠 경우에만 종료 시각 등록
+        challengeExpiryScheduler.ifAvailable(scheduler -> scheduler.register(challenge));
 
         // Controller 에서 responseDto 타입을 반환해야하기 때문에 매핑
         return EnrollResponseDto.builder()
@@ -94,10 +116,8 @@ public class ChallengeService {
 
     public ResponseEntity getChallengeRecords(String active) {
         if (active == null) {
-            List<Challenge> all = challengeRepository.findAllByMemberId(SecurityUtil.getCurrentMemberId());
-            List<Challenge> done = all.stream()
-                    .filter(challenge -> challenge.getStatus().equals(SUCCESS) || challenge.getStatus().equals(FAIL))
-                    .collect(Collectors.toList());
+            List<Challenge> done = challengeRepository.findAllWithHistoriesByMemberIdAndStatusIn(
+                    SecurityUtil.getCurrentMemberId(), List.of(SUCCESS, FAIL));
 
             if (done.isEmpty()) {
                 AllInfoDto allInfo = AllInfoDto.builder()
@@ -109,32 +129,13 @@ public class ChallengeService {
                 return new ResponseEntity<>(new SingleResponseDto<>(allInfo), HttpStatus.OK);
             }
 
-            int failAtOneDay = (int) done.stream()
-                    .filter(oneDay -> oneDay.getHistories().size() == 1)
-                    .map(duplicate -> duplicate.getCreatedAt().toLocalDate())
-                    .distinct()
-                    .count();
-            int sum = done.stream()
-                    .map(Challenge::getHistories)
-                    .map(List::size)
-                    .filter(size -> size != 1)
-                    .mapToInt(i -> i)
-                    .sum();
-
-            int totalDate = failAtOneDay + sum;
+            MemberStats stats = memberStatsService.getStats(SecurityUtil.getCurrentMemberId());
 
             AllInfoDto allInfo = AllInfoDto.builder()
-                    .totalDate(totalDate)
-                    .totalChall(done.size())
+                    .totalDate(stats.getTotalDate())
+                    .totalChall(stats.getTotalChall())
                     .challenges(done.stream()
-                            .map(cEntity -> AllInfoDto.Challenges.builder()
-                                    .index(cEntity.getUuid().toString())
-                                    .success(cEntity.getStatus().equals(SUCCESS))
-                                    .type(cEntity.getChallengeType().toString().toLowerCase())
-                                    .targetDate(cEntity.getTargetDate())
-                                    .targetTime(cEntity.getTargetTime())
-                                    .histories(setHistoryInfo(cEntity))
-                                    .build())
+                            .map(this::toChallengesDto)
                             .collect(Collectors.toList())
                     )
                     .build();
@@ -154,7 +155,7 @@ public class ChallengeService {
             ActiveInfoDto activeInfo = ActiveInfoDto.builder()
                     .challengeType(challenge.getChallengeType().toString().toLowerCase())
                     .targetDate(challenge.getTargetDate())
-                    .progress((int) ((double) challenge.getHistories().size() / challenge.getTargetDate() * 100))
+                    .progress((int) ((double) challenge.getHistoryCount() / challenge.getTargetDate() * 100))
                     .histories(setHistoryInfo(challenge))
                     .build();
 
@@ -162,45 +163,99 @@ public class ChallengeService {
         }
     }
 
+    // 커서 기반으로 끝난 챌린지를 limit 개씩 조회하고, JsonGenerator 로 챌린지 하나씩 응답에 바로 쓴다
+    // id 를 하나 더 읽어 다음 페이지가 있을 때만 nextCursor 를 준다 (마지막 페이지가 꽉 차도 null)
+    public ResponseEntity<StreamingResponseBody> streamChallengeRecords(Long cursor, int limit) {
+        List<Long> ids = challengeRepository.findIdsByMemberIdAndStatusInBefore(SecurityUtil.getCurrentMemberId(),
+                List.of(SUCCESS, FAIL), cursor == null ? Long.MAX_VALUE : cursor, PageRequest.of(0, limit + 1));
+        boolean hasNext = ids.size() > limit;
+        if (hasNext) {
+            ids = ids.subList(0, limit);
+        }
+        List<Challenge> challenges = ids.isEmpty() ? new ArrayList<>() : challengeRepository.findAllWithHistoriesByIdIn(ids);
+        Long nextCursor = hasNext ? ids.get(limit - 1) : null;
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("data");
+                generator.writeArrayFieldStart("challenges");
+                for (Challenge challenge : challenges) {
+                    generator.writeObject(toChallengesDto(challenge));
+                    generator.flush();
+                }
+                generator.writeEndArray();
+                if (nextCursor == null) {
+                    generator.writeNullField("nextCursor");
+                } else {
+                    generator.writeNumberField("nextCursor", nextCursor);
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     public ResponseEntity getMessage() {
         ChallengeValidator data = new ChallengeValidator(challengeRepository);
         data.validateActiveChallenge();
 
-        try {
-            BufferedReader br = new BufferedReader(new InputStreamReader(fileResource.getInputStream()));
-
-            List<String> lines = br.lines().collect(Collectors.toList());
-            int index = new Random().nextInt(lines.size());
-            String text = lines.get(index);
-
-            return new ResponseEntity<>(new SingleResponseDto<>(new WateringResponseDto(text)), HttpStatus.OK);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        //default message when can't read static file
-        return new ResponseEntity<>(new SingleResponseDto<>(new WateringResponseDto("선인장 키우기와 함께 해주셔서 감사합니다! 앞으로도 화이팅!")), HttpStatus.OK);
+        return new ResponseEntity<>(new SingleResponseDto<>(new WateringResponseDto(wateringMessagePool.pick())), HttpStatus.OK);
     }
 
     public ResponseEntity getRankInfo() {
-        List<Map.Entry<Member, Long>> collect = challengeRepository.findAll().stream()
-                .filter(success -> success.getStatus().equals(SUCCESS))
-                .filter(user -> !user.getMember().isDeleted())
-                .collect(Collectors.groupingBy(Challenge::getMember, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .collect(Collectors.toList());
-
         Member member = memberService.findMember(SecurityUtil.getCurrentMemberId());
+        List<RankingResponseDto.Rankers> rankers = getRankers(RANKER_SIZE);
 
         RankingResponseDto response = RankingResponseDto.builder()
-                .rankers(getRankers(collect, RANKER_SIZE))
-                .myRanking(getMyRank(collect, member, RANKER_SIZE))
+                .rankers(rankers)
+                .myRanking(getMyRank(rankers, member, RANKER_SIZE))
                 .myStamps(getMyStamps(member))
                 .build();
 
         return new ResponseEntity<>(new SingleResponseDto<>(response), HttpStatus.OK);
     }
 
+    public ResponseEntity getRankingPage(int page) {
+        List<ZSetOperations.TypedTuple<String>> tuples =
+                rankingService.getRankers((long) (page - 1) * RANKING_PAGE_SIZE, RANKING_PAGE_SIZE);
+        Map<Long, Member> members = findRankerMembers(tuples);
+        // 페이지의 순위는 도장 개수별 회원 수를 한 번 읽어 계산한다
+        StampRankIndex ranks = rankingService.loadRankIndex();
+
+        List<RankingPageResponseDto.Rankers> rankers = new ArrayList<>();
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            Member member = members.get(Long.parseLong(tuple.getValue()));
+            if (member == null) {
+                continue;
+            }
+            int stamps = getScore(tuple);
+            rankers.add(RankingPageResponseDto.Rankers.builder()
+                    .rank(ranks.competitionRank(stamps))
+                    .denseRank(ranks.denseRank(stamps))
+                    .username(member.getUsername())
+                    .stamps(stamps)
+                    .build());
+        }
+
+        RankingPageResponseDto response = RankingPageResponseDto.builder()
+                .page(page)
+                .size(RANKING_PAGE_SIZE)
+                .totalRankers(rankingService.getRankerCount())
+                .rankers(rankers)
+                .build();
+
+        return new ResponseEntity<>(new SingleResponseDto<>(response), HttpStatus.OK);
+    }
+
+    public void rebuildRanking() {
+        rankingService.rebuild();
+    }
+
     public ResponseEntity setNotificationStatus() {
         Long memberId = SecurityUtil.getCurrentMemberId();
         Member member = memberService.findMember(memberId);
@@ -211,95 +266,57 @@ public class ChallengeService {
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
-    private Integer getRank(List<Map.Entry<Member, Long>> collect, Member member) {
-        Optional<Long> optionalRank = collect.stream()
-                .filter(map -> map.getKey().equals(member))
-                .findFirst()
-                .map(Map.Entry::getValue);
-
-        if (optionalRank.isEmpty()) {
-            return collect.size() + 1;
-        } else {
-            Map.Entry<Member, Long> me = collect.stream()
-                    .filter(key -> key.getKey().equals(member))
-                    .findFirst()
-                    .orElseThrow();
-
-            return collect.indexOf(me) + 1;
-        }
-    }
+    private List<RankingResponseDto.Rankers> getRankers(int rankerSize) {
+        List<ZSetOperations.TypedTuple<String>> top = rankingService.getTopRankers(rankerSize);
+        Map<Long, Member> members = findRankerMembers(top);
 
-    private List<RankingResponseDto.Rankers> getRankers(List<Map.Entry<Member, Long>> collect, int rankerSize) {
         List<RankingResponseDto.Rankers> rankers = new ArrayList<>();
-
-        if (collect.size() < rankerSize) {
-            List<Member> members = memberRepository.findAllByDeleted(false, Sort.by(Sort.Direction.ASC, "id"));
-
-            if (collect.isEmpty()) {
-                for (int rank = 0; rank < rankerSize; rank++) {
-                    RankingResponseDto.Rankers ranker = RankingResponseDto.Rankers.builder()
-                            .rank(rank + 1)
-                            .username(members.get(rank).getUsername())
-                            .stamps(0)
-                            .build();
-                    rankers.add(ranker);
-                }
-                return rankers;
-            } else {
-                List<RankingResponseDto.Rankers> validRankers = getValidRankers(collect, collect.size(), new ArrayList<>());
-
-                for (Member member : members) {
-                    boolean flag = false;
-                    for (RankingResponseDto.Rankers validRanker : validRankers) {
-                        flag = member.getUsername().equals(validRanker.getUsername());
-                        if (flag) {
-                            break;
-                        }
-                    }
-                    if (!flag) {
-                        RankingResponseDto.Rankers dummy = RankingResponseDto.Rankers.builder()
-                                .rank(validRankers.size() + 1)
-                                .username(member.getUsername())
-                                .stamps(0)
-                                .build();
-                        validRankers.add(dummy);
-                    }
-                    if (validRankers.size() == rankerSize) {
-                        break;
-                    }
-                }
-
-                return validRankers;
+        for (ZSetOperations.TypedTuple<String> tuple : top) {
+            Member member = members.get(Long.parseLong(tuple.getValue()));
+            if (member == null) {
+                continue;
             }
-        } else {
-            return getValidRankers(collect, rankerSize, rankers);
-        }
-    }
-
-    private List<RankingResponseDto.Rankers> getValidRankers(List<Map.Entry<Member, Long>> collect, int validRankerSize, List<RankingResponseDto.Rankers> rankers) {
-        for (int rank = 0; rank < validRankerSize; rank++) {
-            Member member = collect.get(rank).getKey();
+            int stamps = getScore(tuple);
             RankingResponseDto.Rankers ranker = RankingResponseDto.Rankers.builder()
-                    .rank(getRank(collect, member))
+                    .rank(rankingService.getRank(stamps))
                     .username(member.getUsername())
-                    .stamps(collect.get(rank).getValue().intValue())
+                    .stamps(stamps)
                     .build();
             rankers.add(ranker);
         }
+
+        // 도장을 가진 회원이 랭커 수보다 적으면 가입 순으로 도장 0개인 회원을 채운다 (모두 같은 순위)
+        if (rankers.size() < rankerSize) {
+            List<Member> dummies = memberRepository.findAllByDeleted(false,
+                    PageRequest.of(0, rankerSize + rankers.size(), Sort.by(Sort.Direction.ASC, "id")));
+
+            for (Member member : dummies) {
+                if (rankers.size() == rankerSize) {
+                    break;
+                }
+                if (members.containsKey(member.getId())) {
+                    continue;
+                }
+                RankingResponseDto.Rankers dummy = RankingResponseDto.Rankers.builder()
+                        .rank(rankingService.getRank(0))
+                        .username(member.getUsername())
+                        .stamps(0)
+                        .build();
+                rankers.add(dummy);
+            }
+        }
         return rankers;
     }
 
+    private RankingResponseDto.MyRanking getMyRank(List<RankingResponseDto.Rankers> rankers, Member member, int rankerSize) {
+        boolean amIRanker = rankers.stream()
+                .anyMatch(ranker -> ranker.getUsername().equals(member.getUsername()));
 
-    private RankingResponseDto.MyRanking getMyRank(List<Map.Entry<Member, Long>> collect, Member member, int rankerSize) {
-        Optional<RankingResponseDto.Rankers> amIRanker = getRankers(collect, RANKER_SIZE).stream()
-                .filter(ranker -> ranker.getUsername().equals(member.getUsername()))
-                .findAny();
-
-        if (amIRanker.isPresent()) {
+        if (amIRanker) {
             return null;
         }
 
-        if (collect.size() < rankerSize) {
+        if (rankingService.getRankerCount() < rankerSize) {
             return RankingResponseDto.MyRanking.builder()
                     .rank(RANKER_SIZE + 1)
                     .username(member.getUsername())
@@ -307,23 +324,38 @@ public class ChallengeService {
                     .build();
         } else {
             return RankingResponseDto.MyRanking.builder()
-                    .rank(getRank(collect, member))
+                    .rank(rankingService.getRank(rankingService.getStamps(member.getId())))
                     .username(member.getUsername())
                     .stamps(getMyStamps(member).size())
                     .build();
         }
     }
 
+    private Map<Long, Member> findRankerMembers(List<ZSetOperations.TypedTuple<String>> tuples) {
+        return memberRepository.findAllById(tuples.stream()
+                        .map(tuple -> Long.parseLong(tuple.getValue()))
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+    }
+
+    private int getScore(ZSetOperations.TypedTuple<String> tuple) {
+        return tuple.getScore() == null ? 0 : tuple.getScore().intValue();
+    }
+
     private List<Integer> getMyStamps(Member member) {
-        List<Integer> stamps = member.getChallenges().stream()
-                .map(Challenge::getStamp)
-                .filter(stamp -> stamp != 0)
-                .collect(Collectors.toList());
-        if (stamps.isEmpty()) {
-            return new ArrayList<>();
-        } else {
-            return stamps;
-        }
+        return memberStatsService.getStats(member.getId()).getStampList();
+    }
+
+    private AllInfoDto.Challenges toChallengesDto(Challenge challenge) {
+        return AllInfoDto.Challenges.builder()
+                .index(challenge.getUuid().toString())
+                .success(challenge.getStatus().equals(SUCCESS))
+                .type(challenge.getChallengeType().toString().toLowerCase())
+                .targetDate(challenge.getTargetDate())
+                .targetTime(challenge.getTargetTime())
+                .histories(setHistoryInfo(challenge))
+                .build();
     }
 
     private List<HistoryInfoResponseDto> setHistoryInfo(Challenge challenge) {
@@ -0,0 +1,237 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.repository.HistoryRepository;
+import com.cactusvilleage.server.challenge.service.rule.HistoryRule;
+import com.cactusvilleage.server.challenge.validator.ChallengeValidator;
+import com.cactusvilleage.server.challenge.web.dto.request.MorningDto;
+import com.cactusvilleage.server.challenge.web.dto.request.StudyConfirmDto;
+import com.cactusvilleage.server.challenge.web.dto.request.StudyDto;
+import com.cactusvilleage.server.challenge.web.dto.request.ThanksDto;
+import com.cactusvilleage.server.challenge.web.dto.response.HistoryResponseDto;
+import com.cactusvilleage.server.challenge.web.dto.response.PresignedUploadResponseDto;
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import com.cactusvilleage.server.global.util.ConstraintViolations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static com.cactusvilleage.server.challenge.entities.Status.*;
+import static com.cactusvilleage.server.global.exception.ExceptionCode.CHALLENGE_TYPE_MISS_MATCH;
+import static com.cactusvilleage.server.global.exception.ExceptionCode.CHALLENGE_UPDATE_CONFLICT;
+import static com.cactusvilleage.server.global.exception.ExceptionCode.ENROLL_HISTORY_CANNOT_BE_DUPLICATED;
+import static com.cactusvilleage.server.global.exception.ExceptionCode.STUDY_IMAGE_NOT_UPLOADED;
+
+/**
+ * 모닝, 공부, 감사 히스토리 등록 공통 흐름.
+ * 진행 중인 챌린지 검증 -> 진행도, 성공/실패 판단 -> 한 번의 flush 로 히스토리 insert, 챌린지 update 한 번씩.
+ * 타입별 실패 조건은 {@link HistoryRule} 구현체가 정한다.
+ * 배치 등과 동시에 챌린지를 바꿔 버전 충돌이 나면 트랜잭션 전체를 MAX_ATTEMPTS 번까지 다시 실행한다.
+ */
+@Service
+public class HistoryUploadPipeline {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final HistoryRepository historyRepository;
+    private final ChallengeRepository challengeRepository;
+    private final S3Service s3Service;
+    private final ObjectProvider<S3AsyncService> s3AsyncService;
+    private final RankingService rankingService;
+    private final MemberStatsService memberStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Map<Challenge.ChallengeType, HistoryRule> rules = new EnumMap<>(Challenge.ChallengeType.class);
+
+    public HistoryUploadPipeline(HistoryRepository historyRepository,
+                                 ChallengeRepository challengeRepository,
+                                 S3Service s3Service,
+                                 ObjectProvider<S3AsyncService> s3AsyncService,
+                                 RankingService rankingService,
+                                 MemberStatsService memberStatsService,
+                                 PlatformTransactionManager transactionManager,
+                                 List<HistoryRule> historyRules,
+                                 Clock clock) {
+        this.historyRepository = historyRepository;
+        this.challengeRepository = challengeRepository;
+        this.s3Service = s3Service;
+        this.s3AsyncService = s3AsyncService;
+        this.rankingService = rankingService;
+        this.memberStatsService = memberStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        historyRules.forEach(rule -> rules.put(rule.getChallengeType(), rule));
+        this.clock = clock;
+    }
+
+    public HistoryResponseDto uploadMorningHistory(MorningDto morningDto) {
+        return withRetry(() -> append(findUploadableChallenge(Challenge.ChallengeType.MORNING), History.builder()
+                .historyDate(LocalDate.now(clock))
+                .time(morningDto.getTime())
+                .build()));
+    }
+
+    public HistoryResponseDto uploadThanksHistory(ThanksDto thanksDto) {
+        return withRetry(() -> append(findUploadableChallenge(Challenge.ChallengeType.THANKS), History.builder()
+                .historyDate(LocalDate.now(clock))
+                .contents(thanksDto.getText())
+                .build()));
+    }
+
+    public CompletableFuture<HistoryResponseDto> uploadStudyHistory(StudyDto studyDto, MultipartFile multipartFile) throws IOException {
+        transactionTemplate.executeWithoutResult(status -> findUploadableChallenge(Challenge.ChallengeType.STUDY));
+
+        // 검증을 통과한 경우에만 s3에 이미지 업로드 (재시도할 때 다시 올리지 않도록 트랜잭션 밖에서 한 번만)
+        // 비동기 클라이언트를 켰다면 업로드를 기다리지 않고, 끝난 뒤 callback 스레드에서 히스토리 등록
+        S3AsyncService asyncService = s3AsyncService.getIfAvailable();
+        CompletableFuture<String> uploaded = asyncService == null
+                ? CompletableFuture.completedFuture(s3Service.upload(multipartFile))
+                : asyncService.upload(multipartFile);
+
+        return uploaded.thenApply(fileName -> withRetryOrDelete(fileName, () -> append(findUploadableChallenge(Challenge.ChallengeType.STUDY), History.builder()
+                .historyDate(LocalDate.now(clock))
+                .time(studyDto.getTime())
+                .contents(fileName)
+                .build())));
+    }
+
+    // 진행 중인 공부 챌린지가 오늘 등록할 수 있는 상태일 때만 이 챌린지, 오늘 날짜 전용 key 로 업로드 URL 발급
+    public PresignedUploadResponseDto issueStudyUploadUrl(String fileName, String contentType) {
+        Challenge challenge = transactionTemplate.execute(status -> findUploadableChallenge(Challenge.ChallengeType.STUDY));
+
+        String objectKey = studyKeyPrefix(challenge, LocalDate.now(clock)) + UUID.randomUUID() + "-" + fileName;
+        return s3Service.presignUpload(objectKey, contentType);
+    }
+
+    // presigned URL 로 올린 이미지를 히스토리로 등록
+    // 다른 챌린지나 다른 날짜의 key(이미 등록한 이미지 재사용), 아직 올라가지 않았거나 크기 제한을 넘은 이미지는 거절
+    // key 검사와 S3 확인(HEAD, 크기 초과면 DELETE)은 트랜잭션 밖에서 한 번만 -> S3 왕복 동안 DB 연결과 챌린지 행을 잡지 않는다
+    public HistoryResponseDto confirmStudyHistory(StudyConfirmDto studyConfirmDto) {
+        String objectKey = studyConfirmDto.getObjectKey();
+
+        Challenge challenge = transactionTemplate.execute(status -> findUploadableChallenge(Challenge.ChallengeType.STUDY));
+        if (!objectKey.startsWith(studyKeyPrefix(challenge, LocalDate.now(clock)))) {
+            throw new BusinessLogicException(STUDY_IMAGE_NOT_UPLOADED);
+        }
+        s3Service.verifyPresignedUpload(objectKey);
+
+        return withRetryOrDelete(objectKey, () -> {
+            // 확인한 뒤 챌린지가 끝나고 새로 등록됐다면 key 가 가리키는 챌린지가 아니다
+            Challenge current = findUploadableChallenge(Challenge.ChallengeType.STUDY);
+            if (!current.getId().equals(challenge.getId())) {
+                throw new BusinessLogicException(STUDY_IMAGE_NOT_UPLOADED);
+            }
+
+            return append(current, History.builder()
+                    .historyDate(LocalDate.now(clock))
+                    .time(studyConfirmDto.getTime())
+                    .contents(objectKey)
+                    .build());
+        });
+    }
+
+    private String studyKeyPrefix(Challenge challenge, LocalDate date) {
+        return "study-" + challenge.getId() + "-" + date + "-";
+    }
+
+    // 조회부터 커밋까지 한 트랜잭션, 버전 충돌이면 새로 읽어서 다시 시도 (이미 끝난 챌린지라면 검증에서 걸러진다)
+    private HistoryResponseDto withRetry(Supplier<HistoryResponseDto> upload) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> upload.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new BusinessLogicException(CHALLENGE_UPDATE_CONFLICT);
+                }
+            }
+        }
+    }
+
+    // 이미 올라간 이미지를 히스토리로 등록하지 못하면 (버전 충돌이 계속되거나 검증 실패) 지운다 (히스토리 없는 객체를 남기지 않음)
+    private HistoryResponseDto withRetryOrDelete(String objectKey, Supplier<HistoryResponseDto> upload) {
+        try {
+            return withRetry(upload);
+        } catch (RuntimeException e) {
+            s3Service.delete(objectKey);
+            throw e;
+        }
+    }
+
+    private Challenge findUploadableChallenge(Challenge.ChallengeType type) {
+        ChallengeValidator data = new ChallengeValidator(challengeRepository);
+        Challenge challenge = data.validateActiveChallenge();
+
+        if (!challenge.getChallengeType().equals(type)) {
+            throw new BusinessLogicException(CHALLENGE_TYPE_MISS_MATCH);
+        }
+
+        // 중복 등록 방지: 첫 히스토리이거나, 가장 최근 히스토리가 어제 등록된 경우만 가능
+        LocalDate lastHistoryDate = challenge.getLastHistoryDate();
+        if (lastHistoryDate != null && !Objects.equals(lastHistoryDate, LocalDate.now(clock).minusDays(1))) {
+            throw new BusinessLogicException(ENROLL_HISTORY_CANNOT_BE_DUPLICATED);
+        }
+
+        return challenge;
+    }
+
+    private HistoryResponseDto append(Challenge challenge, History history) {
+        // 히스토리 수, 마지막 히스토리 날짜는 여기서 메모리에만 반영된다
+        history.setChallenge(challenge);
+
+        // 진행도 계산
+        int progress = (int) ((double) challenge.getHistoryCount() / challenge.getTargetDate() * 100);
+
+        // 챌린지 완료(진행도 100)하면 status Success, 도장 찍기 1~8 랜덤 숫자
+        if (progress == 100) {
+            challenge.setStatus(SUCCESS);
+            challenge.setStamp(new Random().nextInt(8) + 1);
+        }
+
+        // 타입별 일일 도전과제 실패 조건
+        if (rules.get(challenge.getChallengeType()).isFailed(challenge, history)) {
+            challenge.setStatus(FAIL);
+            progress = -1;
+        }
+
+        // 챌린지 변경을 모두 마친 뒤 flush -> 히스토리 insert 와 챌린지 update(version 조건 포함) 가 한 번씩만 나간다
+        // 동시에 들어온 같은 날 요청은 (CHALLENGE_ID, HISTORY_DATE) unique 인덱스에서 걸러진다
+        try {
+            historyRepository.saveAndFlush(history);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, History.CHALLENGE_DATE_UNIQUE)) {
+                throw new BusinessLogicException(ENROLL_HISTORY_CANNOT_BE_DUPLICATED);
+            }
+            throw e;
+        }
+
+        // 챌린지가 끝났으면 통계에 반영, 최종적으로 성공한 챌린지만 랭킹에 반영
+        if (!challenge.getStatus().equals(IN_PROGRESS)) {
+            memberStatsService.recordFinished(challenge);
+        }
+        if (challenge.getStatus().equals(SUCCESS)) {
+            rankingService.increaseStamp(challenge.getMember().getId());
+        }
+
+        return HistoryResponseDto.builder()
+                .progress(progress)
+                .status(challenge.getStatus().toString().toLowerCase())
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.MemberOneDayDate;
+import com.cactusvilleage.server.challenge.entities.MemberStats;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.repository.MemberOneDayDateRepository;
+import com.cactusvilleage.server.challenge.repository.MemberStatsRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static com.cactusvilleage.server.challenge.entities.Status.FAIL;
+import static com.cactusvilleage.server.challenge.entities.Status.SUCCESS;
+
+@Service
+public class MemberStatsService {
+
+    private final MemberStatsRepository memberStatsRepository;
+    private final MemberOneDayDateRepository oneDayDateRepository;
+    private final ChallengeRepository challengeRepository;
+    private final TransactionTemplate requiresNew;
+
+    public MemberStatsService(MemberStatsRepository memberStatsRepository,
+                              MemberOneDayDateRepository oneDayDateRepository,
+                              ChallengeRepository challengeRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.memberStatsRepository = memberStatsRepository;
+        this.oneDayDateRepository = oneDayDateRepository;
+        this.challengeRepository = challengeRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // 챌린지를 SUCCESS 또는 FAIL 로 바꾼 트랜잭션 안에서 통계 반영 (같이 커밋되고 같이 롤백된다)
+    // member_stats 행을 잠그고 읽으므로 같은 회원의 챌린지가 동시에 끝나거나 recalculate 와 겹쳐도 차례로 반영된다
+    @Transactional
+    public void recordFinished(Challenge challenge) {
+        Long memberId = challenge.getMember().getId();
+        MemberStats stats = lock(memberId);
+        // 시작 날짜는 잠금을 잡은 뒤 확인하므로 같은 날짜가 두 번 들어가지 않는다
+        boolean newOneDayDate = false;
+        if (challenge.getHistoryCount() == 1) {
+            MemberOneDayDate.Key key = new MemberOneDayDate.Key(memberId, challenge.getCreatedAt().toLocalDate());
+            newOneDayDate = !oneDayDateRepository.existsById(key);
+            if (newOneDayDate) {
+                oneDayDateRepository.save(new MemberOneDayDate(memberId, key.getStartDate()));
+            }
+        }
+        stats.addFinishedChallenge(challenge.getHistoryCount(), newOneDayDate, challenge.getStamp());
+    }
+
+    // 기간이 끝난 진행 중인 챌린지를 일괄 처리하기 전에 같은 트랜잭션에서 통계에 한 번에 더한다 (회원별 조회, 잠금 없이 쿼리 다섯 번)
+    // 도장은 먼저 뽑아 둬야 하고 (ChallengeRepository.stampDueSuccesses), 상태는 이후에 바꾼다
+    @Transactional
+    public void recordDue(LocalDate today, LocalDateTime now) {
+        memberStatsRepository.createMissingOfDue(today, now);
+        // 시작 날짜를 기록하기 전에 더해야 새 날짜만 하루로 센다
+        memberStatsRepository.addDueChallenges(today, now);
+        oneDayDateRepository.addDueStartDates(today);
+        memberStatsRepository.createMissingStampCountsOfDue(today);
+        memberStatsRepository.addDueStampCounts(today);
+    }
+
+    @Transactional(readOnly = true)
+    public MemberStats getStats(Long memberId) {
+        return memberStatsRepository.findById(memberId)
+                .orElseGet(() -> new MemberStats(memberId));
+    }
+
+    // 기존 챌린지, 히스토리로 통계를 다시 계산 (backfill)
+    // 행을 먼저 잠그고 챌린지를 읽는다 -> 커밋된 완료는 여기서 세고, 아직 커밋되지 않은 완료는 이 트랜잭션이 끝난 뒤 잠금을 얻어 더한다
+    @Transactional
+    public MemberStats recalculate(Long memberId) {
+        MemberStats stats = lock(memberId);
+        List<Challenge> done = challengeRepository.findAllWithHistoriesByMemberIdAndStatusIn(memberId, List.of(SUCCESS, FAIL));
+
+        // 히스토리 하나로 끝난 챌린지는 시작한 날짜 기준으로 하루만 센다
+        TreeSet<LocalDate> oneDayDates = done.stream()
+                .filter(oneDay -> oneDay.getHistories().size() == 1)
+                .map(duplicate -> duplicate.getCreatedAt().toLocalDate())
+                .collect(Collectors.toCollection(TreeSet::new));
+        int sum = done.stream()
+                .map(challenge -> challenge.getHistories().size())
+                .filter(size -> size != 1)
+                .mapToInt(i -> i)
+                .sum();
+        Map<Integer, Integer> stampCounts = done.stream()
+                .map(Challenge::getStamp)
+                .filter(stamp -> stamp != 0)
+                .collect(Collectors.toMap(stamp -> stamp, stamp -> 1, Integer::sum, TreeMap::new));
+
+        resetOneDayDates(memberId, oneDayDates);
+        stats.reset(done.size(), oneDayDates.size() + sum, stampCounts);
+        return stats;
+    }
+
+    // 다시 계산한 날짜와 다른 행만 지우고 더한다
+    private void resetOneDayDates(Long memberId, Set<LocalDate> oneDayDates) {
+        Set<LocalDate> kept = new TreeSet<>();
+        for (MemberOneDayDate existing : oneDayDateRepository.findAllByMemberId(memberId)) {
+            LocalDate startDate = existing.getKey().getStartDate();
+            if (oneDayDates.contains(startDate)) {
+                kept.add(startDate);
+            } else {
+                oneDayDateRepository.delete(existing);
+            }
+        }
+        oneDayDates.stream()
+                .filter(startDate -> !kept.contains(startDate))
+                .forEach(startDate -> oneDayDateRepository.save(new MemberOneDayDate(memberId, startDate)));
+    }
+
+    // 잠글 행이 없으면 별도 트랜잭션에서 빈 통계를 먼저 만든다 (동시에 만들면 한쪽은 unique 위반, 이미 있으므로 무시)
+    private MemberStats lock(Long memberId) {
+        return memberStatsRepository.findForUpdateByMemberId(memberId)
+                .orElseGet(() -> {
+                    try {
+                        requiresNew.executeWithoutResult(status -> memberStatsRepository.saveAndFlush(new MemberStats(memberId)));
+                    } catch (DataIntegrityViolationException ignored) {
+                    }
+                    return memberStatsRepository.findForUpdateByMemberId(memberId).orElseThrow();
+                });
+    }
+}
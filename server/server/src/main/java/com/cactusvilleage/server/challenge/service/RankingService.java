@@ -0,0 +1,180 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.repository.StampCount;
+import com.cactusvilleage.server.global.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.cactusvilleage.server.challenge.entities.Status.SUCCESS;
+
+/**
+ * Redis sorted set(member id -> 성공한 챌린지 수)으로 관리하는 도장 랭킹.
+ * 챌린지가 SUCCESS 가 될 때마다 점수를 올리고, 상위 랭커와 내 순위를 O(log n)으로 조회한다.
+ * 도장 개수별 회원 수(hash)를 같은 Lua 스크립트에서 함께 바꾸므로 모든 노드가 같은 동점자 순위를 본다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RankingService {
+
+    private static final String RANKING_KEY = "ranking:stamps";
+    // 도장 개수 -> 회원 수, 0 명이 된 개수는 지운다
+    private static final String COUNTS_KEY = RANKING_KEY + ":counts";
+    // 재구성마다 다른 임시 키를 써서 여러 노드가 동시에 재구성해도 서로의 임시 데이터를 섞거나 지우지 않는다
+    private static final String REBUILD_KEY_PREFIX = RANKING_KEY + ":rebuild:";
+    private static final String REBUILD_COUNTS_KEY_PREFIX = COUNTS_KEY + ":rebuild:";
+    // 일괄 반영 시 스크립트 한 번에 넘기는 회원 수 (스크립트가 도는 동안 Redis 가 다른 명령을 처리하지 못한다)
+    private static final int INCREASE_BATCH_SIZE = 1000;
+
+    // ARGV: member id, 늘릴 도장 수 쌍의 목록
+    private static final RedisScript<Long> INCREASE_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #ARGV, 2 do " +
+                    "local before = redis.call('zscore', KEYS[1], ARGV[i]) " +
+                    "local after = redis.call('zincrby', KEYS[1], ARGV[i + 1], ARGV[i]) " +
+                    "if before and redis.call('hincrby', KEYS[2], tostring(tonumber(before)), -1) <= 0 then " +
+                    "redis.call('hdel', KEYS[2], tostring(tonumber(before))) end " +
+                    "redis.call('hincrby', KEYS[2], tostring(tonumber(after)), 1) " +
+                    "end return #ARGV / 2", Long.class);
+
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "local before = redis.call('zscore', KEYS[1], ARGV[1]) " +
+                    "if not before then return 0 end " +
+                    "redis.call('zrem', KEYS[1], ARGV[1]) " +
+                    "if redis.call('hincrby', KEYS[2], tostring(tonumber(before)), -1) <= 0 then " +
+                    "redis.call('hdel', KEYS[2], tostring(tonumber(before))) end " +
+                    "return 1", Long.class);
+
+    // 재구성한 임시 키 두 개를 한 번에 교체
+    private static final RedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('rename', KEYS[1], KEYS[3]) " +
+                    "redis.call('rename', KEYS[2], KEYS[4]) " +
+                    "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ChallengeRepository challengeRepository;
+
+    // 챌린지 성공 시 도장 수 + 1, 트랜잭션이 커밋된 뒤에 반영
+    public void increaseStamp(Long memberId) {
+        AfterCommit.run(() -> redisTemplate.execute(INCREASE_SCRIPT, List.of(RANKING_KEY, COUNTS_KEY), memberId.toString(), "1"));
+    }
+
+    // 회원별 늘어난 도장 수를 커밋된 뒤 INCREASE_BATCH_SIZE 명씩 스크립트 한 번으로 반영 (일괄 처리용)
+    public void increaseStamps(Map<Long, Long> stampsByMember) {
+        if (stampsByMember.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            List<String> args = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : stampsByMember.entrySet()) {
+                args.add(entry.getKey().toString());
+                args.add(entry.getValue().toString());
+                if (args.size() == INCREASE_BATCH_SIZE * 2) {
+                    redisTemplate.execute(INCREASE_SCRIPT, List.of(RANKING_KEY, COUNTS_KEY), args.toArray());
+                    args.clear();
+                }
+            }
+            if (!args.isEmpty()) {
+                redisTemplate.execute(INCREASE_SCRIPT, List.of(RANKING_KEY, COUNTS_KEY), args.toArray());
+            }
+        });
+    }
+
+    // 회원 탈퇴 시 랭킹에서 제외
+    public void remove(Long memberId) {
+        AfterCommit.run(() -> redisTemplate.execute(REMOVE_SCRIPT, List.of(RANKING_KEY, COUNTS_KEY), memberId.toString()));
+    }
+
+    public List<TypedTuple<String>> getTopRankers(int size) {
+        return getRankers(0, size);
+    }
+
+    public List<TypedTuple<String>> getRankers(long offset, int size) {
+        Set<TypedTuple<String>> rankers = redisTemplate.opsForZSet().reverseRangeWithScores(RANKING_KEY, offset, offset + size - 1);
+        return rankers == null ? new ArrayList<>() : new ArrayList<>(rankers);
+    }
+
+    public int getStamps(Long memberId) {
+        Double stamps = redisTemplate.opsForZSet().score(RANKING_KEY, memberId.toString());
+        return stamps == null ? 0 : stamps.intValue();
+    }
+
+    // 동점자는 같은 순위 (1, 2, 2, 4), 도장이 없으면 도장을 가진 회원 수 + 1
+    // 도장 수는 정수이므로 ZCOUNT [stamps + 1, +inf] = 나보다 도장이 많은 회원 수
+    public int getRank(int stamps) {
+        Long above = redisTemplate.opsForZSet().count(RANKING_KEY, stamps + 1, Double.POSITIVE_INFINITY);
+        return (int) (above == null ? 0 : above) + 1;
+    }
+
+    // 동점자는 같은 순위, 다음 순위를 건너뛰지 않음 (1, 2, 2, 3)
+    public int getDenseRank(int stamps) {
+        return loadRankIndex().denseRank(stamps);
+    }
+
+    // 도장 개수별 회원 수를 한 번에 읽어 만든 순위 인덱스, 한 페이지의 순위를 같은 시점 값으로 계산할 때 쓴다
+    StampRankIndex loadRankIndex() {
+        Map<String, String> counts = redisTemplate.<String, String>opsForHash().entries(COUNTS_KEY);
+        Map<Integer, Long> histogram = new HashMap<>();
+        counts.forEach((stamps, count) -> histogram.put(Integer.parseInt(stamps), Long.parseLong(count)));
+
+        StampRankIndex index = new StampRankIndex();
+        index.reset(histogram);
+        return index;
+    }
+
+    public long getRankerCount() {
+        Long count = redisTemplate.opsForZSet().zCard(RANKING_KEY);
+        return count == null ? 0 : count;
+    }
+
+    // DB 기준으로 랭킹과 도장 개수별 회원 수를 재구성, 임시 키에 채운 뒤 rename 으로 한 번에 교체
+    public void rebuild() {
+        List<StampCount> stampCounts = challengeRepository.countByStatusGroupByMember(SUCCESS);
+        Set<TypedTuple<String>> tuples = stampCounts.stream()
+                .map(count -> new DefaultTypedTuple<>(count.getMemberId().toString(), count.getStamps().doubleValue()))
+                .collect(Collectors.toSet());
+        Map<String, String> counts = stampCounts.stream()
+                .collect(Collectors.groupingBy(count -> count.getStamps().toString(),
+                        Collectors.collectingAndThen(Collectors.counting(), String::valueOf)));
+
+        if (tuples.isEmpty()) {
+            redisTemplate.delete(List.of(RANKING_KEY, COUNTS_KEY));
+        } else {
+            String id = UUID.randomUUID().toString();
+            List<String> rebuildKeys = List.of(REBUILD_KEY_PREFIX + id, REBUILD_COUNTS_KEY_PREFIX + id);
+            try {
+                redisTemplate.opsForZSet().add(rebuildKeys.get(0), tuples);
+                redisTemplate.opsForHash().putAll(rebuildKeys.get(1), counts);
+                redisTemplate.execute(SWAP_SCRIPT, List.of(rebuildKeys.get(0), rebuildKeys.get(1), RANKING_KEY, COUNTS_KEY));
+            } catch (RuntimeException e) {
+                redisTemplate.delete(rebuildKeys);
+                throw e;
+            }
+        }
+        log.info("[RANKING] rebuilt ranking of {} members", tuples.size());
+    }
+
+    // 도장 개수별 회원 수가 없으면 (처음 배포, Redis 초기화) 랭킹과 같이 다시 만든다
+    @EventListener(ApplicationReadyEvent.class)
+    public void initRanking() {
+        if (Boolean.FALSE.equals(redisTemplate.hasKey(RANKING_KEY)) || Boolean.FALSE.equals(redisTemplate.hasKey(COUNTS_KEY))) {
+            rebuild();
+        }
+    }
+}
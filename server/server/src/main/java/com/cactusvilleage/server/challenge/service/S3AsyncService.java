@@ -0,0 +1,298 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.S3_UPLOAD_BUSY;
+
+/**
+ * aws.s3.async.enabled=true 일 때 S3Service 대신 쓰는 비동기 S3 전송.
+ * 업로드, 다운로드 모두 S3 응답을 기다리는 동안 Tomcat 스레드를 잡지 않는다.
+ * SDK 콜백(Netty event loop)에서 블로킹 작업을 하지 않도록 이어지는 작업은 별도 스레드 풀에서 실행한다.
+ * 업로드 후속 작업(히스토리 등록 트랜잭션)과 다운로드 본문 쓰기(느린 클라이언트면 블로킹)는 풀을 나눠
+ * 느린 다운로드가 업로드 완료 처리를 막지 않게 하고, 두 풀 모두 큐 크기를 제한해 넘치면 바로 거절한다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "aws.s3.async.enabled", havingValue = "true")
+public class S3AsyncService {
+
+    private final S3AsyncClient s3AsyncClient;
+    private final String bucket;
+    private final long emitterTimeout;
+    private final ThreadPoolTaskExecutor uploadExecutor;
+    private final ThreadPoolTaskExecutor downloadExecutor;
+
+    public S3AsyncService(S3AsyncClient s3AsyncClient,
+                          @Value("${aws.s3.bucket}") String bucket,
+                          @Value("${aws.s3.async.upload-threads:8}") int uploadThreads,
+                          @Value("${aws.s3.async.upload-queue:100}") int uploadQueue,
+                          @Value("${aws.s3.async.download-threads:${aws.s3.async.callback-threads:16}}") int downloadThreads,
+                          @Value("${aws.s3.async.download-queue:1000}") int downloadQueue,
+                          @Value("${aws.s3.async.download-timeout:60000}") long emitterTimeout) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.bucket = bucket;
+        this.emitterTimeout = emitterTimeout;
+        this.uploadExecutor = boundedExecutor("s3-upload-", uploadThreads, uploadQueue);
+        this.downloadExecutor = boundedExecutor("s3-download-", downloadThreads, downloadQueue);
+    }
+
+    private static ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+        downloadExecutor.shutdown();
+    }
+
+    /**
+     * 업로드가 끝나면 uploadExecutor 스레드에서 S3 key 로 완료되는 future.
+     * 요청의 인증 정보를 넘겨 두므로 이어지는 작업(히스토리 등록)이 그 스레드에서 현재 회원을 조회할 수 있다.
+     * 업로드 풀이 가득 차 있으면 올리기 전에 S3_UPLOAD_BUSY 로 실패한다.
+     * 올리는 사이에 풀이 가득 차 후속 작업이 거절되면 올린 객체를 지우고 S3_UPLOAD_BUSY 로 실패한다 (히스토리 없는 객체를 남기지 않음).
+     */
+    public CompletableFuture<String> upload(MultipartFile multipartFile) throws IOException {
+        if (uploadExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+            log.warn("[REJECTED] upload of {} rejected before start, upload pool is full", multipartFile.getOriginalFilename());
+            return CompletableFuture.failedFuture(new BusinessLogicException(S3_UPLOAD_BUSY));
+        }
+
+        String s3FileName = UUID.randomUUID() + "-" + multipartFile.getOriginalFilename();
+        log.info("[CREATED] created fileName is {}", s3FileName);
+
+        // 파일에서 part 단위로 읽어 보내므로 메모리에 이미지 전체를 올리지 않는다
+        File tempFile = File.createTempFile("s3-upload-", ".tmp");
+        CompletableFuture<PutObjectResponse> put;
+        try {
+            multipartFile.transferTo(tempFile);
+
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(s3FileName)
+                    .contentType(multipartFile.getContentType())
+                    .contentLength(multipartFile.getSize())
+                    .build();
+            put = s3AsyncClient.putObject(request, AsyncRequestBody.fromFile(tempFile.toPath()));
+        } catch (IOException | RuntimeException e) {
+            // 업로드를 시작하지 못했다면 콜백이 없으므로 여기서 지운다
+            deleteTempFile(tempFile);
+            throw e;
+        }
+
+        // thenApplyAsync 는 executor 가 거절하면 future 를 완료하지 못하므로 직접 넘기고 거절되면 실패로 완료한다
+        Executor executor = new DelegatingSecurityContextExecutor(uploadExecutor, SecurityContextHolder.getContext());
+        CompletableFuture<String> uploaded = new CompletableFuture<>();
+        put.whenComplete((response, e) -> {
+            deleteTempFile(tempFile);
+            if (e != null) {
+                uploaded.completeExceptionally(e);
+                return;
+            }
+            try {
+                executor.execute(() -> uploaded.complete(s3FileName));
+            } catch (RejectedExecutionException rejected) {
+                log.warn("[REJECTED] upload continuation of {} rejected, upload pool is full", s3FileName);
+                deleteObject(s3FileName);
+                uploaded.completeExceptionally(new BusinessLogicException(S3_UPLOAD_BUSY));
+            }
+        });
+        return uploaded;
+    }
+
+    private void deleteTempFile(File tempFile) {
+        if (!tempFile.delete()) {
+            log.warn("[DELETE] temp file {} was not deleted", tempFile);
+        }
+    }
+
+    // 이벤트 루프 스레드이므로 기다리지 않는다, 실패하면 로그만 남긴다
+    private void deleteObject(String s3FileName) {
+        s3AsyncClient.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(s3FileName).build())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        log.warn("[DELETE] orphaned object {} was not deleted", s3FileName, e);
+                    }
+                });
+    }
+
+    /**
+     * S3 응답 헤더가 오면 ResponseEntity 로 완료되고, 본문은 ResponseBodyEmitter 로 받은 만큼 흘려보낸다.
+     * Range, If-None-Match 는 그대로 S3 에 넘긴다 (S3 가 206, 304 를 판단).
+     */
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> download(String storedFileName, String ifNoneMatch, String rangeHeader) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(storedFileName)
+                .ifNoneMatch(ifNoneMatch)
+                .range(rangeHeader)
+                .build();
+
+        EmitterTransformer transformer = new EmitterTransformer(createEmitter(), rangeHeader != null);
+        s3AsyncClient.getObject(request, transformer);
+
+        return transformer.response.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof S3Exception) {
+                int status = ((S3Exception) cause).statusCode();
+                if (status == HttpStatus.NOT_MODIFIED.value() || status == HttpStatus.NOT_FOUND.value()
+                        || status == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                    return ResponseEntity.status(status).build();
+                }
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    ResponseBodyEmitter createEmitter() {
+        return new ResponseBodyEmitter(emitterTimeout);
+    }
+
+    // S3 본문 ByteBuffer 를 하나 보낸 뒤 다음 하나를 요청 -> 느린 클라이언트여도 메모리에 쌓이지 않는다
+    // 다운로드마다 downloadExecutor 에 올라가는 작업은 많아야 하나라서, 큐가 넘치면 동시 다운로드가 너무 많은 것이므로 그 다운로드를 끊는다
+    private class EmitterTransformer implements AsyncResponseTransformer<GetObjectResponse, Void> {
+        private final CompletableFuture<ResponseEntity<ResponseBodyEmitter>> response = new CompletableFuture<>();
+        private final ResponseBodyEmitter emitter;
+        private final boolean partial;
+        private CompletableFuture<Void> done;
+        private MediaType contentType;
+        // onNext, onComplete 는 순서대로 오므로 이어 붙여서 보낸 순서를 지킨다
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private Subscription subscription;
+
+        private EmitterTransformer(ResponseBodyEmitter emitter, boolean partial) {
+            this.emitter = emitter;
+            this.partial = partial;
+        }
+
+        @Override
+        public CompletableFuture<Void> prepare() {
+            done = new CompletableFuture<>();
+            return done;
+        }
+
+        @Override
+        public void onResponse(GetObjectResponse getObjectResponse) {
+            HttpHeaders httpHeaders = S3Service.cacheHeaders(getObjectResponse.eTag().replace("\"", ""));
+            contentType = getObjectResponse.contentType() == null
+                    ? MediaType.APPLICATION_OCTET_STREAM
+                    : MediaType.parseMediaType(getObjectResponse.contentType());
+            httpHeaders.setContentType(contentType);
+            httpHeaders.setContentLength(getObjectResponse.contentLength());
+            if (partial && getObjectResponse.contentRange() != null) {
+                httpHeaders.set(HttpHeaders.CONTENT_RANGE, getObjectResponse.contentRange());
+            }
+
+            HttpStatus status = partial && getObjectResponse.contentRange() != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+            response.complete(new ResponseEntity<>(emitter, httpHeaders, status));
+        }
+
+        @Override
+        public void onStream(SdkPublisher<ByteBuffer> publisher) {
+            publisher.subscribe(new Subscriber<ByteBuffer>() {
+                @Override
+                public void onSubscribe(Subscription s) {
+                    subscription = s;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(ByteBuffer byteBuffer) {
+                    byte[] bytes = new byte[byteBuffer.remaining()];
+                    byteBuffer.get(bytes);
+                    enqueue(() -> {
+                        try {
+                            emitter.send(bytes, contentType);
+                            subscription.request(1);
+                        } catch (IOException e) {
+                            // 클라이언트가 연결을 끊으면 S3 스트림도 취소
+                            subscription.cancel();
+                            fail(e);
+                        }
+                    });
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    enqueue(() -> {
+                        emitter.complete();
+                        done.complete(null);
+                    });
+                }
+            });
+        }
+
+        private void enqueue(Runnable task) {
+            tail = tail.thenRunAsync(task, this::executeOrFail);
+        }
+
+        private void executeOrFail(Runnable task) {
+            try {
+                downloadExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                subscription.cancel();
+                fail(e);
+            }
+        }
+
+        @Override
+        public void exceptionOccurred(Throwable error) {
+            fail(error);
+        }
+
+        private void fail(Throwable error) {
+            if (!response.completeExceptionally(error)) {
+                emitter.completeWithError(error);
+            }
+            if (done != null) {
+                done.completeExceptionally(error);
+            }
+        }
+    }
+}
@@ -1,33 +1,71 @@
 package com.cactusvilleage.server.challenge.service;
 
+import com.amazonaws.HttpMethod;
+import com.amazonaws.SdkClientException;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
-import com.amazonaws.util.IOUtils;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.cactusvilleage.server.challenge.web.dto.response.PresignedUploadResponseDto;
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.File;
 import java.io.IOException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.STUDY_IMAGE_NOT_UPLOADED;
+import static com.cactusvilleage.server.global.exception.ExceptionCode.STUDY_IMAGE_TOO_LARGE;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
 public class S3Service {
 
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
     @Value("${aws.s3.bucket}")
     private String bucket;
+    @Value("${aws.s3.multipart.part-size:8388608}")
+    private long partSize;
+
+    // presigned URL 유효 시간 (ms)
+    @Value("${aws.s3.presigned.expiration:300000}")
+    private long presignedExpiration;
+
+    // presigned URL 로 올릴 수 있는 최대 크기 (byte)
+    @Value("${aws.s3.presigned.max-size:10485760}")
+    private long presignedMaxSize;
+
+    // true 면 이미지 조회 시 바이트를 프록시하지 않고 presigned GET URL 로 302
+    @Value("${aws.s3.presigned.redirect-download:false}")
+    private boolean redirectDownload;
     private final AmazonS3 amazonS3;
+    private final TransferManager transferManager;
 
     public String upload(MultipartFile multipartFile) throws IOException {
 
@@ -36,40 +74,220 @@ public class S3Service {
         log.info("[CREATED] created fileName is {}", s3FileName);
 
         // Spring Server 에서 S3 파일 업로드 할 때 파일 사이즈 ContentLength 로 S3에 전달하기 위해 ObjectMetadata 사용
+        // available() 은 파일 크기가 아니므로 getSize() 사용 -> SDK 가 길이를 구하려고 전체를 메모리에 올리지 않는다
         ObjectMetadata objectMetadata = new ObjectMetadata();
-        objectMetadata.setContentLength(multipartFile.getInputStream().available());
-        log.info("[CREATED] created objectMetadata ContentLength is {}", objectMetadata);
+        objectMetadata.setContentLength(multipartFile.getSize());
 
         // S3에 jpg, png 형식이 올라갈 때 url 다운로드가 되는데 contentType 설정해서 multipartfile.jpg 같은 것으로 설정, 다운말고 조회 가능
         objectMetadata.setContentType(multipartFile.getContentType());
-        log.info("[CREATED] created objectMetadata ContentType is {}", objectMetadata);
+        log.info("[CREATED] created objectMetadata ContentLength is {}, ContentType is {}",
+                objectMetadata.getContentLength(), objectMetadata.getContentType());
 
-        // s3 업로드
-        amazonS3.putObject(bucket, s3FileName, multipartFile.getInputStream(), objectMetadata);
-        log.debug("[CREATED] created amazonS3 system is {}", amazonS3);
+        // part 두 개 이상으로 나뉘는 파일만 멀티파트로 (AwsConfig 의 TransferManager threshold 와 같은 기준)
+        if (multipartFile.getSize() < partSize * 2) {
+            // 작은 파일은 스트림 그대로 한 번에 업로드
+            try (InputStream inputStream = multipartFile.getInputStream()) {
+                amazonS3.putObject(bucket, s3FileName, inputStream, objectMetadata);
+            }
+        } else {
+            uploadMultipart(multipartFile, s3FileName, objectMetadata);
+        }
 
         return s3FileName;
     }
 
-    public ResponseEntity<byte[]> download(String storedFileName) throws IOException {
+    // 큰 파일은 임시 파일로 옮긴 뒤 part 단위로 병렬 업로드 (part 마다 파일 구간을 읽으므로 메모리 사용량이 part 크기로 제한됨)
+    private void uploadMultipart(MultipartFile multipartFile, String s3FileName, ObjectMetadata objectMetadata) throws IOException {
+        File tempFile = File.createTempFile("s3-upload-", ".tmp");
+        try {
+            multipartFile.transferTo(tempFile);
+            PutObjectRequest request = new PutObjectRequest(bucket, s3FileName, tempFile).withMetadata(objectMetadata);
+            transferManager.upload(request).waitForCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("S3 multipart upload interrupted", e);
+        } finally {
+            if (!tempFile.delete()) {
+                log.warn("[DELETE] temp file {} was not deleted", tempFile);
+            }
+        }
+    }
 
-        // S3Object 선언 후 s3 버킷, 파일 이름을 전달하고 매칭되면 object 반환 -> 할당
-        S3Object object = amazonS3.getObject(bucket, storedFileName);
+    // 클라이언트가 S3 에 직접 PUT 할 수 있는 presigned URL, 서명에 Content-Type 이 포함되므로 같은 타입으로 올려야 한다
+    public PresignedUploadResponseDto presignUpload(String objectKey, String contentType) {
+        Date expiration = new Date(System.currentTimeMillis() + presignedExpiration);
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucket, objectKey, HttpMethod.PUT)
+                .withExpiration(expiration)
+                .withContentType(contentType);
 
-        // InputStream 생성, 앞서 만든 object에서 getObjectContent()를 호출해 할당
-        S3ObjectInputStream objectInputStream = object.getObjectContent();
+        return PresignedUploadResponseDto.builder()
+                .objectKey(objectKey)
+                .uploadUrl(amazonS3.generatePresignedUrl(request).toString())
+                .expiresAt(LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()))
+                .build();
+    }
 
-        byte[] bytes = IOUtils.toByteArray(objectInputStream);
+    // presigned PUT 은 업로드 크기를 제한할 수 없으므로 등록할 때 실제 크기를 확인하고, 제한을 넘으면 지운다
+    public void verifyPresignedUpload(String objectKey) {
+        ObjectMetadata metadata;
+        try {
+            metadata = amazonS3.getObjectMetadata(bucket, objectKey);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new BusinessLogicException(STUDY_IMAGE_NOT_UPLOADED);
+            }
+            throw e;
+        }
 
-        String fileName = URLEncoder.encode(storedFileName, StandardCharsets.UTF_8).replaceAll("\\+", "%20");
+        if (metadata.getContentLength() > presignedMaxSize) {
+            log.info("[DELETE] presigned upload {} is {} bytes, over the limit", objectKey, metadata.getContentLength());
+            amazonS3.deleteObject(bucket, objectKey);
+            throw new BusinessLogicException(STUDY_IMAGE_TOO_LARGE);
+        }
+    }
+
+    // 히스토리로 등록하지 못한 이미지를 지운다, 실패해도 등록 실패 원인을 가리지 않도록 로그만 남긴다
+    public void delete(String storedFileName) {
+        try {
+            amazonS3.deleteObject(bucket, storedFileName);
+        } catch (SdkClientException e) {
+            log.warn("[DELETE] orphaned object {} was not deleted", storedFileName, e);
+        }
+    }
 
+    /**
+     * S3 객체를 메모리에 모으지 않고 응답 스트림으로 바로 흘려보낸다.
+     * 파일 이름이 UUID 로 시작해 내용이 바뀌지 않으므로 ETag 가 같으면 304, 캐시는 1년 immutable.
+     * Range 요청은 첫 번째 구간만 206 으로 응답한다.
+     */
+    public ResponseEntity<StreamingResponseBody> download(String storedFileName, String ifNoneMatch, String rangeHeader) {
+        if (redirectDownload) {
+            return redirectToPresignedUrl(storedFileName);
+        }
+
+        try {
+            if (rangeHeader == null) {
+                return downloadAll(storedFileName, ifNoneMatch);
+            }
+            return downloadRange(storedFileName, ifNoneMatch, rangeHeader);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                return ResponseEntity.notFound().build();
+            }
+            throw e;
+        }
+    }
+
+    // 이미지 바이트가 API 서버를 거치지 않도록 짧게 유효한 GET URL 로 보낸다
+    private ResponseEntity<StreamingResponseBody> redirectToPresignedUrl(String storedFileName) {
         HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setLocation(presignDownload(storedFileName));
+        return new ResponseEntity<>(httpHeaders, HttpStatus.FOUND);
+    }
+
+    public URI presignDownload(String storedFileName) {
+        Date expiration = new Date(System.currentTimeMillis() + presignedExpiration);
+        URL url = amazonS3.generatePresignedUrl(bucket, storedFileName, expiration, HttpMethod.GET);
+        return URI.create(url.toString());
+    }
+
+    public boolean isRedirectDownload() {
+        return redirectDownload;
+    }
+
+    private ResponseEntity<StreamingResponseBody> downloadAll(String storedFileName, String ifNoneMatch) {
+        GetObjectRequest request = new GetObjectRequest(bucket, storedFileName);
+        if (ifNoneMatch != null) {
+            request.setNonmatchingETagConstraints(parseETags(ifNoneMatch));
+        }
 
-        httpHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        httpHeaders.setContentLength(bytes.length);
-        httpHeaders.setContentDispositionFormData("attachment", fileName);
+        // ETag 가 일치하면 SDK 가 null 반환 (S3 304)
+        S3Object object = amazonS3.getObject(request);
+        if (object == null) {
+            return notModified(ifNoneMatch);
+        }
 
-        return new ResponseEntity<>(bytes, httpHeaders, HttpStatus.OK);
+        ObjectMetadata metadata = object.getObjectMetadata();
+        HttpHeaders httpHeaders = cacheHeaders(metadata.getETag());
+        httpHeaders.setContentType(contentType(metadata));
+        httpHeaders.setContentLength(metadata.getContentLength());
+
+        return new ResponseEntity<>(stream(object), httpHeaders, HttpStatus.OK);
+    }
+
+    private ResponseEntity<StreamingResponseBody> downloadRange(String storedFileName, String ifNoneMatch, String rangeHeader) {
+        // 구간 계산에 전체 크기가 필요하므로 메타데이터 먼저 조회
+        ObjectMetadata metadata = amazonS3.getObjectMetadata(bucket, storedFileName);
+        if (ifNoneMatch != null && parseETags(ifNoneMatch).contains(metadata.getETag())) {
+            return notModified(ifNoneMatch);
+        }
+
+        long length = metadata.getContentLength();
+        HttpHeaders httpHeaders = cacheHeaders(metadata.getETag());
+
+        long start;
+        long end;
+        try {
+            HttpRange range = HttpRange.parseRanges(rangeHeader).get(0);
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return rangeNotSatisfiable(httpHeaders, length);
+        }
+        // 시작 위치가 객체 끝을 넘거나 0 바이트 객체면 (end = -1) 보낼 구간이 없다
+        if (start >= length || start > end) {
+            return rangeNotSatisfiable(httpHeaders, length);
+        }
+
+        S3Object object = amazonS3.getObject(new GetObjectRequest(bucket, storedFileName).withRange(start, end));
+        httpHeaders.setContentType(contentType(metadata));
+        httpHeaders.setContentLength(end - start + 1);
+        httpHeaders.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+
+        return new ResponseEntity<>(stream(object), httpHeaders, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    private ResponseEntity<StreamingResponseBody> rangeNotSatisfiable(HttpHeaders httpHeaders, long length) {
+        httpHeaders.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        return new ResponseEntity<>(httpHeaders, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    private StreamingResponseBody stream(S3Object object) {
+        return outputStream -> {
+            try (S3ObjectInputStream inputStream = object.getObjectContent()) {
+                inputStream.transferTo(outputStream);
+            } catch (IOException e) {
+                // 클라이언트가 중간에 끊으면 남은 본문을 읽지 않고 S3 연결을 닫는다
+                object.getObjectContent().abort();
+                throw e;
+            }
+        };
+    }
+
+    private ResponseEntity<StreamingResponseBody> notModified(String ifNoneMatch) {
+        return new ResponseEntity<>(cacheHeaders(parseETags(ifNoneMatch).get(0)), HttpStatus.NOT_MODIFIED);
+    }
+
+    static HttpHeaders cacheHeaders(String eTag) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setETag("\"" + eTag + "\"");
+        httpHeaders.setCacheControl(IMMUTABLE_CACHE_CONTROL);
+        httpHeaders.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        return httpHeaders;
+    }
+
+    private MediaType contentType(ObjectMetadata metadata) {
+        return metadata.getContentType() == null
+                ? MediaType.APPLICATION_OCTET_STREAM
+                : MediaType.parseMediaType(metadata.getContentType());
+    }
 
+    // If-None-Match: "a", W/"b" -> [a, b]
+    static List<String> parseETags(String ifNoneMatch) {
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .map(tag -> tag.replace("\"", ""))
+                .collect(Collectors.toList());
     }
 }
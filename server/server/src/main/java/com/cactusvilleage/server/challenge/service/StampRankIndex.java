@@ -0,0 +1,130 @@
+package com.cactusvilleage.server.challenge.service;
+
+import java.util.Map;
+
+/**
+ * 도장 개수별 회원 수를 Fenwick tree 로 관리하는 순위 인덱스.
+ * "나보다 도장이 많은 회원 수"를 O(log maxStamps)로 구해 동점자 순위를 계산한다.
+ * 도장이 0개인 회원은 담지 않는다. 랭킹 페이지를 그릴 때 Redis 의 도장 개수별 회원 수로 한 번 만든다 (RankingService.loadRankIndex).
+ */
+class StampRankIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] counts;   // 도장 개수별 회원 수
+    private long[] members;  // 회원 수 누적 트리
+    private long[] distinct; // 회원이 한 명 이상 있는 도장 개수의 누적 트리
+    private long total;
+
+    StampRankIndex() {
+        init(INITIAL_CAPACITY);
+    }
+
+    synchronized void add(int stamps) {
+        update(stamps, 1);
+    }
+
+    synchronized void remove(int stamps) {
+        update(stamps, -1);
+    }
+
+    synchronized void move(int from, int to) {
+        update(from, -1);
+        update(to, 1);
+    }
+
+    synchronized void reset(Map<Integer, Long> histogram) {
+        int max = histogram.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        init(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(max, 1)) << 1));
+        histogram.forEach((stamps, count) -> {
+            if (stamps > 0 && count > 0) {
+                counts[stamps] = count;
+                addTo(members, stamps, count);
+                addTo(distinct, stamps, 1);
+                total += count;
+            }
+        });
+    }
+
+    // 같은 도장 수는 같은 순위, 다음 순위는 동점자 수만큼 건너뛴다 (1, 2, 2, 4)
+    synchronized int competitionRank(int stamps) {
+        return (int) (countAbove(members, stamps) + 1);
+    }
+
+    // 같은 도장 수는 같은 순위, 다음 순위는 건너뛰지 않는다 (1, 2, 2, 3)
+    synchronized int denseRank(int stamps) {
+        return (int) (countAbove(distinct, stamps) + 1);
+    }
+
+    synchronized long size() {
+        return total;
+    }
+
+    private void update(int stamps, int delta) {
+        if (stamps <= 0) {
+            return;
+        }
+        ensureCapacity(stamps);
+
+        long before = counts[stamps];
+        long after = Math.max(0, before + delta);
+        if (before == after) {
+            return;
+        }
+        counts[stamps] = after;
+        addTo(members, stamps, after - before);
+        total += after - before;
+
+        if (before == 0) {
+            addTo(distinct, stamps, 1);
+        } else if (after == 0) {
+            addTo(distinct, stamps, -1);
+        }
+    }
+
+    private long countAbove(long[] tree, int stamps) {
+        int bounded = Math.min(Math.max(stamps, 0), counts.length - 1);
+        return prefixSum(tree, counts.length - 1) - prefixSum(tree, bounded);
+    }
+
+    private void init(int capacity) {
+        counts = new long[capacity + 1];
+        members = new long[capacity + 1];
+        distinct = new long[capacity + 1];
+        total = 0;
+    }
+
+    private void ensureCapacity(int stamps) {
+        if (stamps < counts.length) {
+            return;
+        }
+        long[] old = counts;
+        int capacity = counts.length - 1;
+        while (capacity < stamps) {
+            capacity <<= 1;
+        }
+        init(capacity);
+        for (int i = 1; i < old.length; i++) {
+            if (old[i] > 0) {
+                counts[i] = old[i];
+                addTo(members, i, old[i]);
+                addTo(distinct, i, 1);
+                total += old[i];
+            }
+        }
+    }
+
+    private static void addTo(long[] tree, int index, long delta) {
+        for (int i = index; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static long prefixSum(long[] tree, int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
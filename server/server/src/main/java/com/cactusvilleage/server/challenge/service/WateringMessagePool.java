@@ -0,0 +1,92 @@
+package com.cactusvilleage.server.challenge.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 물 주기 메시지 목록을 시작 시 한 번 읽어 메모리에 들고 있는다.
+ * water.message-path 에 외부 파일을 지정하면 수정될 때마다 다시 읽어 목록 전체를 한 번에 교체한다.
+ */
+@Slf4j
+@Component
+public class WateringMessagePool {
+
+    private static final String DEFAULT_MESSAGE = "선인장 키우기와 함께 해주셔서 감사합니다! 앞으로도 화이팅!";
+
+    @Value("classpath:/static/water.txt")
+    private Resource fileResource;
+
+    @Value("${water.message-path:}")
+    private String messagePath;
+
+    private final AtomicReference<String[]> messages = new AtomicReference<>(new String[]{DEFAULT_MESSAGE});
+    private volatile long lastModified = -1;
+
+    @PostConstruct
+    public void init() {
+        try {
+            replace(read(new BufferedReader(new InputStreamReader(fileResource.getInputStream(), StandardCharsets.UTF_8))));
+        } catch (IOException e) {
+            log.warn("[WATER] can't read default messages, using default message", e);
+        }
+        reloadIfChanged();
+    }
+
+    public String pick() {
+        String[] pool = messages.get();
+        return pool[ThreadLocalRandom.current().nextInt(pool.length)];
+    }
+
+    @Scheduled(fixedDelayString = "${water.reload-interval:30000}")
+    public void reloadIfChanged() {
+        if (messagePath == null || messagePath.isBlank()) {
+            return;
+        }
+
+        Path path = Paths.get(messagePath);
+        try {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == lastModified) {
+                return;
+            }
+            replace(read(Files.newBufferedReader(path, StandardCharsets.UTF_8)));
+            lastModified = modified;
+            log.info("[WATER] reloaded messages from {}", path);
+        } catch (IOException e) {
+            log.warn("[WATER] can't read messages from {}", path, e);
+        }
+    }
+
+    private void replace(String[] loaded) {
+        if (loaded.length > 0) {
+            messages.set(loaded);
+        }
+    }
+
+    // lines() 는 읽기 실패(깨진 UTF-8 등)를 UncheckedIOException 으로 던지므로 IOException 으로 돌려 같은 경로로 처리한다
+    private String[] read(BufferedReader reader) throws IOException {
+        try (reader) {
+            return reader.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty())
+                    .toArray(String[]::new);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
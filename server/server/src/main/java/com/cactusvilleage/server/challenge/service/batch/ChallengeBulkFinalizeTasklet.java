@@ -0,0 +1,55 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.service.MemberStatsService;
+import com.cactusvilleage.server.challenge.service.RankingService;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 기간이 끝난 챌린지를 회원별 조회 없이 쿼리 몇 번으로 한 번에 처리한다 (step 트랜잭션 하나).
+ * 도장을 뽑고, 같은 조건으로 통계에 더한 뒤, UPDATE 문 두 번(SUCCESS, FAIL)으로 상태를 바꾼다.
+ * 랭킹은 커밋된 뒤 회원별 늘어난 도장 수를 한 번의 파이프라인으로 반영한다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChallengeBulkFinalizeTasklet implements Tasklet {
+
+    private final ChallengeRepository challengeRepository;
+    private final MemberStatsService memberStatsService;
+    private final RankingService rankingService;
+    private final Clock clock;
+    private final FencingTokens.Fence fence;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        fence.check();
+        LocalDate today = LocalDate.now(clock);
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        challengeRepository.stampDueSuccesses(today);
+        memberStatsService.recordDue(today, now);
+        Map<Long, Long> stampsByMember = challengeRepository.findMemberIdsOfDueSuccesses(today).stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        int succeeded = challengeRepository.bulkSucceedDueChallenges(today, now);
+        int failed = challengeRepository.bulkFailDueChallenges(today, now);
+        contribution.incrementWriteCount(succeeded + failed);
+        rankingService.increaseStamps(stampsByMember);
+
+        log.info("[BATCH] finalized challenges (success: {}, fail: {})", succeeded, failed);
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,61 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.repository.IdRange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+
+/**
+ * 기간이 끝난 진행 중 챌린지를 id 범위로 gridSize 개 파티션에 나눈다.
+ * 각 파티션의 ExecutionContext 에 minId, maxId 를 담는다 (양 끝 포함).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChallengeIdRangePartitioner implements Partitioner {
+
+    public static final String MIN_ID = "minId";
+    public static final String MAX_ID = "maxId";
+
+    private final ChallengeRepository challengeRepository;
+    private final Clock clock;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        // DUE_DATE, 히스토리 수가 비어 있는 기존 챌린지는 파티션 reader (detach 된 엔티티) 가 읽을 수 있도록 먼저 채운다
+        int filled = challengeRepository.fillMissingDueDates();
+        filled += challengeRepository.fillMissingHistoryColumns();
+        if (filled > 0) {
+            log.info("[BATCH] filled columns of {} legacy challenges", filled);
+        }
+
+        IdRange range = challengeRepository.findIdRangeByStatusAndDueDate(IN_PROGRESS, LocalDate.now(clock));
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        if (range == null || range.getMinId() == null) {
+            return partitions;
+        }
+
+        long min = range.getMinId();
+        long max = range.getMaxId();
+        long size = (max - min) / gridSize + 1;
+
+        int number = 0;
+        for (long start = min; start <= max; start += size) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(MIN_ID, start);
+            context.putLong(MAX_ID, Math.min(start + size - 1, max));
+            partitions.put("partition" + number++, context);
+        }
+
+        log.info("[BATCH] challenge ids {} ~ {} split into {} partitions", min, max, partitions.size());
+        return partitions;
+    }
+}
@@ -0,0 +1,61 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import org.springframework.batch.item.database.JpaPagingItemReader;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+
+/**
+ * 파티션 하나(minId ~ maxId)의 기간이 끝난 진행 중 챌린지를 id 순으로 읽는다.
+ * offset 대신 마지막으로 읽은 id 다음부터 읽으므로, 처리한 챌린지가 조건에서 빠져도 건너뛰는 행이 없고
+ * 버전 충돌 등으로 건너뛰어 아직 IN_PROGRESS 인 챌린지를 다시 읽지도 않는다 (recheck step 이 처리).
+ * 변경은 JDBC writer 가 쓰므로 EntityManager 가 다시 flush 하지 않도록 transacted 를 끈다.
+ */
+public class ChallengeKeysetItemReader extends JpaPagingItemReader<Challenge> {
+
+    private static final String QUERY = "select c from Challenge c where c.id > :lastId and c.id <= :maxId " +
+            "and c.status = :status and c.dueDate <= :today order by c.id";
+
+    private final long maxId;
+    private final LocalDate today;
+    private long lastId;
+
+    public ChallengeKeysetItemReader(EntityManagerFactory entityManagerFactory, long minId, long maxId,
+                                     LocalDate today, int pageSize) {
+        this.maxId = maxId;
+        this.today = today;
+        this.lastId = minId - 1;
+
+        setName("challengePartitionReader");
+        setEntityManagerFactory(entityManagerFactory);
+        setTransacted(false);
+        setPageSize(pageSize);
+        setQueryString(QUERY);
+        setParameterValues(parameters());
+        // 잡은 재시작하지 않으므로 (preventRestart) 읽은 위치를 저장하지 않는다
+        setSaveState(false);
+    }
+
+    // 위치는 lastId 로 정하므로 offset 은 항상 0
+    @Override
+    public int getPage() {
+        return 0;
+    }
+
+    @Override
+    protected void doReadPage() {
+        setParameterValues(parameters());
+        super.doReadPage();
+        if (!results.isEmpty()) {
+            lastId = results.get(results.size() - 1).getId();
+        }
+    }
+
+    private Map<String, Object> parameters() {
+        return Map.of("lastId", lastId, "maxId", maxId, "status", IN_PROGRESS, "today", today);
+    }
+}
@@ -0,0 +1,63 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.service.ChallengeFinalizer;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+
+/**
+ * 본 step 이 버전 충돌로 건너뛴 챌린지를 다시 읽어 마무리한다.
+ * 본 step 이 끝난 뒤에도 기간이 지났는데 IN_PROGRESS 인 챌린지가 대상이고, 행을 잠그고 다시 읽으므로 충돌하지 않는다.
+ * 호출마다 ID_CHUNK_SIZE 개씩 처리한다 (호출마다 별도 트랜잭션).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChallengeRecheckTasklet implements Tasklet {
+
+    private static final int ID_CHUNK_SIZE = 50;
+
+    private final ChallengeRepository challengeRepository;
+    private final ChallengeFinalizer challengeFinalizer;
+    private final Clock clock;
+    private final FencingTokens.Fence fence;
+
+    private List<Long> challengeIds;
+    private int cursor;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        fence.check();
+        if (challengeIds == null) {
+            challengeIds = challengeRepository.findDueIdsByStatus(IN_PROGRESS, LocalDate.now(clock));
+            if (!challengeIds.isEmpty()) {
+                log.info("[BATCH] rechecking {} challenges left in progress", challengeIds.size());
+            }
+            return RepeatStatus.continueIf(!challengeIds.isEmpty());
+        }
+
+        int end = Math.min(cursor + ID_CHUNK_SIZE, challengeIds.size());
+        for (Long challengeId : challengeIds.subList(cursor, end)) {
+            // 그 사이 다른 곳에서 마무리했다면 IN_PROGRESS 가 아니므로 조회되지 않는다
+            boolean finalized = challengeRepository.findForUpdateByIdAndStatus(challengeId, IN_PROGRESS)
+                    .map(challengeFinalizer::finalizeIfDue)
+                    .orElse(false);
+            if (finalized) {
+                contribution.incrementWriteCount(1);
+            }
+        }
+        cursor = end;
+
+        return RepeatStatus.continueIf(cursor < challengeIds.size());
+    }
+}
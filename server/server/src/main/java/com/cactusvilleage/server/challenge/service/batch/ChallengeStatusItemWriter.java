@@ -0,0 +1,73 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 마무리한 챌린지를 version 조건이 붙은 UPDATE 한 문장씩 JDBC batch 로 보낸다.
+ * 행마다 돌려받은 update count 가 0 이면 읽은 뒤 다른 트랜잭션이 바꾼 챌린지 -> OptimisticLockingFailureException (chunk 롤백).
+ * 미리 행을 잠그지 않으므로 UPDATE 가 잡은 행 락만 chunk 트랜잭션 끝까지 유지된다.
+ * rewriteBatchedStatements=true 여도 드라이버가 한 문장으로 합치는 것은 INSERT 뿐이라 UPDATE 는 행마다 count 를 돌려받는다.
+ * count 를 알 수 없다면 (SUCCESS_NO_INFO) 충돌을 놓치지 않도록 실패시킨다.
+ * 락을 잃은 뒤 다른 노드가 잡을 넘겨받았다면 fence 검사에서 FencedOutException 으로 실패한다 (쓰기 전에 검사).
+ * update 가 끝난 챌린지만 afterUpdate 로 넘긴다 (통계는 같은 chunk 트랜잭션에서, 랭킹은 chunk 가 커밋된 뒤 반영).
+ */
+public class ChallengeStatusItemWriter implements ItemWriter<Challenge> {
+
+    private static final String UPDATE_SQL = "update challenge set status = :status, stamp = :stamp, active_member_id = null, " +
+            "updated_at = :updatedAt, version = version + 1 where challenge_id = :id and version = :version";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final FencingTokens.Fence fence;
+    private final Consumer<Challenge> afterUpdate;
+    private final Clock clock;
+
+    public ChallengeStatusItemWriter(DataSource dataSource, FencingTokens.Fence fence, Consumer<Challenge> afterUpdate, Clock clock) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.fence = fence;
+        this.afterUpdate = afterUpdate;
+        this.clock = clock;
+    }
+
+    @Override
+    public void write(List<? extends Challenge> challenges) {
+        if (challenges.isEmpty()) {
+            return;
+        }
+
+        fence.check();
+        LocalDateTime now = LocalDateTime.now(clock);
+        SqlParameterSource[] params = challenges.stream()
+                .map(challenge -> new MapSqlParameterSource()
+                        .addValue("status", challenge.getStatus().name())
+                        .addValue("stamp", challenge.getStamp())
+                        .addValue("updatedAt", now)
+                        .addValue("id", challenge.getId())
+                        .addValue("version", challenge.getVersion()))
+                .toArray(SqlParameterSource[]::new);
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, params);
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new InvalidDataAccessResourceUsageException("Driver did not report the update count of challenge " + challenges.get(i).getId());
+            }
+            if (counts[i] == 0) {
+                throw new OptimisticLockingFailureException("Challenge " + challenges.get(i).getId() + " was modified after it was read");
+            }
+        }
+        challenges.forEach(afterUpdate);
+    }
+}
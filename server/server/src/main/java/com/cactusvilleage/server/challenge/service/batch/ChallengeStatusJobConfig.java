@@ -2,6 +2,10 @@ package com.cactusvilleage.server.challenge.service.batch;
 
 import com.cactusvilleage.server.challenge.entities.Challenge;
 import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.service.ChallengeFinalizer;
+import com.cactusvilleage.server.challenge.service.MemberStatsService;
+import com.cactusvilleage.server.challenge.service.RankingService;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
 import com.cactusvilleage.server.global.infra.webhook.impl.DiscordWebHookSender;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,22 +15,28 @@ import org.springframework.batch.core.configuration.annotation.JobBuilderFactory
 import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.data.RepositoryItemWriter;
-import org.springframework.batch.item.data.builder.RepositoryItemWriterBuilder;
 import org.springframework.batch.item.database.JpaCursorItemReader;
 import org.springframework.batch.item.database.JpaPagingItemReader;
 import org.springframework.batch.item.database.builder.JpaCursorItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.Map;
-import java.util.Random;
 
-import static com.cactusvilleage.server.challenge.entities.Status.*;
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -36,8 +46,43 @@ public class ChallengeStatusJobConfig {
     private final StepBuilderFactory stepBuilderFactory;
     private final ChallengeRepository challengeRepository;
     private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
     private final DiscordWebHookSender discordWebHookSender;
+    private final RankingService rankingService;
+    private final MemberStatsService memberStatsService;
+    private final ChallengeFinalizer challengeFinalizer;
+    private final StringRedisTemplate redisTemplate;
+    private final JobExplorer jobExplorer;
+    private final Clock clock;
+    private final FencingTokens fencingTokens;
+    // 스케줄러가 잡은 락의 token (ChallengeStatusJobScheduler), 쓰기 전에 FencingTokens 로 검사한다
+    public static final String FENCING_TOKEN = "fencingToken";
+    public static final String LOCK_NAME = "challengeStatusJob";
     private static final int CHUNK_SIZE = 10;
+    // 데드락, 락 대기 시간 초과 등 일시적인 오류는 청크를 다시 시도하고,
+    // 그 사이 다른 곳에서 바뀐 챌린지(버전 충돌)는 건너뛴다 -> 마지막 recheck step 에서 다시 읽어 처리한다
+    private static final int RETRY_LIMIT = 3;
+    private static final int SKIP_LIMIT = 1000;
+
+    // chunk: 챌린지를 하나씩 읽어 처리, bulk: UPDATE 문으로 한 번에 처리, partition: id 범위별로 나눠 여러 스레드에서 처리,
+    // remote: id 범위별로 나눈 파티션을 Redis 큐로 모든 노드에 나눠 처리
+    @Value("${batch.challenge-status.mode:chunk}")
+    private String mode;
+
+    @Value("${batch.challenge-status.threads:4}")
+    private int threads;
+
+    @Value("${batch.challenge-status.grid-size:4}")
+    private int gridSize;
+
+    @Value("${batch.challenge-status.commit-interval:10}")
+    private int commitInterval;
+
+    @Value("${batch.challenge-status.remote.poll-interval:1000}")
+    private long remotePollInterval;
+
+    @Value("${batch.challenge-status.remote.timeout:3600000}")
+    private long remoteTimeout;
 
 
     @Bean
@@ -45,11 +90,25 @@ public class ChallengeStatusJobConfig {
         return jobBuilderFactory.get("challengeStatusJob")
                 .listener(new JobLoggerListener(discordWebHookSender))
                 .incrementer(new RunIdIncrementer())
-                .start(challengeStatusStep())
+                .start(selectStep())
+                .next(challengeStatusRecheckStep())
                 .preventRestart()
                 .build();
     }
 
+    private Step selectStep() {
+        switch (mode) {
+            case "bulk":
+                return challengeStatusBulkStep();
+            case "partition":
+                return challengeStatusPartitionStep();
+            case "remote":
+                return challengeStatusRemotePartitionStep();
+            default:
+                return challengeStatusStep();
+        }
+    }
+
     @JobScope
     @Bean
     public Step challengeStatusStep() {
@@ -58,30 +117,108 @@ public class ChallengeStatusJobConfig {
                 .<Challenge, Challenge>chunk(CHUNK_SIZE)
                 .reader(challengeReader())
                 .processor(challengeProcessor())
-                .writer(challengeWriter())
+                .writer(challengeWriter(null))
+                .faultTolerant()
+                .retryLimit(RETRY_LIMIT)
+                .retry(TransientDataAccessException.class)
+                .skipLimit(SKIP_LIMIT)
+                .skip(EmptyResultDataAccessException.class)
+                .skip(OptimisticLockingFailureException.class)
+                .listener(new StepThroughputListener())
+                .build();
+    }
+
+    @JobScope
+    @Bean
+    public Step challengeStatusBulkStep() {
+        log.info("Bulk step starts");
+        return stepBuilderFactory.get("challengeStatusBulkStep")
+                .tasklet(challengeBulkFinalizeTasklet(null))
+                .listener(new StepThroughputListener())
+                .build();
+    }
+
+    @JobScope
+    @Bean
+    public Step challengeStatusPartitionStep() {
+        log.info("Partition step starts");
+        return stepBuilderFactory.get("challengeStatusPartitionStep")
+                .partitioner("challengeStatusWorkerStep", new ChallengeIdRangePartitioner(challengeRepository, clock))
+                .step(challengeStatusWorkerStep())
+                .gridSize(gridSize)
+                .taskExecutor(challengeStatusTaskExecutor())
+                .build();
+    }
+
+    @JobScope
+    @Bean
+    public Step challengeStatusRemotePartitionStep() {
+        log.info("Remote partition step starts");
+        return stepBuilderFactory.get("challengeStatusRemotePartitionStep")
+                .partitioner("challengeStatusWorkerStep", new ChallengeIdRangePartitioner(challengeRepository, clock))
+                .partitionHandler(new RedisPartitionHandler(redisTemplate, jobExplorer, gridSize, remotePollInterval, remoteTimeout))
+                .build();
+    }
+
+    @Bean
+    public Step challengeStatusWorkerStep() {
+        return stepBuilderFactory.get("challengeStatusWorkerStep")
+                .<Challenge, Challenge>chunk(commitInterval)
+                .reader(challengePartitionReader(null, null))
+                .processor(challengeProcessor())
+                .writer(challengeWriter(null))
+                .faultTolerant()
+                .retryLimit(RETRY_LIMIT)
+                .retry(TransientDataAccessException.class)
+                .skipLimit(SKIP_LIMIT)
+                .skip(EmptyResultDataAccessException.class)
+                .skip(OptimisticLockingFailureException.class)
+                .listener(new StepThroughputListener())
                 .build();
     }
 
+    @JobScope
+    @Bean
+    public Step challengeStatusRecheckStep() {
+        return stepBuilderFactory.get("challengeStatusRecheckStep")
+                .tasklet(challengeRecheckTasklet(null))
+                .listener(new StepThroughputListener())
+                .build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor challengeStatusTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("challenge-status-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @StepScope
+    @Bean
+    public ChallengeBulkFinalizeTasklet challengeBulkFinalizeTasklet(
+            @Value("#{jobParameters['" + FENCING_TOKEN + "']}") Long fencingToken) {
+        return new ChallengeBulkFinalizeTasklet(challengeRepository, memberStatsService, rankingService, clock,
+                fencingTokens.fence(LOCK_NAME, fencingToken));
+    }
+
+    @StepScope
+    @Bean
+    public ChallengeRecheckTasklet challengeRecheckTasklet(
+            @Value("#{jobParameters['" + FENCING_TOKEN + "']}") Long fencingToken) {
+        return new ChallengeRecheckTasklet(challengeRepository, challengeFinalizer, clock,
+                fencingTokens.fence(LOCK_NAME, fencingToken));
+    }
+
     @StepScope
     @Bean
     public ItemProcessor<Challenge, Challenge> challengeProcessor() {
-        return challenge -> {
-            LocalDate dueDate = challenge.getCreatedAt().toLocalDate().plusDays(challenge.getTargetDate());
-            boolean due = dueDate.isEqual(LocalDate.now()) || dueDate.isBefore(LocalDate.now());
-
-            if (!due) {
-                return null;
-            } else {
-                boolean success = challenge.getHistories().size() == challenge.getTargetDate();
-                if (success) {
-                    challenge.setStatus(SUCCESS);
-                    challenge.setStamp(new Random().nextInt(8) + 1);
-                } else {
-                    challenge.setStatus(FAIL);
-                }
-                return challenge;
-            }
-        };
+        // reader 가 DUE_DATE 로 걸러서 주므로, 날짜 확인은 DUE_DATE 가 비어 있는 기존 챌린지에만 의미가 있다
+        // 통계, 랭킹은 여기서 반영하지 않는다 -> writer 가 version 을 확인하고 쓴 뒤에 반영
+        return challenge -> challengeFinalizer.closeIfDue(challenge) ? challenge : null;
     }
 
 
@@ -91,20 +228,30 @@ public class ChallengeStatusJobConfig {
         return new JpaCursorItemReaderBuilder<Challenge>()
                 .name("challengeReader")
                 .entityManagerFactory(entityManagerFactory)
-                .queryString("select c from Challenge c where c.status = :status")
-                .parameterValues(Map.of("status", IN_PROGRESS))
+                .queryString("select c from Challenge c where c.status = :status and (c.dueDate <= :today or c.dueDate is null)")
+                .parameterValues(Map.of("status", IN_PROGRESS, "today", LocalDate.now(clock)))
                 .build();
     }
 
+    // 챌린지마다 merge 하지 않고 UPDATE 한 문장을 JDBC batch 로 보낸다
+    // 읽은 뒤 히스토리 등록 등으로 version 이 바뀐 챌린지가 있으면 OptimisticLockingFailureException
     @StepScope
     @Bean
-    public RepositoryItemWriter<Challenge> challengeWriter() {
-        return new RepositoryItemWriterBuilder<Challenge>()
-                .repository(challengeRepository)
-                .build();
+    public ChallengeStatusItemWriter challengeWriter(@Value("#{jobParameters['" + FENCING_TOKEN + "']}") Long fencingToken) {
+        return new ChallengeStatusItemWriter(dataSource, fencingTokens.fence(LOCK_NAME, fencingToken),
+                challengeFinalizer::recordFinished, clock);
     }
 
 
+    // 파티션마다 만들어지는 reader, id 순으로 마지막에 읽은 id 다음부터 읽는다 (ChallengeKeysetItemReader)
+    @StepScope
+    @Bean
+    public JpaPagingItemReader<Challenge> challengePartitionReader(
+            @Value("#{stepExecutionContext['minId']}") Long minId,
+            @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+        return new ChallengeKeysetItemReader(entityManagerFactory, minId, maxId, LocalDate.now(clock), commitInterval);
+    }
+
     //    @StepScope
     //    @Bean
     public JpaPagingItemReader<Challenge> challengePagingReader() {
@@ -113,8 +260,8 @@ public class ChallengeStatusJobConfig {
         reader.setName("challengeReader");
         reader.setEntityManagerFactory(entityManagerFactory);
         reader.setPageSize(CHUNK_SIZE);
-        reader.setQueryString("select c from Challenge c where c.status = :status");
-        reader.setParameterValues(Map.of("status", IN_PROGRESS));
+        reader.setQueryString("select c from Challenge c where c.status = :status and (c.dueDate <= :today or c.dueDate is null)");
+        reader.setParameterValues(Map.of("status", IN_PROGRESS, "today", LocalDate.now(clock)));
 
         return reader;
     }
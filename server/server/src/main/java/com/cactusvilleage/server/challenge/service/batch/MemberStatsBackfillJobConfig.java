@@ -0,0 +1,91 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.challenge.entities.MemberStats;
+import com.cactusvilleage.server.challenge.repository.MemberStatsRepository;
+import com.cactusvilleage.server.challenge.service.MemberStatsService;
+import com.cactusvilleage.server.global.infra.webhook.impl.DiscordWebHookSender;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.data.RepositoryItemWriter;
+import org.springframework.batch.item.data.builder.RepositoryItemWriterBuilder;
+import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import javax.persistence.EntityManagerFactory;
+
+// 기존 챌린지 데이터로 member_stats 를 채우는 일회성 Job
+@Slf4j
+@RequiredArgsConstructor
+@Configuration
+public class MemberStatsBackfillJobConfig {
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MemberStatsRepository memberStatsRepository;
+    private final MemberStatsService memberStatsService;
+    private final DiscordWebHookSender discordWebHookSender;
+    private static final int CHUNK_SIZE = 100;
+
+    @Bean
+    public Job memberStatsBackfillJob() {
+        return jobBuilderFactory.get("memberStatsBackfillJob")
+                .listener(new JobLoggerListener(discordWebHookSender))
+                .incrementer(new RunIdIncrementer())
+                .start(memberStatsBackfillStep())
+                .build();
+    }
+
+    @JobScope
+    @Bean
+    public Step memberStatsBackfillStep() {
+        return stepBuilderFactory.get("memberStatsBackfillStep")
+                .<Member, MemberStats>chunk(CHUNK_SIZE)
+                .reader(memberReader())
+                .processor(memberStatsProcessor())
+                .writer(memberStatsWriter())
+                // 챌린지가 끝나며 같은 회원 통계를 동시에 바꾸면 버전 충돌 -> 그 chunk 를 다시 읽어 계산
+                .faultTolerant()
+                .retry(OptimisticLockingFailureException.class)
+                .retry(DataIntegrityViolationException.class)
+                .retryLimit(3)
+                .build();
+    }
+
+    @StepScope
+    @Bean
+    public JpaPagingItemReader<Member> memberReader() {
+        return new JpaPagingItemReaderBuilder<Member>()
+                .name("memberReader")
+                .entityManagerFactory(entityManagerFactory)
+                .pageSize(CHUNK_SIZE)
+                .queryString("select m from Member m order by m.id")
+                .build();
+    }
+
+    @StepScope
+    @Bean
+    public ItemProcessor<Member, MemberStats> memberStatsProcessor() {
+        return member -> memberStatsService.recalculate(member.getId());
+    }
+
+    @StepScope
+    @Bean
+    public RepositoryItemWriter<MemberStats> memberStatsWriter() {
+        return new RepositoryItemWriterBuilder<MemberStats>()
+                .repository(memberStatsRepository)
+                .build();
+    }
+}
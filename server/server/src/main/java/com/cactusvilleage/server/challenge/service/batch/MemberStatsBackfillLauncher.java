@@ -0,0 +1,79 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersInvalidException;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * member_stats backfill 잡을 별도 스레드에서 실행한다 (HTTP 요청, 애플리케이션 시작 스레드를 막지 않는다).
+ * 기본은 관리자 요청(POST /api/v1/stats/backfill)으로만 실행한다.
+ * stats.backfill.on-startup=true 면 시작할 때 고정된 파라미터로 실행해 잡 저장소 기준으로 한 번만 돈다.
+ * 이미 끝났다면 JobInstanceAlreadyCompleteException, 다른 노드가 실행 중이라면 JobExecutionAlreadyRunningException 으로 건너뛴다.
+ * 실패했다면 다음 시작 때 이어서 실행한다.
+ */
+@Slf4j
+@Component
+public class MemberStatsBackfillLauncher {
+    private static final String INITIAL_RUN = "initial";
+
+    private final SimpleJobLauncher jobLauncher;
+    private final MemberStatsBackfillJobConfig memberStatsBackfillJobConfig;
+    private final boolean onStartup;
+
+    public MemberStatsBackfillLauncher(JobRepository jobRepository,
+                                       MemberStatsBackfillJobConfig memberStatsBackfillJobConfig,
+                                       @Value("${stats.backfill.on-startup:false}") boolean onStartup) throws Exception {
+        this.jobLauncher = new SimpleJobLauncher();
+        this.jobLauncher.setJobRepository(jobRepository);
+        this.jobLauncher.setTaskExecutor(new SimpleAsyncTaskExecutor("stats-backfill-"));
+        this.jobLauncher.afterPropertiesSet();
+        this.memberStatsBackfillJobConfig = memberStatsBackfillJobConfig;
+        this.onStartup = onStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void launchOnce() {
+        if (onStartup) {
+            launch(new JobParameter(INITIAL_RUN));
+        }
+    }
+
+    // 관리자가 다시 계산할 때, 매번 새 잡 인스턴스
+    public Optional<JobExecution> launch() {
+        return launch(new JobParameter(System.currentTimeMillis()));
+    }
+
+    private Optional<JobExecution> launch(JobParameter run) {
+        Map<String, JobParameter> jobParameterMap = new HashMap<>();
+        jobParameterMap.put("run", run);
+        JobParameters parameters = new JobParameters(jobParameterMap);
+
+        try {
+            return Optional.of(jobLauncher.run(memberStatsBackfillJobConfig.memberStatsBackfillJob(), parameters));
+        } catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException |
+                 JobParametersInvalidException e) {
+            log.info("Backfill skipped: {}", e.getMessage());
+        } catch (DataAccessException e) {
+            // 여러 노드가 동시에 같은 잡 인스턴스를 만들려고 한 경우
+            log.info("Backfill skipped, another node is launching it: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+}
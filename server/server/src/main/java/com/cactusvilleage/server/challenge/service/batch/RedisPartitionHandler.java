@@ -0,0 +1,71 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * manager 쪽 PartitionHandler.
+ * 파티션 StepExecution 을 JobRepository 에 저장한 뒤 "jobExecutionId:stepExecutionId" 를 Redis 리스트에 넣고,
+ * 모든 노드의 RedisPartitionWorker 가 꺼내 실행한 결과를 JobExplorer 로 확인해 돌려준다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisPartitionHandler implements PartitionHandler {
+
+    public static final String QUEUE_KEY = "batch:challenge-status:partitions";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JobExplorer jobExplorer;
+    private final int gridSize;
+    private final long pollInterval;
+    private final long timeout;
+
+    @Override
+    public Collection<StepExecution> handle(StepExecutionSplitter stepSplitter, StepExecution managerStepExecution) throws Exception {
+        Set<StepExecution> partitions = stepSplitter.split(managerStepExecution, gridSize);
+        for (StepExecution partition : partitions) {
+            redisTemplate.opsForList().leftPush(QUEUE_KEY, partition.getJobExecutionId() + ":" + partition.getId());
+        }
+        log.info("[BATCH] {} partitions pushed to {}", partitions.size(), QUEUE_KEY);
+
+        return pollResults(managerStepExecution, partitions);
+    }
+
+    // 워커가 남긴 결과를 주기적으로 읽어 모든 파티션이 끝날 때까지 기다린다
+    private Collection<StepExecution> pollResults(StepExecution managerStepExecution, Set<StepExecution> partitions) throws Exception {
+        long deadline = System.currentTimeMillis() + timeout;
+        Long jobExecutionId = managerStepExecution.getJobExecutionId();
+
+        while (true) {
+            List<StepExecution> results = new ArrayList<>();
+            boolean finished = true;
+
+            for (StepExecution partition : partitions) {
+                StepExecution result = jobExplorer.getStepExecution(jobExecutionId, partition.getId());
+                results.add(result);
+                if (result.getStatus().isRunning()) {
+                    finished = false;
+                }
+            }
+
+            if (finished) {
+                return results;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new TimeoutException("Remote partitions did not finish in " + timeout + " ms");
+            }
+            Thread.sleep(pollInterval);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * remote 모드에서 모든 노드가 띄우는 worker.
+ * Redis 리스트에서 파티션을 BRPOP 으로 꺼내 challengeStatusWorkerStep 을 실행하고, 결과는 JobRepository 에 남긴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "batch.challenge-status.mode", havingValue = "remote")
+public class RedisPartitionWorker {
+
+    private static final Duration POP_TIMEOUT = Duration.ofSeconds(5);
+
+    private final StringRedisTemplate redisTemplate;
+    private final JobExplorer jobExplorer;
+    private final Step workerStep;
+    private final int threads;
+    private final ExecutorService executor;
+
+    private volatile boolean running = true;
+
+    public RedisPartitionWorker(StringRedisTemplate redisTemplate,
+                                JobExplorer jobExplorer,
+                                @Qualifier("challengeStatusWorkerStep") Step workerStep,
+                                @Value("${batch.challenge-status.threads:4}") int threads) {
+        this.redisTemplate = redisTemplate;
+        this.jobExplorer = jobExplorer;
+        this.workerStep = workerStep;
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::consume);
+        }
+        log.info("[BATCH] {} partition workers listening on {}", threads, RedisPartitionHandler.QUEUE_KEY);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        executor.shutdown();
+    }
+
+    private void consume() {
+        while (running) {
+            try {
+                String message = redisTemplate.opsForList().rightPop(RedisPartitionHandler.QUEUE_KEY, POP_TIMEOUT);
+                if (message != null) {
+                    execute(message);
+                }
+            } catch (Exception e) {
+                log.warn("[BATCH] partition worker failed", e);
+            }
+        }
+    }
+
+    private void execute(String message) {
+        String[] ids = message.split(":");
+        StepExecution stepExecution = jobExplorer.getStepExecution(Long.valueOf(ids[0]), Long.valueOf(ids[1]));
+
+        // manager 가 죽은 뒤 남은 메세지 등 이미 처리됐거나 사라진 파티션은 건너뛴다
+        if (stepExecution == null || stepExecution.getStatus() != BatchStatus.STARTING) {
+            log.info("[BATCH] skip partition {}", message);
+            return;
+        }
+
+        try {
+            workerStep.execute(stepExecution);
+        } catch (Exception e) {
+            // AbstractStep 이 실패 상태를 JobRepository 에 남기므로 manager 가 결과를 받아 간다
+            log.warn("[BATCH] partition {} failed", message, e);
+        }
+    }
+}
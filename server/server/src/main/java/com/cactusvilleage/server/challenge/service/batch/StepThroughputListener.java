@@ -0,0 +1,25 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+// Step 이 끝나면 처리한 row 수와 초당 처리량을 남긴다
+@Slf4j
+public class StepThroughputListener implements StepExecutionListener {
+    private static final String THROUGHPUT_LOG = "Step[{}] wrote {} rows in {} ms ({} rows/s)";
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        long millis = Math.max(1, System.currentTimeMillis() - stepExecution.getStartTime().getTime());
+        int written = stepExecution.getWriteCount();
+
+        log.info(THROUGHPUT_LOG, stepExecution.getStepName(), written, millis, String.format("%.1f", written * 1000.0 / millis));
+        return stepExecution.getExitStatus();
+    }
+}
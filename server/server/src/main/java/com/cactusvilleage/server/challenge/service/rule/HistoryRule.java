@@ -0,0 +1,14 @@
+package com.cactusvilleage.server.challenge.service.rule;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+
+/**
+ * 챌린지 타입별 일일 도전과제 실패 조건
+ */
+public interface HistoryRule {
+
+    Challenge.ChallengeType getChallengeType();
+
+    boolean isFailed(Challenge challenge, History history);
+}
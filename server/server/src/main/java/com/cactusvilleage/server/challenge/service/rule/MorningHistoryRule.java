@@ -0,0 +1,25 @@
+package com.cactusvilleage.server.challenge.service.rule;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MorningHistoryRule implements HistoryRule {
+
+    @Override
+    public Challenge.ChallengeType getChallengeType() {
+        return Challenge.ChallengeType.MORNING;
+    }
+
+    // 현재 시간이 목표한 기상 시간보다 커버리면 실패
+    @Override
+    public boolean isFailed(Challenge challenge, History history) {
+        // 클라이언트가 time 을 localDateTime 을 가공한 String 값으로 보낸다 (e.g "4:46:41 PM")
+        // 시간 부분만 남길 수 있게 처리
+        String[] timeArray = history.getTime().split(":");
+        int time = Integer.parseInt(timeArray[0]);
+
+        return time > challenge.getTargetTime();
+    }
+}
@@ -0,0 +1,22 @@
+package com.cactusvilleage.server.challenge.service.rule;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StudyHistoryRule implements HistoryRule {
+
+    @Override
+    public Challenge.ChallengeType getChallengeType() {
+        return Challenge.ChallengeType.STUDY;
+    }
+
+    // 실제 도전한 시간을 챌린지 목표 시간과 비교했을 때 작으면 실패
+    @Override
+    public boolean isFailed(Challenge challenge, History history) {
+        int time = Integer.parseInt(history.getTime());
+
+        return time < challenge.getTargetTime();
+    }
+}
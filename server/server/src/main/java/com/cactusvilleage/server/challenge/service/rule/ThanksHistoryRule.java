@@ -0,0 +1,20 @@
+package com.cactusvilleage.server.challenge.service.rule;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ThanksHistoryRule implements HistoryRule {
+
+    @Override
+    public Challenge.ChallengeType getChallengeType() {
+        return Challenge.ChallengeType.THANKS;
+    }
+
+    // 감사 일기는 작성만 하면 성공
+    @Override
+    public boolean isFailed(Challenge challenge, History history) {
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package com.cactusvilleage.server.challenge.service.scheduler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * challengeStatusJob 실행 시각 (Asia/Seoul).
+ * batch.challenge-status.cron 을 지정하면 그대로 쓰고, 아니면 00:00 에 실행한다.
+ * 만료 스케줄러를 켠 경우 00:00 부터 spread 동안 wheel 이 챌린지를 마무리하므로, 그 뒤에 놓친 챌린지만 정리하도록 미룬다.
+ */
+@Component
+public class ChallengeStatusCron {
+
+    static final String MIDNIGHT = "0 0 0 * * *";
+    // wheel 에서 마지막으로 만료된 챌린지가 drain 될 때까지 기다리는 여유
+    static final Duration EXPIRY_MARGIN = Duration.ofMinutes(10);
+
+    private final String expression;
+
+    public ChallengeStatusCron(@Value("${batch.challenge-status.cron:}") String cron,
+                               @Value("${challenge.expiry.enabled:false}") boolean expiryEnabled,
+                               @Value("${challenge.expiry.spread:1800000}") long spread) {
+        this.expression = resolve(cron, expiryEnabled, Duration.ofMillis(spread));
+    }
+
+    static String resolve(String cron, boolean expiryEnabled, Duration spread) {
+        if (cron != null && !cron.isBlank()) {
+            return cron;
+        }
+        if (!expiryEnabled) {
+            return MIDNIGHT;
+        }
+
+        // 분 단위로 올림, 하루를 넘기면 그날 안에 실행되도록 23:59 로 둔다
+        long minutes = Math.min((spread.toMillis() + 59_999) / 60_000 + EXPIRY_MARGIN.toMinutes(), 24 * 60 - 1);
+        return "0 " + minutes % 60 + " " + minutes / 60 + " * * *";
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+}
@@ -1,8 +1,13 @@
 package com.cactusvilleage.server.challenge.service.scheduler;
 
 import com.cactusvilleage.server.challenge.service.batch.ChallengeStatusJobConfig;
+import com.cactusvilleage.server.global.infra.lock.FencedOutException;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import com.cactusvilleage.server.global.infra.lock.RedisLeaderLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersInvalidException;
@@ -13,30 +18,65 @@ import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
 @Configuration
 public class ChallengeStatusJobScheduler {
+    private static final String LOCK_NAME = ChallengeStatusJobConfig.LOCK_NAME;
+    private static final Duration LOCK_TTL = Duration.ofSeconds(30);
+    // 잡이 끝난 뒤에도 그날 실행 락을 남겨 두는 시간, 늦게 깨어난 노드가 같은 날 잡을 다시 실행하지 않는다
+    private static final Duration LOCK_RETENTION = Duration.ofDays(1);
+
     private final JobLauncher jobLauncher;
     private final ChallengeStatusJobConfig challengeStatusJobConfig;
+    private final RedisLeaderLock leaderLock;
+    private final FencingTokens fencingTokens;
+    private final Clock clock;
 
-    @Scheduled(cron = "0 0 0 * * *", zone = "Asia/Seoul")
+    // 실행 시각은 ChallengeStatusCron 참고 (만료 스케줄러를 켜면 spread 이후로 미룬다)
+    @Scheduled(cron = "#{@challengeStatusCron.expression}", zone = "Asia/Seoul")
     public void challengeStatusJobSchedule() {
-        Map<String, JobParameter> jobParameterMap = new HashMap<>();
-        jobParameterMap.put("time", new JobParameter(System.currentTimeMillis()));
-        JobParameters parameters = new JobParameters(jobParameterMap);
+        // 모든 노드에서 동시에 실행되므로 그날 실행 락을 잡은 노드만 잡을 실행한다
+        LocalDate runDate = LocalDate.now(clock);
+        Optional<RedisLeaderLock.Lease> lease = leaderLock.tryAcquire(LOCK_NAME, runDate.toString(), LOCK_TTL);
+        if (lease.isEmpty()) {
+            log.info("challengeStatusJob of {} already ran or is running on another node, skip", runDate);
+            return;
+        }
+
+        try (RedisLeaderLock.Lease held = lease.get()) {
+            // 잡의 쓰기 트랜잭션은 이 token 이 가장 큰 값일 때만 쓴다 -> 락을 잃은 뒤 다른 노드가 잡을 넘겨받으면 이 잡의 쓰기는 실패
+            fencingTokens.advance(LOCK_NAME, held.getToken());
 
-        try {
-            jobLauncher.run(challengeStatusJobConfig.challengeStatusJob(), parameters);
+            Map<String, JobParameter> jobParameterMap = new HashMap<>();
+            jobParameterMap.put("time", new JobParameter(System.currentTimeMillis()));
+            jobParameterMap.put(ChallengeStatusJobConfig.FENCING_TOKEN, new JobParameter(held.getToken(), false));
+            JobParameters parameters = new JobParameters(jobParameterMap);
+
+            JobExecution execution = jobLauncher.run(challengeStatusJobConfig.challengeStatusJob(), parameters);
+            if (execution.getStatus() == BatchStatus.COMPLETED) {
+                // 해제하지 않고 남겨 둔다 -> 같은 날짜 키로는 다시 잡을 수 없다
+                held.retainFor(LOCK_RETENTION);
+            } else {
+                // 실패했다면 close 에서 해제 -> 다음 실행에서 다시 잡을 수 있다
+                log.warn("challengeStatusJob of {} ended with {}, releasing the lock", runDate, execution.getStatus());
+            }
+            if (!held.isHeld()) {
+                log.warn("challengeStatusJob lock of {} was lost while running (token {})", runDate, held.getToken());
+            }
+        } catch (FencedOutException e) {
+            log.warn("challengeStatusJob of {} skipped, a newer lock holder took over", runDate, e);
         } catch (JobExecutionAlreadyRunningException | JobRestartException | JobInstanceAlreadyCompleteException |
                  JobParametersInvalidException e) {
-            log.info("Scheduling went wrong", e);
-            e.printStackTrace();
+            log.error("challengeStatusJob of {} was not launched", runDate, e);
         }
     }
 
 }
-
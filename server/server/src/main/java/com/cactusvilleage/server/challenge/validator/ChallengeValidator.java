@@ -8,11 +8,9 @@ import com.cactusvilleage.server.global.exception.BusinessLogicException;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 import static com.cactusvilleage.server.challenge.entities.Status.*;
 import static com.cactusvilleage.server.global.exception.ExceptionCode.CHALLENGE_NOT_FOUND;
 import static com.cactusvilleage.server.global.exception.ExceptionCode.ENROLL_CHALLENGE_CANNOT_BE_DUPLICATED;
@@ -26,15 +24,12 @@ public class ChallengeValidator {
     private final ChallengeRepository challengeRepository;
 
     public Challenge validateActiveChallenge() {
-        List<Challenge> validatedChallenges = challengeRepository.findAll().stream()
-                .filter(found -> found.getStatus().equals(IN_PROGRESS) && found.getMember().getId().equals(SecurityUtil.getCurrentMemberId()))
-                .collect(Collectors.toList());
-        if (validatedChallenges.isEmpty()) {  // 리스트 비어있으면 챌린지 없다는 exception 반환
-            throw new BusinessLogicException(CHALLENGE_NOT_FOUND);
-        } else if (validatedChallenges.size() > 1) { // 리스트의 크기가 1 초과면 중복 챌린지라는 exception 반환
+        try {
+            // (MEMBER_ID, status) 인덱스로 회원의 진행 중인 챌린지 하나만 조회
+            return challengeRepository.findByMemberIdAndStatus(SecurityUtil.getCurrentMemberId(), IN_PROGRESS)
+                    .orElseThrow(() -> new BusinessLogicException(CHALLENGE_NOT_FOUND)); // 없으면 챌린지 없다는 exception 반환
+        } catch (IncorrectResultSizeDataAccessException e) { // 결과가 1개 초과면 중복 챌린지라는 exception 반환
             throw new BusinessLogicException(ENROLL_CHALLENGE_CANNOT_BE_DUPLICATED);
         }
-
-        return validatedChallenges.get(0);
     }
 }
@@ -0,0 +1,38 @@
+package com.cactusvilleage.server.challenge.web.api;
+
+import com.cactusvilleage.server.challenge.service.S3AsyncService;
+import com.cactusvilleage.server.challenge.service.S3Service;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.concurrent.CompletableFuture;
+
+// aws.s3.async.enabled=true 일 때 ImageController 대신 등록, S3 응답을 기다리는 동안 요청 스레드를 반납한다
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/images")
+@ConditionalOnProperty(name = "aws.s3.async.enabled", havingValue = "true")
+public class AsyncImageController {
+
+    private final S3Service s3Service;
+    private final S3AsyncService s3AsyncService;
+
+    @GetMapping("/{fileName}")
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> downloadFile(@PathVariable("fileName") String fileName,
+                                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                               @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+
+        if (s3Service.isRedirectDownload()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FOUND)
+                    .location(s3Service.presignDownload(fileName))
+                    .build());
+        }
+
+        return s3AsyncService.download(fileName, ifNoneMatch, range);
+    }
+}
@@ -15,6 +15,8 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
 
 
 @RestController
@@ -43,7 +45,12 @@ public class ChallengeController {
     }
 
     @GetMapping
-    public ResponseEntity sendChallengeRecords(@RequestParam @Nullable @ChallengeStatus String active) {
+    public ResponseEntity sendChallengeRecords(@RequestParam @Nullable @ChallengeStatus String active,
+                                               @RequestParam @Nullable @Positive Long cursor,
+                                               @RequestParam @Nullable @Positive @Max(100) Integer limit) {
+        if (active == null && limit != null) {
+            return challengeService.streamChallengeRecords(cursor, limit);
+        }
         return challengeService.getChallengeRecords(active);
     }
 
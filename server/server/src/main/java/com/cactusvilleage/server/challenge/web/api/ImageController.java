@@ -2,24 +2,25 @@ package com.cactusvilleage.server.challenge.web.api;
 
 import com.cactusvilleage.server.challenge.service.S3Service;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-import java.io.IOException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "aws.s3.async.enabled", havingValue = "false", matchIfMissing = true)
 @RequestMapping("/api/v1/images")
 public class ImageController {
 
     private final S3Service s3Service;
 
     @GetMapping("/{fileName}")
-    public ResponseEntity<byte[]> downloadFile(@PathVariable("fileName") String fileName) throws IOException {
+    public ResponseEntity<StreamingResponseBody> downloadFile(@PathVariable("fileName") String fileName,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                              @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
 
-        return s3Service.download(fileName);
+        return s3Service.download(fileName, ifNoneMatch, range);
     }
 }
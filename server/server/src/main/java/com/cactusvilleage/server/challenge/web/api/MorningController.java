@@ -1,7 +1,7 @@
 package com.cactusvilleage.server.challenge.web.api;
 
 
-import com.cactusvilleage.server.challenge.service.HistoryMorningService;
+import com.cactusvilleage.server.challenge.service.HistoryUploadPipeline;
 import com.cactusvilleage.server.challenge.web.dto.request.MorningDto;
 import com.cactusvilleage.server.challenge.web.dto.response.HistoryResponseDto;
 import com.cactusvilleage.server.global.response.SingleResponseDto;
@@ -20,12 +20,12 @@ import javax.validation.Valid;
 @RequiredArgsConstructor
 public class MorningController {
 
-    private final HistoryMorningService historyMorningService;
+    private final HistoryUploadPipeline historyUploadPipeline;
 
     @PostMapping(path = "/morning")
     public ResponseEntity uploadMorning(@RequestBody @Valid MorningDto morningDto) {
 
-        HistoryResponseDto response = historyMorningService.uploadMorningHistory(morningDto);
+        HistoryResponseDto response = historyUploadPipeline.uploadMorningHistory(morningDto);
 
         return new ResponseEntity<>(
                 new SingleResponseDto<>(response), HttpStatus.CREATED);
@@ -1,22 +1,49 @@
 package com.cactusvilleage.server.challenge.web.api;
 
 import com.cactusvilleage.server.challenge.service.ChallengeService;
+import com.cactusvilleage.server.challenge.service.batch.MemberStatsBackfillLauncher;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.constraints.Positive;
+
 @RestController
 @RequestMapping("/api/v1")
 @RequiredArgsConstructor
+@Validated
 public class MyPageController {
 
     private final ChallengeService challengeService;
+    private final MemberStatsBackfillLauncher memberStatsBackfillLauncher;
 
     @GetMapping("/rankings")
-    public ResponseEntity sendRankings() {
-        return challengeService.getRankInfo();
+    public ResponseEntity sendRankings(@RequestParam @Nullable @Positive Integer page) {
+        if (page == null) {
+            return challengeService.getRankInfo();
+        }
+        return challengeService.getRankingPage(page);
+    }
+
+    @PostMapping("/rankings/rebuild")
+    public ResponseEntity rebuildRankings() {
+        challengeService.rebuildRanking();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // 잡은 별도 스레드에서 돌고 바로 응답한다 (이미 실행 중이면 시작하지 않는다)
+    @PostMapping("/stats/backfill")
+    public ResponseEntity backfillStats() {
+        return memberStatsBackfillLauncher.launch().isPresent()
+                ? new ResponseEntity<>(HttpStatus.ACCEPTED)
+                : new ResponseEntity<>(HttpStatus.CONFLICT);
     }
 
 }
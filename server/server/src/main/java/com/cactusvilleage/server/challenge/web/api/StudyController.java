@@ -1,8 +1,11 @@
 package com.cactusvilleage.server.challenge.web.api;
 
-import com.cactusvilleage.server.challenge.service.HistoryStudyService;
+import com.cactusvilleage.server.challenge.service.HistoryUploadPipeline;
+import com.cactusvilleage.server.challenge.web.dto.request.StudyConfirmDto;
 import com.cactusvilleage.server.challenge.web.dto.request.StudyDto;
+import com.cactusvilleage.server.challenge.web.dto.request.StudyUploadUrlDto;
 import com.cactusvilleage.server.challenge.web.dto.response.HistoryResponseDto;
+import com.cactusvilleage.server.challenge.web.dto.response.PresignedUploadResponseDto;
 import com.cactusvilleage.server.global.response.SingleResponseDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -14,6 +17,7 @@ import org.springframework.web.multipart.MultipartFile;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -21,17 +25,37 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class StudyController {
 
-    private final HistoryStudyService historyStudyService;
+    private final HistoryUploadPipeline historyUploadPipeline;
 
     @PostMapping(path = "/study", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.MULTIPART_FORM_DATA_VALUE})
-    public ResponseEntity uploadStudy(@RequestPart @Valid StudyDto request,
-                                      @RequestPart @Valid @NotBlank MultipartFile multipartFile) throws IOException {
+    public CompletableFuture<ResponseEntity<SingleResponseDto<HistoryResponseDto>>> uploadStudy(@RequestPart @Valid StudyDto request,
+                                                                                       @RequestPart @Valid @NotBlank MultipartFile multipartFile) throws IOException {
 
-        HistoryResponseDto response = historyStudyService.uploadStudyHistory(request, multipartFile);
+        return historyUploadPipeline.uploadStudyHistory(request, multipartFile)
+                .thenApply(response -> new ResponseEntity<>(
+                        new SingleResponseDto<>(response), HttpStatus.CREATED));
+
+    }
+
+    // 이미지를 서버를 거치지 않고 S3 에 직접 올리기 위한 presigned PUT URL 발급
+    @PostMapping(path = "/study/upload-url")
+    public ResponseEntity issueUploadUrl(@RequestBody @Valid StudyUploadUrlDto studyUploadUrlDto) {
+
+        PresignedUploadResponseDto response = historyUploadPipeline.issueStudyUploadUrl(
+                studyUploadUrlDto.getFileName(), studyUploadUrlDto.getContentType());
 
         return new ResponseEntity<>(
-                new SingleResponseDto<>(response), HttpStatus.CREATED);
+                new SingleResponseDto<>(response), HttpStatus.OK);
+    }
+
+    // presigned URL 로 업로드를 마친 뒤 object key 로 히스토리 등록
+    @PostMapping(path = "/study/confirm")
+    public ResponseEntity confirmStudy(@RequestBody @Valid StudyConfirmDto studyConfirmDto) {
+
+        HistoryResponseDto response = historyUploadPipeline.confirmStudyHistory(studyConfirmDto);
 
+        return new ResponseEntity<>(
+                new SingleResponseDto<>(response), HttpStatus.CREATED);
     }
 
 }
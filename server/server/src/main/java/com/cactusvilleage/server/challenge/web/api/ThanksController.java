@@ -1,6 +1,6 @@
 package com.cactusvilleage.server.challenge.web.api;
 
-import com.cactusvilleage.server.challenge.service.HistoryThanksService;
+import com.cactusvilleage.server.challenge.service.HistoryUploadPipeline;
 import com.cactusvilleage.server.challenge.web.dto.request.ThanksDto;
 import com.cactusvilleage.server.challenge.web.dto.response.HistoryResponseDto;
 import com.cactusvilleage.server.global.response.SingleResponseDto;
@@ -19,12 +19,12 @@ import javax.validation.Valid;
 @RequiredArgsConstructor
 public class ThanksController {
 
-    private final HistoryThanksService historyThanksService;
+    private final HistoryUploadPipeline historyUploadPipeline;
 
     @PostMapping(path = "/thanks")
     public ResponseEntity uploadThanks(@RequestBody @Valid ThanksDto thanksDto) {
 
-        HistoryResponseDto response = historyThanksService.uploadThanksHistory(thanksDto);
+        HistoryResponseDto response = historyUploadPipeline.uploadThanksHistory(thanksDto);
 
         return new ResponseEntity<>(
                 new SingleResponseDto<>(response), HttpStatus.CREATED);
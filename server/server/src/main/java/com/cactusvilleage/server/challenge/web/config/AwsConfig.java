@@ -5,9 +5,20 @@ import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.util.concurrent.Executors;
 
 @Configuration
 public class AwsConfig {
@@ -21,6 +32,17 @@ public class AwsConfig {
     @Value("${aws.region.static}")
     private String region;
 
+    // 멀티파트 업로드 part 크기, 이 크기의 두 배 이상인 파일만 멀티파트로 올린다
+    @Value("${aws.s3.multipart.part-size:8388608}")
+    private long partSize;
+
+    @Value("${aws.s3.multipart.threads:8}")
+    private int uploadThreads;
+
+    // 비동기 클라이언트가 동시에 유지하는 S3 연결 수
+    @Value("${aws.s3.async.max-concurrency:200}")
+    private int asyncMaxConcurrency;
+
     @Bean
     public AmazonS3 amazonS3() {
         AWSCredentials awsCredentials = new BasicAWSCredentials(accessKey, secretKey);
@@ -29,4 +51,35 @@ public class AwsConfig {
                 .withCredentials(new AWSStaticCredentialsProvider(awsCredentials))
                 .build();
     }
+
+    @Bean
+    public TransferManager transferManager(AmazonS3 amazonS3) {
+        return TransferManagerBuilder.standard()
+                .withS3Client(amazonS3)
+                .withMinimumUploadPartSize(partSize)
+                .withMultipartUploadThreshold(partSize * 2)
+                .withExecutorFactory(() -> Executors.newFixedThreadPool(uploadThreads, runnable -> {
+                    Thread thread = new Thread(runnable, "s3-upload");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    // 종료할 때 업로드 스레드 풀만 정리한다, AmazonS3 는 별도 빈이므로 false 로 닫지 않는다
+    @Bean
+    public DisposableBean transferManagerShutdown(TransferManager transferManager) {
+        return () -> transferManager.shutdownNow(false);
+    }
+
+    // aws.s3.async.enabled=true 일 때만 생성, Netty 기반 non-blocking I/O 로 전송 동안 스레드를 잡지 않는다
+    @Bean
+    @ConditionalOnProperty(name = "aws.s3.async.enabled", havingValue = "true")
+    public S3AsyncClient s3AsyncClient() {
+        return S3AsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(asyncMaxConcurrency))
+                .build();
+    }
 }
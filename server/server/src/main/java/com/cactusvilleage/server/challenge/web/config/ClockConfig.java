@@ -0,0 +1,17 @@
+package com.cactusvilleage.server.challenge.web.config;
+
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    // 챌린지 기간, 마무리 날짜 계산용 (Asia/Seoul)
+    @Bean
+    public Clock clock() {
+        return SeoulTime.CLOCK;
+    }
+}
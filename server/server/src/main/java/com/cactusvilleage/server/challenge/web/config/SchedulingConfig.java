@@ -0,0 +1,17 @@
+package com.cactusvilleage.server.challenge.web.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SchedulingConfig {
+
+    // @Scheduled 기본 스케줄러는 스레드 하나라 challengeStatusJob 이 도는 동안 만료 drain, 랭킹 갱신이 멈춘다
+    // TaskScheduler 빈을 직접 만들면 Boot 의 applicationTaskExecutor 가 빠지므로 풀 크기만 바꾼다
+    @Bean
+    public TaskSchedulerCustomizer schedulingPoolSizeCustomizer(@Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        return taskScheduler -> taskScheduler.setPoolSize(poolSize);
+    }
+}
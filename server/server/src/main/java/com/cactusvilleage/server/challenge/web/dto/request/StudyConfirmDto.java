@@ -0,0 +1,20 @@
+package com.cactusvilleage.server.challenge.web.dto.request;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.validation.constraints.NotBlank;
+
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class StudyConfirmDto {
+
+    @NotBlank
+    private String time; // 공부 시간
+
+    @NotBlank
+    private String objectKey; // presigned URL 로 업로드한 이미지의 S3 key
+}
@@ -0,0 +1,21 @@
+package com.cactusvilleage.server.challenge.web.dto.request;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class StudyUploadUrlDto {
+
+    @NotBlank
+    @Pattern(regexp = "[\\w.\\-]{1,100}")
+    private String fileName; // S3 key 에 들어가므로 영문, 숫자, . - _ 만 허용
+
+    @NotBlank
+    @Pattern(regexp = "image/[\\w.+\\-]+")
+    private String contentType;
+}
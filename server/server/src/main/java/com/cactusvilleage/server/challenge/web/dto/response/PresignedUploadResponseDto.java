@@ -0,0 +1,26 @@
+package com.cactusvilleage.server.challenge.web.dto.response;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PresignedUploadResponseDto {
+
+    private String objectKey;
+
+    private String uploadUrl;
+
+    private LocalDateTime expiresAt;
+
+    @Builder
+    public PresignedUploadResponseDto(String objectKey, String uploadUrl, LocalDateTime expiresAt) {
+        this.objectKey = objectKey;
+        this.uploadUrl = uploadUrl;
+        this.expiresAt = expiresAt;
+    }
+}
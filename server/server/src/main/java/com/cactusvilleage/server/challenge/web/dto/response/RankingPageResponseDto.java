@@ -0,0 +1,41 @@
+package com.cactusvilleage.server.challenge.web.dto.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+public class RankingPageResponseDto {
+    private int page;
+    private int size;
+    private long totalRankers;
+    private List<RankingPageResponseDto.Rankers> rankers;
+
+    @Builder
+    public RankingPageResponseDto(int page, int size, long totalRankers, List<Rankers> rankers) {
+        this.page = page;
+        this.size = size;
+        this.totalRankers = totalRankers;
+        this.rankers = rankers;
+    }
+
+    @Getter
+    @NoArgsConstructor
+    public static class Rankers {
+        private int rank;
+        private int denseRank;
+        private String username;
+        private int stamps;
+
+        @Builder
+        public Rankers(int rank, int denseRank, String username, int stamps) {
+            this.rank = rank;
+            this.denseRank = denseRank;
+            this.username = username;
+            this.stamps = stamps;
+        }
+    }
+}
@@ -24,6 +24,10 @@ public enum ExceptionCode {
     CHALLENGE_NOT_FOUND(404, "진행 중인 챌린지를 찾을 수 없습니다."),
     CHALLENGE_TYPE_MISS_MATCH(400, "챌린지 타입이 맞지 않습니다."),
     CHALLENGE_TARGET_TIME_NOT_NULL(400, "목표 시간은 필수 값 입니다."),
+    STUDY_IMAGE_NOT_UPLOADED(400, "업로드된 인증 사진을 찾을 수 없습니다."),
+    STUDY_IMAGE_TOO_LARGE(400, "인증 사진 크기가 너무 큽니다."),
+    CHALLENGE_UPDATE_CONFLICT(409, "챌린지가 다른 요청에 의해 변경되었습니다. 다시 시도해 주세요."),
+    S3_UPLOAD_BUSY(503, "이미지 업로드 요청이 많습니다. 잠시 후 다시 시도해 주세요."),
     NOT_SUPPORTED_PROVIDER(400, "지원하지 않는 소셜 연동 경로입니다."),
     SEND_EMAIL_FAILED(500, "이메일 전송에 실패했습니다.");
 
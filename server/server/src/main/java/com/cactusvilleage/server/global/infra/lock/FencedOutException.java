@@ -0,0 +1,9 @@
+package com.cactusvilleage.server.global.infra.lock;
+
+// 더 큰 fencing token 이 기록된 뒤, 즉 다른 노드가 락을 넘겨받은 뒤의 쓰기
+public class FencedOutException extends IllegalStateException {
+
+    public FencedOutException(String name, long token, long current) {
+        super("Lock " + name + " token " + token + " was fenced out by token " + current);
+    }
+}
@@ -0,0 +1,41 @@
+package com.cactusvilleage.server.global.infra.lock;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 락 이름별로 지금까지 본 가장 큰 fencing token.
+ * 락을 잃은 노드가 늦게 쓰지 못하도록 쓰는 쪽(DB)에서 token 을 비교한다 ({@link FencingTokens}).
+ */
+@Getter
+@Entity
+@Table(name = "FENCING_TOKEN")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class FencingToken {
+
+    @Id
+    @Column(name = "NAME")
+    private String name;
+
+    @Column(name = "TOKEN")
+    private long token;
+
+    public FencingToken(String name) {
+        this.name = name;
+    }
+
+    // 더 작은 token 으로는 되돌릴 수 없다
+    public boolean advance(long token) {
+        if (token < this.token) {
+            return false;
+        }
+        this.token = token;
+        return true;
+    }
+}
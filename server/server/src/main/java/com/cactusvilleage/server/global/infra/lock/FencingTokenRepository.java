@@ -0,0 +1,22 @@
+package com.cactusvilleage.server.global.infra.lock;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface FencingTokenRepository extends JpaRepository<FencingToken, String> {
+
+    // 새 token 을 기록할 때, 진행 중인 쓰기 트랜잭션(공유 락)이 끝날 때까지 기다린다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from FencingToken f where f.name = :name")
+    Optional<FencingToken> findForUpdateByName(@Param("name") String name);
+
+    // 쓰기 트랜잭션끼리는 막지 않고, 커밋할 때까지 새 token 기록만 막는다
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select f from FencingToken f where f.name = :name")
+    Optional<FencingToken> findForShareByName(@Param("name") String name);
+}
@@ -0,0 +1,50 @@
+package com.cactusvilleage.server.global.infra.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * {@link RedisLeaderLock} 의 token 을 DB 에서 검사하는 fencing.
+ * 락을 잡은 노드는 작업 전에 advance 로 token 을 기록하고, 작업의 쓰기 트랜잭션은 먼저 Fence.check 를 부른다.
+ * check 는 token 행을 공유 락으로 읽어 내 token 이 가장 큰 값인지 확인하고, 커밋할 때까지 새 token 기록을 막는다.
+ * 그래서 GC 멈춤 등으로 락이 만료된 뒤 다른 노드가 새 token 을 기록했다면, 이전 노드의 이후 쓰기는 FencedOutException 으로 실패한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class FencingTokens {
+
+    private final FencingTokenRepository fencingTokenRepository;
+
+    @Transactional
+    public void advance(String name, long token) {
+        FencingToken fencingToken = fencingTokenRepository.findForUpdateByName(name)
+                .orElseGet(() -> fencingTokenRepository.save(new FencingToken(name)));
+        if (!fencingToken.advance(token)) {
+            throw new FencedOutException(name, token, fencingToken.getToken());
+        }
+    }
+
+    // token 이 없으면 (락 없이 실행한 잡) 검사하지 않는다
+    public Fence fence(String name, Long token) {
+        if (token == null) {
+            return Fence.NONE;
+        }
+        return () -> {
+            long current = fencingTokenRepository.findForShareByName(name)
+                    .map(FencingToken::getToken)
+                    .orElse(0L);
+            if (current != token) {
+                throw new FencedOutException(name, token, current);
+            }
+        };
+    }
+
+    // 쓰기 트랜잭션 안에서 쓰기 전에 부른다
+    public interface Fence {
+        Fence NONE = () -> {
+        };
+
+        void check();
+    }
+}
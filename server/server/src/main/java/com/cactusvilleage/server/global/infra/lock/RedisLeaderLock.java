@@ -0,0 +1,152 @@
+package com.cactusvilleage.server.global.infra.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 노드 중 하나만 작업을 실행하도록 하는 Redis 락.
+ * 락 값은 INCR 로 발급한 token 이고, 잡고 있는 동안 ttl/3 마다 만료 시간을 연장한다.
+ * 연장, 해제, 유지는 값이 내 token 일 때만 하도록 Lua 스크립트로 비교 후 실행한다.
+ * 락을 잃은 뒤의 쓰기는 락만으로 막을 수 없으므로, 쓰는 쪽은 {@link FencingTokens} 로 token 을 검사한다.
+ */
+@Slf4j
+@Component
+public class RedisLeaderLock {
+
+    private static final String KEY_PREFIX = "lock:";
+    private static final String FENCE_SUFFIX = ":fence";
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leader-lock-renewer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisLeaderLock(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // 락을 잡으면 Lease 를, 다른 노드가 잡고 있으면 빈 값을 돌려준다 (기다리지 않음)
+    public Optional<Lease> tryAcquire(String name, Duration ttl) {
+        return tryAcquire(name, null, ttl);
+    }
+
+    // scope (e.g. 실행 날짜) 마다 다른 키로 잡는다, 메트릭 태그에는 name 만 남긴다
+    public Optional<Lease> tryAcquire(String name, String scope, Duration ttl) {
+        String key = KEY_PREFIX + name + (scope == null ? "" : ":" + scope);
+        long start = System.nanoTime();
+
+        Long token = redisTemplate.opsForValue().increment(KEY_PREFIX + name + FENCE_SUFFIX);
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(token), ttl);
+
+        // 기다리지 않는 한 번의 시도(INCR + SET NX 두 번의 왕복) 시간, 락을 얻기까지 기다린 시간이 아니다
+        Timer.builder("scheduler.lock.attempt").tag("name", name)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!Boolean.TRUE.equals(acquired)) {
+            meterRegistry.counter("scheduler.lock.skipped", "name", name).increment();
+            return Optional.empty();
+        }
+
+        Lease lease = new Lease(name, key, token, ttl);
+        long period = Math.max(1, ttl.toMillis() / 3);
+        lease.renewal = renewer.scheduleAtFixedRate(lease::renew, period, period, TimeUnit.MILLISECONDS);
+        return Optional.of(lease);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    public class Lease implements AutoCloseable {
+        private final String name;
+        private final String key;
+        @Getter
+        private final long token;
+        private final Duration ttl;
+        private final long acquiredAt = System.nanoTime();
+        private ScheduledFuture<?> renewal;
+        private volatile boolean held = true;
+        private volatile boolean retained;
+
+        private Lease(String name, String key, long token, Duration ttl) {
+            this.name = name;
+            this.key = key;
+            this.token = token;
+            this.ttl = ttl;
+        }
+
+        // 연장에 실패했다면 (만료 후 다른 노드가 잡음) 더 이상 락을 가진 것이 아니다
+        public boolean isHeld() {
+            return held;
+        }
+
+        private void renew() {
+            try {
+                Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(key),
+                        String.valueOf(token), String.valueOf(ttl.toMillis()));
+                if (renewed == null || renewed == 0) {
+                    held = false;
+                    renewal.cancel(false);
+                    meterRegistry.counter("scheduler.lock.lost", "name", name).increment();
+                    log.warn("Lock {} lost (token {})", name, token);
+                }
+            } catch (Exception e) {
+                log.warn("Lock {} renewal failed", name, e);
+            }
+        }
+
+        /**
+         * 연장을 멈추고 해제하지 않은 채 retention 뒤에 만료되도록 둔다.
+         * 한 번만 실행해야 하는 작업이 끝난 뒤, 늦게 깨어난 다른 노드가 같은 키로 다시 실행하지 못하게 할 때 쓴다.
+         */
+        public void retainFor(Duration retention) {
+            renewal.cancel(false);
+            if (held) {
+                Long retainedKey = redisTemplate.execute(RENEW_SCRIPT, List.of(key),
+                        String.valueOf(token), String.valueOf(retention.toMillis()));
+                retained = retainedKey != null && retainedKey == 1;
+            }
+        }
+
+        @Override
+        public void close() {
+            renewal.cancel(false);
+            if (held && !retained) {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(key), String.valueOf(token));
+                held = false;
+            }
+            Timer.builder("scheduler.lock.hold").tag("name", name)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.cactusvilleage.server.global.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 현재 트랜잭션이 커밋된 뒤에 실행한다. 롤백되면 실행하지 않고, 트랜잭션 밖이면 바로 실행한다.
+ * 배치 chunk 가 롤백되거나 건너뛴 챌린지의 부수 효과(통계, 랭킹)가 반영되지 않도록 쓴다.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+}
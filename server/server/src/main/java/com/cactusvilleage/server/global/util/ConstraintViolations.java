@@ -0,0 +1,34 @@
+package com.cactusvilleage.server.global.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * DataIntegrityViolationException 이 어떤 제약 조건 위반인지 확인한다.
+ * NOT NULL, FK 위반까지 중복 등록으로 바꾸지 않도록 unique 인덱스 이름이 일치할 때만 true.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        String expected = constraintName.toLowerCase(Locale.ROOT);
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // Hibernate 가 뽑아낸 이름 (MySQL 8 은 "challenge.uk_..." 처럼 테이블명이 붙는다)
+            if (cause instanceof ConstraintViolationException) {
+                String name = ((ConstraintViolationException) cause).getConstraintName();
+                if (name != null && name.toLowerCase(Locale.ROOT).contains(expected)) {
+                    return true;
+                }
+            }
+            // 이름을 못 뽑는 드라이버는 메시지에서 찾는다
+            if (cause.getCause() == null && cause.getMessage() != null) {
+                return cause.getMessage().toLowerCase(Locale.ROOT).contains(expected);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,19 @@
+package com.cactusvilleage.server.global.util;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+/**
+ * 서비스 기준 시간대 (Asia/Seoul).
+ * 챌린지 기간, 히스토리 날짜는 JVM 기본 시간대와 상관없이 이 시간대의 날짜로 계산한다.
+ * 현재 시각은 이 CLOCK 으로 만든 Clock 빈 하나에서만 구한다 (테스트에서 고정 가능).
+ * 엔티티는 Clock 을 직접 쓰지 않고 서비스가 구한 날짜를 받는다.
+ */
+public final class SeoulTime {
+
+    public static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    public static final Clock CLOCK = Clock.system(ZONE);
+
+    private SeoulTime() {
+    }
+}
@@ -0,0 +1,43 @@
+package com.cactusvilleage.server.global.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * 시간 순으로 정렬되는 UUID (RFC 9562 version 7).
+ * 상위 48bit 는 unix ms, 다음 12bit 는 같은 ms 안에서 증가하는 카운터, 나머지 62bit 는 난수.
+ * BINARY(16) 로 저장하면 값이 시간 순으로 커지므로 인덱스 끝에 insert 되고, 노드 간 유일성은 난수 부분으로 보장한다.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int MAX_COUNTER = 0xFFF;
+
+    private static long lastMillis;
+    private static int counter;
+
+    private UuidV7() {
+    }
+
+    public static UUID randomUUID() {
+        long millis;
+        int sequence;
+        synchronized (UuidV7.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = RANDOM.nextInt(MAX_COUNTER / 2);
+            } else if (++counter > MAX_COUNTER) {
+                // 같은 ms 에 4096 개를 넘기거나 시계가 뒤로 가면 다음 ms 로 넘겨 순서를 유지한다
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+
+        long msb = (millis << 16) | 0x7000L | sequence;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,19 @@
+-- META-INF/orm-pooled-ids.xml 을 켜기 전에 한 번 실행 (MySQL)
+-- pooled optimizer 는 저장된 값 - 49 부터 50개를 쓰므로 max(id) + 50 을 넣어 기존 AUTO_INCREMENT id 와 겹치지 않게 한다
+-- 다시 실행해도 값이 작아지지 않는다
+
+create table if not exists id_sequence
+(
+    sequence_name varchar(255) not null primary key,
+    next_val      bigint
+);
+
+insert into id_sequence (sequence_name, next_val)
+select 'challenge', coalesce(max(challenge_id), 0) + 50
+from challenge
+on duplicate key update next_val = greatest(next_val, values(next_val));
+
+insert into id_sequence (sequence_name, next_val)
+select 'history', coalesce(max(history_id), 0) + 50
+from history
+on duplicate key update next_val = greatest(next_val, values(next_val));
@@ -0,0 +1,30 @@
+package com.cactusvilleage.server.challenge.entities;
+
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChallengeTest {
+
+    @Test
+    void builderAssignsTimeOrderedUuid() {
+        Challenge first = Challenge.builder().challengeType(Challenge.ChallengeType.MORNING).targetDate(7).startDate(LocalDate.now(SeoulTime.CLOCK)).build();
+        Challenge second = Challenge.builder().challengeType(Challenge.ChallengeType.MORNING).targetDate(7).startDate(LocalDate.now(SeoulTime.CLOCK)).build();
+
+        assertThat(first.getUuid().version()).isEqualTo(7);
+        assertThat(second.getUuid()).isGreaterThan(first.getUuid());
+    }
+
+    // Hibernate 는 기본 생성자로 만든 뒤 컬럼 값을 채우므로 여기서 UUID 를 만들 필요가 없다
+    @Test
+    void constructorUsedByHibernateDoesNotGenerateUuid() throws Exception {
+        Constructor<Challenge> constructor = Challenge.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        assertThat(constructor.newInstance().getUuid()).isNull();
+    }
+}
@@ -0,0 +1,69 @@
+package com.cactusvilleage.server.challenge.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberStatsTest {
+
+    @Test
+    void newStatsHaveNoStamps() {
+        assertThat(new MemberStats(1L).getStampList()).isEmpty();
+    }
+
+    @Test
+    void finishedChallengesCountOnlyRealStamps() {
+        MemberStats stats = new MemberStats(1L);
+
+        stats.addFinishedChallenge(7, false, 8);
+        stats.addFinishedChallenge(2, false, 0);
+        stats.addFinishedChallenge(7, false, 3);
+        stats.addFinishedChallenge(7, false, 8);
+
+        assertThat(stats.getTotalChall()).isEqualTo(4);
+        assertThat(stats.getTotalDate()).isEqualTo(23);
+        assertThat(stats.getStampCounts()).containsExactlyInAnyOrderEntriesOf(Map.of(3, 1, 8, 2));
+        // 도장 번호 순으로 펼친다
+        assertThat(stats.getStampList()).containsExactly(3, 8, 8);
+    }
+
+    @Test
+    void resetReplacesCountsAndStamps() {
+        MemberStats stats = new MemberStats(1L);
+        stats.addFinishedChallenge(7, false, 5);
+
+        stats.reset(4, 20, Map.of(1, 1, 2, 2));
+
+        assertThat(stats.getTotalChall()).isEqualTo(4);
+        assertThat(stats.getTotalDate()).isEqualTo(20);
+        assertThat(stats.getStampList()).containsExactly(1, 2, 2);
+    }
+
+    @Test
+    void resetWithoutStampsClearsCounts() {
+        MemberStats stats = new MemberStats(1L);
+        stats.addFinishedChallenge(7, false, 5);
+
+        stats.reset(1, 1, Map.of());
+
+        assertThat(stats.getStampCounts()).isEmpty();
+        stats.addFinishedChallenge(3, false, 4);
+        assertThat(stats.getStampList()).containsExactly(4);
+    }
+
+    // 시작 날짜를 처음 기록한 경우에만 하루를 더한다 (기록 여부는 MemberOneDayDate 로 서비스가 정한다)
+    @Test
+    void oneHistoryChallengesCountOnlyNewStartDates() {
+        MemberStats stats = new MemberStats(1L);
+
+        stats.addFinishedChallenge(1, true, 0);
+        stats.addFinishedChallenge(1, false, 0);
+        stats.addFinishedChallenge(1, true, 0);
+        stats.addFinishedChallenge(0, false, 0);
+
+        assertThat(stats.getTotalChall()).isEqualTo(4);
+        assertThat(stats.getTotalDate()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,110 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.auth.repository.MemberRepository;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.cactusvilleage.server.challenge.entities.Status.FAIL;
+import static com.cactusvilleage.server.challenge.entities.Status.SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기록 조회용 fetch join 이 끝난 챌린지와 히스토리를 쿼리 한 번으로 읽는지 Hibernate 통계로 확인한다.
+ */
+@DataJpaTest(properties = {"spring.batch.job.enabled=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChallengeHistoryFetchTest {
+
+    private static final int FINISHED = 3;
+    private static final int HISTORIES = 2;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private HistoryRepository historyRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            historyRepository.deleteAllInBatch();
+            challengeRepository.deleteAllInBatch();
+            memberRepository.deleteAllInBatch();
+        });
+    }
+
+    @Test
+    void finishedChallengesAndHistoriesLoadInOneQuery() {
+        Long memberId = seed();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Challenge> done = challengeRepository.findAllWithHistoriesByMemberIdAndStatusIn(memberId, List.of(SUCCESS, FAIL));
+
+            // join 으로 늘어난 행이 중복 챌린지로 나오지 않는다
+            assertThat(done).hasSize(FINISHED).doesNotHaveDuplicates();
+            assertThat(done).extracting(Challenge::getStatus).doesNotContain(Status.IN_PROGRESS);
+            for (Challenge challenge : done) {
+                assertThat(Hibernate.isInitialized(challenge.getHistories())).isTrue();
+                assertThat(challenge.getHistories()).hasSize(HISTORIES);
+            }
+        });
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // 끝난 챌린지 FINISHED 개, 진행 중인 챌린지 하나, 각각 히스토리 HISTORIES 개
+    private Long seed() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Member member = memberRepository.save(Member.builder().username("cactus").build());
+            for (int i = 0; i <= FINISHED; i++) {
+                Challenge challenge = Challenge.builder()
+                        .challengeType(Challenge.ChallengeType.THANKS)
+                        .targetDate(HISTORIES)
+                        .startDate(LocalDate.now(SeoulTime.CLOCK))
+                        .build();
+                challenge.setStatus(i == FINISHED ? Status.IN_PROGRESS : (i % 2 == 0 ? SUCCESS : FAIL));
+                challenge.setMember(member);
+                challengeRepository.save(challenge);
+
+                for (int day = 0; day < HISTORIES; day++) {
+                    History history = History.builder().contents("day " + day).historyDate(LocalDate.now(SeoulTime.CLOCK).minusDays(day)).build();
+                    history.setChallenge(challenge);
+                    historyRepository.save(history);
+                }
+            }
+            return member.getId();
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+/**
+ * 챌린지와 히스토리 insert 처리량 (IDENTITY / orm-pooled-ids.xml 비교용).
+ * 하위 클래스가 @DataJpaTest 설정으로 id 전략을 정한다. ./gradlew benchmark -Dbenchmark.insert.rows=...
+ */
+@Tag("benchmark")
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class ChallengeInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.insert.rows", 100_000);
+    private static final int COMMIT_INTERVAL = 1_000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void insertChallengesWithHistory() {
+        insert(COMMIT_INTERVAL); // warm up
+
+        long started = System.nanoTime();
+        insert(ROWS);
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        System.out.printf("[BENCHMARK] %s: %d challenges + %d histories in %d ms (%.0f rows/s)%n",
+                getClass().getSimpleName(), ROWS, ROWS, millis, ROWS * 2 * 1000.0 / millis);
+    }
+
+    private void insert(int rows) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        for (int i = 1; i <= rows; i++) {
+            Challenge challenge = Challenge.builder().challengeType(Challenge.ChallengeType.THANKS).targetDate(7).startDate(LocalDate.now(SeoulTime.CLOCK)).build();
+            History history = History.builder().contents("thanks").historyDate(LocalDate.now(SeoulTime.CLOCK)).build();
+            history.setChallenge(challenge);
+            entityManager.persist(challenge);
+            entityManager.persist(history);
+
+            if (i % COMMIT_INTERVAL == 0) {
+                entityManager.getTransaction().commit();
+                entityManager.clear();
+                entityManager.getTransaction().begin();
+            }
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+}
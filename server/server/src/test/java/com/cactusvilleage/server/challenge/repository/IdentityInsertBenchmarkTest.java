@@ -0,0 +1,12 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+// 기본 매핑 (IDENTITY) -> Hibernate 가 insert batch 를 끈다
+@DataJpaTest(properties = {
+        "spring.batch.job.enabled=false",
+        "logging.level.root=INFO",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"})
+class IdentityInsertBenchmarkTest extends ChallengeInsertBenchmark {
+}
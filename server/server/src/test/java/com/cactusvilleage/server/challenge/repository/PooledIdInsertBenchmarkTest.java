@@ -0,0 +1,13 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+// orm-pooled-ids.xml (ID_SEQUENCE, allocationSize 50) -> insert 가 50개씩 batch 로 묶인다
+@DataJpaTest(properties = {
+        "spring.batch.job.enabled=false",
+        "logging.level.root=INFO",
+        "spring.jpa.mapping-resources=META-INF/orm-pooled-ids.xml",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"})
+class PooledIdInsertBenchmarkTest extends ChallengeInsertBenchmark {
+}
@@ -0,0 +1,72 @@
+package com.cactusvilleage.server.challenge.repository;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * orm-pooled-ids.xml 을 켜면 Challenge, History id 가 ID_SEQUENCE 에서 나오고 insert 가 batch 로 묶이는지 확인한다.
+ */
+@DataJpaTest(properties = {
+        "spring.batch.job.enabled=false",
+        "spring.jpa.mapping-resources=META-INF/orm-pooled-ids.xml",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PooledIdMappingTest {
+
+    private static final int ROWS = 50;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void idsComeFromSequenceTableAndInsertsAreBatched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Challenge> challenges = new ArrayList<>();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < ROWS; i++) {
+            Challenge challenge = Challenge.builder().challengeType(Challenge.ChallengeType.THANKS).targetDate(7).startDate(LocalDate.now(SeoulTime.CLOCK)).build();
+            entityManager.persist(challenge);
+            challenges.add(challenge);
+        }
+        History history = History.builder().contents("thanks").historyDate(LocalDate.now(SeoulTime.CLOCK)).build();
+        history.setChallenge(challenges.get(0));
+        entityManager.persist(history);
+        entityManager.getTransaction().commit();
+        entityManager.close();
+
+        // 한 번 받은 50개 안에서 연속으로 쓴다
+        assertThat(challenges.get(ROWS - 1).getId() - challenges.get(0).getId()).isEqualTo(ROWS - 1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from id_sequence where sequence_name in ('challenge', 'history')",
+                Integer.class)).isEqualTo(2);
+        // IDENTITY 였다면 challenge insert 마다 statement 를 따로 실행한다
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * unique 인덱스 이전에 진행 중 챌린지가 둘 생긴 회원은 오래된 챌린지를 FAIL 로 마무리하고,
+ * 남은 챌린지의 ACTIVE_MEMBER_ID 를 채우는지 확인한다 (null 로 남는 진행 중 챌린지가 없어야 한다).
+ */
+class ActiveMemberBackfillTest extends CommittingJpaTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private ActiveMemberBackfill backfill;
+    private Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        memberId = memberRepository.save(Member.builder().username("cactus").build()).getId();
+        backfill = new ActiveMemberBackfill(challengeRepository,
+                new MemberStatsService(memberStatsRepository, oneDayDateRepository, challengeRepository, transactionManager),
+                transactionManager);
+    }
+
+    @Test
+    void duplicateInProgressChallengesAreResolvedBeforeFilling() {
+        long older = insertLegacyInProgress();
+        long newer = insertLegacyInProgress();
+
+        backfill.fill();
+
+        Map<String, Object> olderRow = row(older);
+        Map<String, Object> newerRow = row(newer);
+        assertThat(olderRow.get("STATUS")).isEqualTo("FAIL");
+        assertThat(olderRow.get("ACTIVE_MEMBER_ID")).isNull();
+        assertThat(newerRow.get("STATUS")).isEqualTo("IN_PROGRESS");
+        assertThat(((Number) newerRow.get("ACTIVE_MEMBER_ID")).longValue()).isEqualTo(memberId);
+        assertThat(memberStatsRepository.findById(memberId).orElseThrow().getTotalChall()).isEqualTo(1);
+    }
+
+    @Test
+    void singleInProgressChallengeIsOnlyFilled() {
+        long only = insertLegacyInProgress();
+
+        backfill.fill();
+
+        assertThat(row(only).get("STATUS")).isEqualTo("IN_PROGRESS");
+        assertThat(((Number) row(only).get("ACTIVE_MEMBER_ID")).longValue()).isEqualTo(memberId);
+        assertThat(memberStatsRepository.findById(memberId)).isEmpty();
+    }
+
+    // ACTIVE_MEMBER_ID 컬럼 추가 이전처럼 null 로 등록
+    private long insertLegacyInProgress() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into challenge (member_id, challenge_type, target_date, due_date, stamp, notified, status, " +
+                        "version, history_count, created_at, updated_at) values (?, 'THANKS', 7, ?, 0, 0, 'IN_PROGRESS', 0, 0, ?, ?)",
+                memberId, LocalDate.now().plusDays(7), now, now);
+        return jdbcTemplate.queryForObject("select max(challenge_id) from challenge", Long.class);
+    }
+
+    private Map<String, Object> row(long challengeId) {
+        return jdbcTemplate.queryForMap("select status, active_member_id from challenge where challenge_id = ?", challengeId);
+    }
+}
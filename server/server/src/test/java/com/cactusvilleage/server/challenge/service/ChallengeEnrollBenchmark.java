@@ -0,0 +1,155 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.auth.repository.MemberRepository;
+import com.cactusvilleage.server.auth.service.MemberService;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.web.dto.request.EnrollDto;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 끝난 챌린지가 쌓여도 (기본 100만 행) 등록 한 번의 지연 시간이 늘지 않는지 잰다.
+ * 행 수를 단계별로 늘려가며 같은 수의 등록을 실행하고 p50, p99 를 출력한다 (단계별 값이 비슷해야 한다).
+ * ./gradlew benchmark -Dbenchmark.enroll.rows=1000000 -Dbenchmark.enroll.members=10000 -Dbenchmark.enroll.samples=2000
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {"spring.batch.job.enabled=false", "logging.level.root=INFO"})
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChallengeEnrollBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.enroll.rows", 1_000_000);
+    private static final int MEMBERS = Integer.getInteger("benchmark.enroll.members", 10_000);
+    private static final int SAMPLES = Integer.getInteger("benchmark.enroll.samples", 2_000);
+    private static final int INSERT_BATCH = 10_000;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ChallengeService challengeService;
+    private EnrollDto enrollDto;
+    private long firstMemberId;
+    private int seeded;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        enrollDto = new ObjectMapper().readValue("{\"targetDate\":7,\"targetTime\":30}", EnrollDto.class);
+
+        MemberService memberService = mock(MemberService.class);
+        given(memberService.findMember(anyLong())).willAnswer(invocation ->
+                memberRepository.getReferenceById(invocation.getArgument(0)));
+        challengeService = new ChallengeService(memberService, challengeRepository, memberRepository,
+                mock(RankingService.class), mock(MemberStatsService.class), new ObjectMapper(),
+                mock(WateringMessagePool.class), mock(ObjectProvider.class), SeoulTime.CLOCK);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> members = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(new Object[]{"bench-" + i, now, now});
+        }
+        jdbcTemplate.batchUpdate("insert into member (username, deleted, created_at, updated_at) values (?, 0, ?, ?)", members);
+        firstMemberId = jdbcTemplate.queryForObject("select min(member_id) from member", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from challenge");
+        jdbcTemplate.update("delete from member");
+    }
+
+    @Test
+    void enrollLatencyStaysFlatAsChallengesGrow() {
+        for (int rows : new int[]{ROWS / 100, ROWS / 10, ROWS}) {
+            seedFinishedChallenges(rows);
+            enroll(SAMPLES / 4); // warm up
+            long[] nanos = enroll(SAMPLES);
+            Arrays.sort(nanos);
+            System.out.printf("[BENCHMARK] enroll with %d challenge rows: p50 %.3f ms, p99 %.3f ms (%d enrollments)%n",
+                    rows, nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6, nanos.length);
+        }
+    }
+
+    // 회원마다 고르게 끝난(FAIL) 챌린지를 rows 개가 될 때까지 채운다
+    private void seedFinishedChallenges(int rows) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate dueDate = LocalDate.now().minusDays(1);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (; seeded < rows; seeded++) {
+            batch.add(new Object[]{firstMemberId + seeded % MEMBERS, dueDate, now, now});
+            if (batch.size() == INSERT_BATCH) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("insert into challenge (member_id, challenge_type, target_date, due_date, stamp, notified, " +
+                "status, version, history_count, created_at, updated_at) values (?, 'THANKS', 7, ?, 0, 0, 'FAIL', 0, 0, ?, ?)", batch);
+        batch.clear();
+    }
+
+    // 임의의 회원으로 한 번씩 등록하고 걸린 시간을 잰다, 다음 등록을 위해 진행 중 챌린지는 바로 FAIL 로 돌린다
+    private long[] enroll(int samples) {
+        Random random = new Random(samples);
+        long[] nanos = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            long memberId = firstMemberId + random.nextInt(MEMBERS);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(String.valueOf(memberId), null));
+            long started = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> challengeService.enrollChallenge(enrollDto, "study"));
+            nanos[i] = System.nanoTime() - started;
+            SecurityContextHolder.clearContext();
+
+            jdbcTemplate.update("update challenge set status = 'FAIL', active_member_id = null " +
+                    "where active_member_id = ?", memberId);
+        }
+        return nanos;
+    }
+}
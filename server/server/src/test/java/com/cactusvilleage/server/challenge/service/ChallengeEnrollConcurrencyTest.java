@@ -0,0 +1,97 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.auth.service.MemberService;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.challenge.web.dto.request.EnrollDto;
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.ENROLL_CHALLENGE_CANNOT_BE_DUPLICATED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 같은 회원의 등록 요청이 동시에 들어와도 진행 중인 챌린지는 하나만 생기는지 확인한다.
+ */
+class ChallengeEnrollConcurrencyTest extends CommittingJpaTest {
+
+    private static final int THREADS = 16;
+
+    private ChallengeService challengeService;
+    private TransactionTemplate transactionTemplate;
+    private Long memberId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        memberId = memberRepository.save(Member.builder().username("cactus").build()).getId();
+
+        // 회원은 각 스레드 트랜잭션 안에서 프록시로 꺼내 다른 스레드와 공유하지 않는다
+        MemberService memberService = mock(MemberService.class);
+        given(memberService.findMember(anyLong())).willAnswer(invocation ->
+                memberRepository.getReferenceById(invocation.getArgument(0)));
+
+        challengeService = new ChallengeService(memberService, challengeRepository, memberRepository,
+                mock(RankingService.class), mock(MemberStatsService.class), new ObjectMapper(),
+                mock(WateringMessagePool.class), mock(ObjectProvider.class), SeoulTime.CLOCK);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void concurrentEnrollCreatesSingleActiveChallenge() throws Exception {
+        EnrollDto enrollDto = new ObjectMapper().readValue("{\"targetDate\":7,\"targetTime\":30}", EnrollDto.class);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger duplicated = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(memberId.toString(), null));
+                try {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(status ->
+                            challengeService.enrollChallenge(enrollDto, "study"));
+                    succeeded.incrementAndGet();
+                } catch (BusinessLogicException e) {
+                    assertThat(e.getExceptionCode()).isEqualTo(ENROLL_CHALLENGE_CANNOT_BE_DUPLICATED);
+                    duplicated.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(succeeded.get()).isEqualTo(1);
+        assertThat(duplicated.get()).isEqualTo(THREADS - 1);
+        assertThat(challengeRepository.findAll())
+                .filteredOn(challenge -> challenge.getStatus() == Status.IN_PROGRESS)
+                .hasSize(1)
+                .allSatisfy(challenge -> assertThat(challenge.getActiveMemberId()).isEqualTo(memberId));
+    }
+}
@@ -0,0 +1,118 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeDue;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.global.infra.lock.RedisLeaderLock;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+/**
+ * 리더 락을 잡은 노드만 wheel 을 적재하고 마무리하는지, 만료된 챌린지를 한 번에 batch-size 개씩 끝까지 비우는지 확인한다.
+ */
+class ChallengeExpirySchedulerTest {
+
+    private static final int DUE = 120;
+    private static final int BATCH_SIZE = 50;
+
+    private ChallengeRepository challengeRepository;
+    private PlatformTransactionManager transactionManager;
+    private RedisLeaderLock leaderLock;
+    private RedisLeaderLock.Lease lease;
+    private ChallengeExpiryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        challengeRepository = mock(ChallengeRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        leaderLock = mock(RedisLeaderLock.class);
+        lease = mock(RedisLeaderLock.Lease.class);
+        scheduler = new ChallengeExpiryScheduler(challengeRepository, mock(ChallengeFinalizer.class), transactionManager,
+                leaderLock, SeoulTime.CLOCK, 1000, BATCH_SIZE, 600_000);
+
+        List<ChallengeDue> due = new ArrayList<>();
+        LocalDate yesterday = LocalDate.now(SeoulTime.CLOCK).minusDays(1);
+        for (long id = 1; id <= DUE; id++) {
+            due.add(due(id, yesterday));
+        }
+        given(challengeRepository.findDueDatesByStatusUntil(eq(IN_PROGRESS), any(LocalDate.class))).willReturn(due);
+        given(challengeRepository.findForUpdateByIdAndStatus(anyLong(), eq(IN_PROGRESS))).willReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void nodeWithoutTheLockNeitherLoadsNorDrains() {
+        given(leaderLock.tryAcquire(eq("challengeExpiry"), any(Duration.class))).willReturn(Optional.empty());
+
+        scheduler.tick();
+
+        verify(challengeRepository, never()).findDueDatesByStatusUntil(any(), any());
+        verify(challengeRepository, never()).findForUpdateByIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    void ownerDrainsEveryExpiredChallengeInOneTick() throws Exception {
+        given(leaderLock.tryAcquire(eq("challengeExpiry"), any(Duration.class))).willReturn(Optional.of(lease));
+        given(lease.isHeld()).willReturn(true);
+
+        scheduler.tick();
+        // 지난 종료일의 챌린지는 wheel 의 다음 tick(1초)에 모두 만료된다
+        Thread.sleep(2500);
+        scheduler.tick();
+
+        verify(challengeRepository, times(DUE)).findForUpdateByIdAndStatus(anyLong(), eq(IN_PROGRESS));
+        // 120 개 = 50 + 50 + 20, 한 번의 tick 에서 세 트랜잭션으로 끝난다
+        verify(transactionManager, times(3)).getTransaction(any());
+        // 소유 중에는 load-interval 이 지나기 전까지 다시 적재하지 않는다
+        verify(challengeRepository, times(1)).findDueDatesByStatusUntil(eq(IN_PROGRESS), any(LocalDate.class));
+    }
+
+    @Test
+    void lostOwnershipDropsTheWheel() throws Exception {
+        given(leaderLock.tryAcquire(eq("challengeExpiry"), any(Duration.class)))
+                .willReturn(Optional.of(lease))
+                .willReturn(Optional.empty());
+        given(lease.isHeld()).willReturn(true);
+
+        scheduler.tick();
+        given(lease.isHeld()).willReturn(false);
+        Thread.sleep(2500);
+        scheduler.tick();
+
+        verify(lease).close();
+        verify(challengeRepository, never()).findForUpdateByIdAndStatus(anyLong(), any());
+    }
+
+    private static ChallengeDue due(long id, LocalDate dueDate) {
+        return new ChallengeDue() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getDueDate() {
+                return dueDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ChallengeFinalizerTest {
+
+    private static final long MEMBER_ID = 3L;
+    // 2022-10-01 15:30 UTC = 2022-10-02 00:30 KST, UTC 기준으로는 아직 10월 1일
+    private static final Instant NOW = Instant.parse("2022-10-01T15:30:00Z");
+    private static final LocalDate TODAY = LocalDate.of(2022, 10, 2);
+
+    private RankingService rankingService;
+    private MemberStatsService memberStatsService;
+    private ChallengeFinalizer finalizer;
+
+    @BeforeEach
+    void setUp() {
+        rankingService = mock(RankingService.class);
+        memberStatsService = mock(MemberStatsService.class);
+        finalizer = new ChallengeFinalizer(rankingService, memberStatsService, Clock.fixed(NOW, SeoulTime.ZONE));
+    }
+
+    @Test
+    void challengeBeforeDueDateIsLeftAlone() {
+        Challenge challenge = challenge(7, 3, TODAY.plusDays(1));
+
+        assertThat(finalizer.finalizeIfDue(challenge)).isFalse();
+
+        assertThat(challenge.getStatus()).isEqualTo(Status.IN_PROGRESS);
+        verify(rankingService, never()).increaseStamp(anyLong());
+        verify(memberStatsService, never()).recordFinished(any());
+    }
+
+    @Test
+    void challengeWithAllHistoriesSucceedsWithStamp() {
+        Challenge challenge = challenge(7, 7, TODAY);
+
+        assertThat(finalizer.finalizeIfDue(challenge)).isTrue();
+
+        assertThat(challenge.getStatus()).isEqualTo(Status.SUCCESS);
+        assertThat(challenge.getStamp()).isBetween(1, 8);
+        assertThat(challenge.getActiveMemberId()).isNull();
+        verify(rankingService).increaseStamp(MEMBER_ID);
+        verify(memberStatsService).recordFinished(challenge);
+    }
+
+    @Test
+    void challengeWithMissingHistoriesFails() {
+        Challenge challenge = challenge(7, 6, TODAY.minusDays(2));
+
+        assertThat(finalizer.finalizeIfDue(challenge)).isTrue();
+
+        assertThat(challenge.getStatus()).isEqualTo(Status.FAIL);
+        assertThat(challenge.getStamp()).isZero();
+        verify(rankingService, never()).increaseStamp(anyLong());
+        verify(memberStatsService).recordFinished(challenge);
+    }
+
+    // 배치 processor 용, writer 가 쓰기 전에는 통계, 랭킹을 건드리지 않는다
+    @Test
+    void closeIfDueOnlyChangesState() {
+        Challenge challenge = challenge(7, 7, TODAY);
+
+        assertThat(finalizer.closeIfDue(challenge)).isTrue();
+
+        assertThat(challenge.getStatus()).isEqualTo(Status.SUCCESS);
+        verify(rankingService, never()).increaseStamp(anyLong());
+        verify(memberStatsService, never()).recordFinished(any());
+
+        finalizer.recordFinished(challenge);
+        verify(rankingService).increaseStamp(MEMBER_ID);
+        verify(memberStatsService).recordFinished(challenge);
+    }
+
+    // DUE_DATE 컬럼 추가 이전 챌린지는 등록일 + targetDate 로 판단한다
+    @Test
+    void legacyChallengeUsesCreatedAtPlusTargetDate() {
+        Challenge challenge = challenge(7, 0, null);
+        ReflectionTestUtils.setField(challenge, "createdAt", TODAY.minusDays(7).atTime(9, 0));
+
+        assertThat(finalizer.finalizeIfDue(challenge)).isTrue();
+        assertThat(challenge.getStatus()).isEqualTo(Status.FAIL);
+    }
+
+    // JVM 시간대가 UTC 여도 서울 날짜로 판단한다 (UTC 날짜로는 종료일 전날)
+    @Test
+    void dueDateIsComparedInSeoulTime() {
+        Challenge challenge = challenge(7, 7, TODAY);
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        try {
+            assertThat(finalizer.finalizeIfDue(challenge)).isTrue();
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+        assertThat(challenge.getStatus()).isEqualTo(Status.SUCCESS);
+    }
+
+    private Challenge challenge(int targetDate, int historyCount, LocalDate dueDate) {
+        Member member = Member.builder().username("cactus").build();
+        ReflectionTestUtils.setField(member, "id", MEMBER_ID);
+
+        Challenge challenge = Challenge.builder()
+                .challengeType(Challenge.ChallengeType.THANKS)
+                .targetDate(targetDate)
+                .startDate(TODAY)
+                .build();
+        challenge.setStatus(Status.IN_PROGRESS);
+        challenge.setMember(member);
+        ReflectionTestUtils.setField(challenge, "historyCount", historyCount);
+        ReflectionTestUtils.setField(challenge, "dueDate", dueDate);
+        return challenge;
+    }
+}
@@ -0,0 +1,140 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.auth.service.MemberService;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 끝난 챌린지 기록을 커서로 나눠 받을 때 페이지 사이에 겹치거나 빠지는 챌린지가 없는지,
+ * 페이지가 limit 을 넘지 않는지, 마지막 페이지에서만 nextCursor 가 null 인지, 응답이 올바른 JSON 인지 확인한다.
+ */
+class ChallengeRecordsStreamTest extends CommittingJpaTest {
+
+    private static final int LIMIT = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ChallengeService challengeService;
+    private Member member;
+    private Member other;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        challengeService = new ChallengeService(mock(MemberService.class), challengeRepository, memberRepository,
+                mock(RankingService.class), mock(MemberStatsService.class), objectMapper,
+                mock(WateringMessagePool.class), mock(ObjectProvider.class), SeoulTime.CLOCK);
+        member = memberRepository.save(Member.builder().username("cactus").build());
+        other = memberRepository.save(Member.builder().username("other").build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(member.getId().toString(), null));
+    }
+
+    @Test
+    void pagesFollowCursorWithoutOverlapOrGap() throws Exception {
+        List<String> expected = finish(member, 23);
+        // 진행 중인 챌린지와 다른 회원의 챌린지는 나오지 않는다
+        save(member, Status.IN_PROGRESS);
+        finish(other, 3);
+
+        List<String> received = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        Long cursor = null;
+        do {
+            JsonNode data = page(cursor).get("data");
+            JsonNode challenges = data.get("challenges");
+            pageSizes.add(challenges.size());
+            for (JsonNode challenge : challenges) {
+                received.add(challenge.get("index").asText());
+                assertThat(challenge.get("histories")).hasSize(1);
+            }
+            cursor = data.get("nextCursor").isNull() ? null : data.get("nextCursor").asLong();
+        } while (cursor != null);
+
+        assertThat(pageSizes).containsExactly(5, 5, 5, 5, 3);
+        assertThat(received).containsExactlyElementsOf(expected);
+    }
+
+    // 마지막 페이지가 limit 만큼 꽉 차도 빈 페이지를 한 번 더 요청하게 하지 않는다
+    @Test
+    void fullLastPageHasNoNextCursor() throws Exception {
+        List<String> expected = finish(member, LIMIT * 2);
+
+        JsonNode first = page(null).get("data");
+        JsonNode last = page(first.get("nextCursor").asLong()).get("data");
+
+        assertThat(first.get("challenges")).hasSize(LIMIT);
+        assertThat(last.get("challenges")).hasSize(LIMIT);
+        assertThat(last.get("challenges").get(LIMIT - 1).get("index").asText()).isEqualTo(expected.get(LIMIT * 2 - 1));
+        assertThat(last.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    void emptyRecordsAreValidJson() throws Exception {
+        JsonNode data = page(null).get("data");
+
+        assertThat(data.get("challenges").isArray()).isTrue();
+        assertThat(data.get("challenges")).isEmpty();
+        assertThat(data.has("nextCursor")).isTrue();
+        assertThat(data.get("nextCursor").isNull()).isTrue();
+    }
+
+    // readTree 는 잘리거나 닫히지 않은 JSON 이면 예외를 던진다
+    private JsonNode page(Long cursor) throws Exception {
+        ResponseEntity<StreamingResponseBody> response = challengeService.streamChallengeRecords(cursor, LIMIT);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    // 최신 챌린지부터 (id 내림차순) index 목록
+    private List<String> finish(Member owner, int count) {
+        List<String> indexes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            indexes.add(0, save(owner, i % 2 == 0 ? Status.SUCCESS : Status.FAIL).getUuid().toString());
+        }
+        return indexes;
+    }
+
+    private Challenge save(Member owner, Status status) {
+        return new TransactionTemplate(transactionManager).execute(tx -> {
+            Challenge challenge = Challenge.builder()
+                    .challengeType(Challenge.ChallengeType.THANKS)
+                    .targetDate(7)
+                    .startDate(LocalDate.now(SeoulTime.CLOCK))
+                    .build();
+            challenge.setStatus(status);
+            challenge.setMember(memberRepository.getReferenceById(owner.getId()));
+            challengeRepository.save(challenge);
+
+            History history = History.builder().contents("thanks").historyDate(LocalDate.now(SeoulTime.CLOCK)).build();
+            history.setChallenge(challenge);
+            historyRepository.save(history);
+            return challenge;
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.challenge.web.dto.request.ThanksDto;
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.ENROLL_HISTORY_CANNOT_BE_DUPLICATED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 히스토리, 챌린지를 새로 붙일 때 기존 히스토리, 챌린지 목록을 읽지 않는지,
+ * 히스토리 등록 한 번에 나가는 SQL 수가 늘지 않는지 Hibernate 통계로 확인한다.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class HistoryAppendStatisticsTest extends CommittingJpaTest {
+
+    private static final int EXISTING_HISTORIES = 5;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void uploadLoadsNoExistingHistories() throws Exception {
+        Long challengeId = enrollWithHistories();
+        statistics.clear();
+
+        pipeline().uploadThanksHistory(new ObjectMapper().readValue("{\"text\":\"thanks\"}", ThanksDto.class));
+
+        assertThat(statistics.getEntityStatistics(History.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getCollectionStatistics(Challenge.class.getName() + ".histories").getFetchCount()).isZero();
+        assertThat(statistics.getEntityStatistics(History.class.getName()).getInsertCount()).isEqualTo(1);
+        assertThat(historyRepository.count()).isEqualTo(EXISTING_HISTORIES + 1);
+        assertThat(challengeRepository.findById(challengeId).orElseThrow().getHistoryCount()).isEqualTo(EXISTING_HISTORIES + 1);
+    }
+
+    // 등록 한 번에 나가는 SQL: 진행 중인 챌린지 조회 하나, 히스토리 insert 하나, 챌린지 update(version 조건 포함) 많아야 하나
+    @Test
+    void uploadRunsOneReadOneInsertAtMostOneUpdate() throws Exception {
+        enrollWithHistories();
+        statistics.clear();
+
+        pipeline().uploadThanksHistory(new ObjectMapper().readValue("{\"text\":\"thanks\"}", ThanksDto.class));
+
+        long updates = statistics.getEntityUpdateCount();
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(updates).isLessThanOrEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 1 + updates);
+    }
+
+    // 마지막 히스토리 날짜가 DB 를 거쳐도 밀리지 않아야 어제 다음 오늘은 등록되고 오늘 다시 등록하면 거절된다
+    @Test
+    void lastHistoryDateDecidesSameDayAndNextDay() throws Exception {
+        Long challengeId = enrollWithHistories();
+        LocalDate today = LocalDate.now(SeoulTime.CLOCK);
+        assertThat(challengeRepository.findById(challengeId).orElseThrow().getLastHistoryDate()).isEqualTo(today.minusDays(1));
+
+        HistoryUploadPipeline pipeline = pipeline();
+        ThanksDto thanksDto = new ObjectMapper().readValue("{\"text\":\"thanks\"}", ThanksDto.class);
+        pipeline.uploadThanksHistory(thanksDto);
+
+        assertThat(challengeRepository.findById(challengeId).orElseThrow().getLastHistoryDate()).isEqualTo(today);
+        assertThatThrownBy(() -> pipeline.uploadThanksHistory(thanksDto))
+                .isInstanceOf(BusinessLogicException.class)
+                .extracting("exceptionCode").isEqualTo(ENROLL_HISTORY_CANNOT_BE_DUPLICATED);
+        assertThat(historyRepository.count()).isEqualTo(EXISTING_HISTORIES + 1);
+    }
+
+    @Test
+    void attachingChallengeLoadsNoExistingChallenges() {
+        enrollWithHistories();
+        Long memberId = memberRepository.findAll().get(0).getId();
+        statistics.clear();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Member member = memberRepository.findById(memberId).orElseThrow();
+            Challenge challenge = Challenge.builder()
+                    .challengeType(Challenge.ChallengeType.MORNING)
+                    .targetDate(7)
+                    .startDate(LocalDate.now(SeoulTime.CLOCK))
+                    .build();
+            challenge.setStatus(Status.FAIL);
+            challenge.setMember(member);
+            challengeRepository.save(challenge);
+        });
+
+        assertThat(statistics.getCollectionStatistics(Member.class.getName() + ".challenges").getFetchCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Challenge.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Challenge.class.getName()).getInsertCount()).isEqualTo(1);
+    }
+
+    // 지난 며칠 동안 하루 하나씩 히스토리가 있는 진행 중인 감사 챌린지
+    private Long enrollWithHistories() {
+        Long challengeId = enroll(Challenge.ChallengeType.THANKS, 30).getId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Challenge challenge = challengeRepository.findById(challengeId).orElseThrow();
+            for (int daysAgo = EXISTING_HISTORIES; daysAgo > 0; daysAgo--) {
+                History history = History.builder().contents("day " + daysAgo).historyDate(LocalDate.now(SeoulTime.CLOCK).minusDays(daysAgo)).build();
+                history.setChallenge(challenge);
+                historyRepository.save(history);
+            }
+            // addHistory 는 오늘 날짜를 남기므로 지난 날짜로 넣은 마지막 히스토리(어제)에 맞춘다
+            ReflectionTestUtils.setField(challenge, "lastHistoryDate", LocalDate.now(SeoulTime.CLOCK).minusDays(1));
+        });
+        return challengeId;
+    }
+}
@@ -0,0 +1,131 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.challenge.web.dto.request.StudyDto;
+import com.cactusvilleage.server.challenge.web.dto.request.ThanksDto;
+import com.cactusvilleage.server.challenge.web.dto.response.HistoryResponseDto;
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.ENROLL_HISTORY_CANNOT_BE_DUPLICATED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 히스토리 등록 한 번에 히스토리 insert 와 챌린지 update 가 한 번씩만 나가는지,
+ * 같은 챌린지에 동시에 들어온 등록 중 하나만 반영되는지, 반영되지 못한 요청이 올린 이미지는 지워지는지 확인한다.
+ */
+class HistoryUploadConcurrencyTest extends CommittingJpaTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    void completingUploadBumpsVersionOnce() throws Exception {
+        Long challengeId = enroll(1);
+
+        HistoryResponseDto response = pipeline().uploadThanksHistory(thanks());
+
+        Challenge challenge = challengeRepository.findById(challengeId).orElseThrow();
+        assertThat(response.getStatus()).isEqualTo("success");
+        assertThat(challenge.getStatus()).isEqualTo(Status.SUCCESS);
+        assertThat(challenge.getStamp()).isBetween(1, 8);
+        assertThat(challenge.getHistoryCount()).isEqualTo(1);
+        // 상태, 도장까지 flush 전에 정해졌다면 versioned update 는 한 번
+        assertThat(challenge.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void parallelUploadsOfSameDayKeepSingleHistory() throws Exception {
+        Long challengeId = enroll(7);
+        HistoryUploadPipeline pipeline = pipeline();
+        ThanksDto thanksDto = thanks();
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger duplicated = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication((UsernamePasswordAuthenticationToken) authentication);
+                try {
+                    start.await();
+                    pipeline.uploadThanksHistory(thanksDto);
+                    succeeded.incrementAndGet();
+                } catch (BusinessLogicException e) {
+                    assertThat(e.getExceptionCode()).isEqualTo(ENROLL_HISTORY_CANNOT_BE_DUPLICATED);
+                    duplicated.incrementAndGet();
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Challenge challenge = challengeRepository.findById(challengeId).orElseThrow();
+        assertThat(succeeded.get()).isEqualTo(1);
+        assertThat(duplicated.get()).isEqualTo(THREADS - 1);
+        assertThat(historyRepository.count()).isEqualTo(1);
+        assertThat(challenge.getHistoryCount()).isEqualTo(1);
+        assertThat(challenge.getVersion()).isEqualTo(1L);
+    }
+
+    // 올리는 동안 같은 날 다른 요청이 먼저 등록하면, 늦은 요청이 올린 이미지는 히스토리 없이 남지 않고 지워진다
+    @Test
+    void studyUploadRejectedAfterUploadDeletesImage() throws Exception {
+        enroll(Challenge.ChallengeType.STUDY, 7);
+        S3Service s3Service = mock(S3Service.class);
+        HistoryUploadPipeline pipeline = pipeline(s3Service);
+        StudyDto studyDto = new ObjectMapper().readValue("{\"time\":\"90\"}", StudyDto.class);
+        MockMultipartFile file = new MockMultipartFile("image", "image.png", "image/png", new byte[16]);
+
+        AtomicBoolean racing = new AtomicBoolean(true);
+        given(s3Service.upload(file)).willAnswer(invocation -> {
+            if (racing.getAndSet(false)) {
+                pipeline.uploadStudyHistory(studyDto, file).join();
+                return "late-image.png";
+            }
+            return "first-image.png";
+        });
+
+        assertThatThrownBy(() -> pipeline.uploadStudyHistory(studyDto, file).join())
+                .hasCauseInstanceOf(BusinessLogicException.class);
+        assertThat(historyRepository.count()).isEqualTo(1);
+        verify(s3Service).delete("late-image.png");
+        verify(s3Service, never()).delete("first-image.png");
+    }
+
+    private Long enroll(int targetDate) {
+        Long challengeId = enroll(Challenge.ChallengeType.THANKS, targetDate).getId();
+        assertThat(challengeRepository.findById(challengeId).orElseThrow().getVersion()).isZero();
+        return challengeId;
+    }
+
+    private ThanksDto thanks() throws Exception {
+        return new ObjectMapper().readValue("{\"text\":\"thanks\"}", ThanksDto.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.MemberStats;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 통계가 챌린지를 끝낸 트랜잭션과 같이 커밋, 롤백되는지, 진행한 날 수를 커밋된 통계로 정하는지,
+ * 같은 회원 통계를 동시에 갱신해도 잃어버리는 값이 없는지, recalculate 가 더하지 않고 다시 정하는지 확인한다.
+ */
+class MemberStatsServiceTest extends CommittingJpaTest {
+
+    private static final long MEMBER_ID = 11L;
+    private static final LocalDateTime START = LocalDateTime.of(2022, 10, 1, 9, 0);
+
+    private MemberStatsService memberStatsService;
+
+    @BeforeEach
+    void setUp() {
+        memberStatsService = new MemberStatsService(memberStatsRepository, oneDayDateRepository, challengeRepository, transactionManager);
+    }
+
+    // 배치 chunk 하나에서 같은 날 시작한 히스토리 하나짜리 챌린지 둘이 끝나도 하루만 센다
+    @Test
+    void sameDayOneHistoryChallengesInOneTransactionCountOnce() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberStatsService.recordFinished(finished(1, 0));
+            memberStatsService.recordFinished(finished(1, 0));
+
+            // 커밋 전에는 다른 트랜잭션에서 보이지 않는다
+            assertThat(committedTotalChall()).isZero();
+        });
+
+        MemberStats stats = memberStatsRepository.findById(MEMBER_ID).orElseThrow();
+        assertThat(stats.getTotalChall()).isEqualTo(2);
+        assertThat(stats.getTotalDate()).isEqualTo(1);
+        assertThat(oneDayDateRepository.findAllByMemberId(MEMBER_ID))
+                .extracting(oneDay -> oneDay.getKey().getStartDate())
+                .containsExactly(START.toLocalDate());
+    }
+
+    // 버전 충돌 등으로 롤백된 (건너뛴) 챌린지는 통계에 반영되지 않는다
+    @Test
+    void rolledBackFinishIsNotRecorded() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberStatsService.recordFinished(finished(7, 3));
+            status.setRollbackOnly();
+        });
+
+        assertThat(committedTotalChall()).isZero();
+    }
+
+    // 이미 더해진 완료가 있어도 챌린지 테이블 기준 값으로 덮어쓴다 (여기서는 끝난 챌린지가 없으므로 0)
+    @Test
+    void recalculateSetsAbsoluteValues() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberStatsService.recordFinished(finished(3, 5));
+            memberStatsService.recordFinished(finished(1, 0));
+        });
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberStatsService.recalculate(MEMBER_ID));
+
+        MemberStats stats = memberStatsRepository.findById(MEMBER_ID).orElseThrow();
+        assertThat(stats.getTotalChall()).isZero();
+        assertThat(stats.getTotalDate()).isZero();
+        assertThat(stats.getStampList()).isEmpty();
+        assertThat(oneDayDateRepository.findAllByMemberId(MEMBER_ID)).isEmpty();
+    }
+
+    @Test
+    void concurrentFinishesLoseNoUpdates() throws Exception {
+        int threads = 8;
+        int perThread = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                            memberStatsService.recordFinished(finished(3, 5)));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        MemberStats stats = memberStatsRepository.findById(MEMBER_ID).orElseThrow();
+        assertThat(stats.getTotalChall()).isEqualTo(threads * perThread);
+        assertThat(stats.getTotalDate()).isEqualTo(threads * perThread * 3);
+        assertThat(stats.getStampList()).hasSize(threads * perThread);
+    }
+
+    private int committedTotalChall() {
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return other.execute(status -> memberStatsRepository.findById(MEMBER_ID)
+                .map(MemberStats::getTotalChall)
+                .orElse(0));
+    }
+
+    private Challenge finished(int historyCount, int stamp) {
+        Member member = Member.builder().username("cactus").build();
+        ReflectionTestUtils.setField(member, "id", MEMBER_ID);
+
+        Challenge challenge = Challenge.builder()
+                .challengeType(Challenge.ChallengeType.THANKS)
+                .targetDate(7)
+                .startDate(LocalDate.now(SeoulTime.CLOCK))
+                .build();
+        challenge.setStatus(stamp == 0 ? Status.FAIL : Status.SUCCESS);
+        challenge.setStamp(stamp);
+        challenge.setMember(member);
+        ReflectionTestUtils.setField(challenge, "historyCount", historyCount);
+        ReflectionTestUtils.setField(challenge, "createdAt", START);
+        return challenge;
+    }
+}
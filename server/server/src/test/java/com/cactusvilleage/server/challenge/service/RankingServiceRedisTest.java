@@ -0,0 +1,83 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 도장 수와 도장 개수별 회원 수가 같은 스크립트에서 바뀌어, 모든 노드가 Redis 만 보고 같은 순위를 계산하는지 확인한다.
+ */
+class RankingServiceRedisTest {
+
+    private EmbeddedRedis redis;
+    private StringRedisTemplate redisTemplate;
+    private RankingService rankingService;
+
+    @BeforeEach
+    void setUp() {
+        redis = new EmbeddedRedis();
+        redisTemplate = redis.template();
+        rankingService = new RankingService(redisTemplate, mock(ChallengeRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        redis.close();
+    }
+
+    @Test
+    void ranksFollowStampsOfEveryMember() {
+        // 1: 3개, 2: 3개, 3: 1개
+        rankingService.increaseStamps(Map.of(1L, 3L, 2L, 2L, 3L, 1L));
+        rankingService.increaseStamp(2L);
+
+        assertThat(redisTemplate.<String, String>opsForHash().entries("ranking:stamps:counts"))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("3", "2", "1", "1"));
+        assertThat(rankingService.getRank(3)).isEqualTo(1);
+        assertThat(rankingService.getRank(1)).isEqualTo(3);
+        assertThat(rankingService.getRank(0)).isEqualTo(4);
+        assertThat(rankingService.getDenseRank(3)).isEqualTo(1);
+        assertThat(rankingService.getDenseRank(1)).isEqualTo(2);
+        assertThat(rankingService.getDenseRank(0)).isEqualTo(3);
+    }
+
+    @Test
+    void removedMemberLeavesTheCounts() {
+        rankingService.increaseStamps(Map.of(1L, 3L, 2L, 1L));
+
+        rankingService.remove(1L);
+        rankingService.remove(1L);
+
+        assertThat(redisTemplate.<String, String>opsForHash().entries("ranking:stamps:counts"))
+                .containsExactly(Map.entry("1", "1"));
+        assertThat(rankingService.getRank(1)).isEqualTo(1);
+        assertThat(rankingService.getDenseRank(1)).isEqualTo(1);
+        assertThat(rankingService.getRankerCount()).isEqualTo(1);
+    }
+
+    // 스크립트 한 번에 넘기는 회원 수보다 많아도 모두 반영된다
+    @Test
+    void largeBatchIsSplitAcrossScriptCalls() {
+        Map<Long, Long> stamps = new HashMap<>();
+        for (long memberId = 1; memberId <= 2500; memberId++) {
+            stamps.put(memberId, memberId % 2 + 1);
+        }
+
+        rankingService.increaseStamps(stamps);
+
+        assertThat(rankingService.getRankerCount()).isEqualTo(2500);
+        assertThat(redisTemplate.<String, String>opsForHash().entries("ranking:stamps:counts"))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("2", "1250", "1", "1250"));
+        assertThat(rankingService.getRank(1)).isEqualTo(1251);
+        assertThat(rankingService.getDenseRank(1)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,107 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.repository.StampCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.cactusvilleage.server.challenge.entities.Status.SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+class RankingServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ZSetOperations<String, String> zSetOperations;
+    private HashOperations<String, Object, Object> hashOperations;
+    private ChallengeRepository challengeRepository;
+    private RankingService rankingService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        hashOperations = mock(HashOperations.class);
+        challengeRepository = mock(ChallengeRepository.class);
+        given(redisTemplate.opsForZSet()).willReturn(zSetOperations);
+        given(redisTemplate.opsForHash()).willReturn(hashOperations);
+        given(challengeRepository.countByStatusGroupByMember(SUCCESS))
+                .willReturn(List.of(stampCount(1L, 3L), stampCount(2L, 3L), stampCount(3L, 1L)));
+        rankingService = new RankingService(redisTemplate, challengeRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eachRebuildFillsItsOwnTemporaryKeys() {
+        rankingService.rebuild();
+        rankingService.rebuild();
+
+        ArgumentCaptor<String> rankingKeys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> countsKeys = ArgumentCaptor.forClass(String.class);
+        verify(zSetOperations, times(2)).add(rankingKeys.capture(), anySet());
+        verify(hashOperations, times(2)).putAll(countsKeys.capture(), eq(Map.of("3", "2", "1", "1")));
+        assertThat(rankingKeys.getAllValues()).allMatch(key -> key.startsWith("ranking:stamps:rebuild:"))
+                .doesNotHaveDuplicates();
+        assertThat(countsKeys.getAllValues()).allMatch(key -> key.startsWith("ranking:stamps:counts:rebuild:"))
+                .doesNotHaveDuplicates();
+
+        ArgumentCaptor<List<String>> swapped = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), swapped.capture());
+        assertThat(swapped.getAllValues().get(0)).containsExactly(rankingKeys.getAllValues().get(0),
+                countsKeys.getAllValues().get(0), "ranking:stamps", "ranking:stamps:counts");
+        assertThat(swapped.getAllValues().get(1)).containsExactly(rankingKeys.getAllValues().get(1),
+                countsKeys.getAllValues().get(1), "ranking:stamps", "ranking:stamps:counts");
+        // 다른 노드가 채우고 있을 수 있는 임시 키는 지우지 않는다
+        verify(redisTemplate, never()).delete(anyString());
+        verify(redisTemplate, never()).delete(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedRebuildRemovesOnlyItsTemporaryKeys() {
+        given(redisTemplate.execute(any(RedisScript.class), anyList())).willThrow(new IllegalStateException("rename failed"));
+
+        assertThatThrownBy(() -> rankingService.rebuild()).isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<String> rankingKey = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> countsKey = ArgumentCaptor.forClass(String.class);
+        verify(zSetOperations).add(rankingKey.capture(), anySet());
+        verify(hashOperations).putAll(countsKey.capture(), anyMap());
+        ArgumentCaptor<Collection<String>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(redisTemplate).delete(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly(rankingKey.getValue(), countsKey.getValue());
+    }
+
+    private StampCount stampCount(Long memberId, Long stamps) {
+        return new StampCount() {
+            @Override
+            public Long getMemberId() {
+                return memberId;
+            }
+
+            @Override
+            public Long getStamps() {
+                return stamps;
+            }
+        };
+    }
+}
@@ -0,0 +1,295 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.S3_UPLOAD_BUSY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 느린 클라이언트로 다운로드 풀이 가득 찬 상태에서도 업로드 후속 작업이 밀리지 않는지,
+ * 풀이 넘치면 큐에 계속 쌓지 않고 거절하는지, 실패하거나 거절된 업로드가 임시 파일이나 S3 객체를 남기지 않는지 확인한다.
+ * ./gradlew benchmark --tests '*S3AsyncServiceLoadTest'
+ */
+@Tag("benchmark")
+class S3AsyncServiceLoadTest {
+
+    private static final int CHUNKS = 10;
+    private static final long SEND_DELAY_MILLIS = 20;
+    private static final long S3_LATENCY_MILLIS = 50;
+
+    private final S3AsyncClient s3AsyncClient = mock(S3AsyncClient.class);
+    // Netty event loop 역할
+    private final ExecutorService eventLoop = Executors.newSingleThreadExecutor();
+    private final AtomicInteger sent = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final List<CompletableFuture<?>> bodies = new CopyOnWriteArrayList<>();
+    private S3AsyncService s3AsyncService;
+
+    @AfterEach
+    void tearDown() {
+        s3AsyncService.shutdown();
+        eventLoop.shutdownNow();
+    }
+
+    @Test
+    void uploadContinuationIsNotQueuedBehindSlowDownloads() throws Exception {
+        s3AsyncService = service(2, 10, 2, 100);
+        givenS3Responds();
+
+        int downloads = 20;
+        for (int i = 0; i < downloads; i++) {
+            s3AsyncService.download("image-" + i, null, null).get(1, TimeUnit.SECONDS);
+        }
+
+        // 다운로드 본문 쓰기만 200 * 20ms / 2 스레드 = 약 2초, 그 사이 업로드 후속 작업이 바로 실행되어야 한다
+        long started = System.nanoTime();
+        List<CompletableFuture<String>> continuations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            continuations.add(s3AsyncService.upload(image())
+                    .thenApply(key -> Thread.currentThread().getName()));
+        }
+        for (CompletableFuture<String> continuation : continuations) {
+            assertThat(continuation.get(1, TimeUnit.SECONDS)).startsWith("s3-upload-");
+        }
+        long uploadMillis = (System.nanoTime() - started) / 1_000_000;
+        assertThat(sent.get()).isLessThan(downloads * CHUNKS);
+
+        CompletableFuture.allOf(bodies.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        System.out.printf("[s3-load] %d downloads x %d chunks, 5 upload continuations done in %d ms%n",
+                downloads, CHUNKS, uploadMillis);
+        assertThat(sent.get()).isEqualTo(downloads * CHUNKS);
+        assertThat(failed.get()).isZero();
+    }
+
+    @Test
+    void downloadsBeyondQueueCapacityAreCut() throws Exception {
+        s3AsyncService = service(1, 1, 1, 1);
+        givenS3Responds();
+
+        for (int i = 0; i < 5; i++) {
+            s3AsyncService.download("image-" + i, null, null).get(1, TimeUnit.SECONDS);
+        }
+        for (CompletableFuture<?> body : bodies) {
+            try {
+                body.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+            }
+        }
+
+        assertThat(failed.get()).isPositive();
+    }
+
+    @Test
+    void uploadIsRejectedWhenUploadPoolIsFull() throws Exception {
+        s3AsyncService = service(1, 1, 1, 10);
+        givenS3Responds();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 하나는 실행 중, 하나는 큐에서 대기 -> 세 번째는 거절
+        CompletableFuture<Void> running = s3AsyncService.upload(image()).thenAccept(key -> await(release));
+        CompletableFuture<String> queued = s3AsyncService.upload(image());
+        Thread.sleep(200);
+        CompletableFuture<String> rejected = s3AsyncService.upload(image());
+
+        assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(BusinessLogicException.class)
+                .satisfies(e -> assertThat(((BusinessLogicException) e.getCause()).getExceptionCode()).isEqualTo(S3_UPLOAD_BUSY));
+        // 올리기 전에 거절하므로 S3 에 보내지도, 지우지도 않는다
+        verify(s3AsyncClient, times(2)).putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class));
+        verify(s3AsyncClient, never()).deleteObject(any(DeleteObjectRequest.class));
+
+        release.countDown();
+        running.get(1, TimeUnit.SECONDS);
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    // 올리는 사이에 풀이 가득 차 후속 작업이 거절되면 올린 객체를 지운다
+    @Test
+    void objectIsDeletedWhenContinuationIsRejected() throws Exception {
+        s3AsyncService = service(1, 1, 1, 10);
+        givenS3Responds();
+        given(s3AsyncClient.deleteObject(any(DeleteObjectRequest.class)))
+                .willReturn(CompletableFuture.completedFuture(DeleteObjectResponse.builder().build()));
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> running = s3AsyncService.upload(image()).thenAccept(key -> await(release));
+        Thread.sleep(200);
+        // 둘 다 큐가 비어 있을 때 시작하지만 업로드가 끝났을 때는 큐 자리가 하나뿐이다
+        List<CompletableFuture<String>> racing = List.of(s3AsyncService.upload(image()), s3AsyncService.upload(image()));
+        Thread.sleep(200);
+
+        ArgumentCaptor<PutObjectRequest> puts = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3AsyncClient, times(3)).putObject(puts.capture(), any(AsyncRequestBody.class));
+        ArgumentCaptor<DeleteObjectRequest> deletes = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+        verify(s3AsyncClient, times(1)).deleteObject(deletes.capture());
+        assertThat(puts.getAllValues().stream().map(PutObjectRequest::key)).contains(deletes.getValue().key());
+
+        assertThat(racing.stream().filter(CompletableFuture::isCompletedExceptionally)).hasSize(1);
+        release.countDown();
+        running.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void tempFileIsDeletedWhenTransferFails() {
+        s3AsyncService = service(1, 1, 1, 10);
+        RecordingFile image = new RecordingFile(true);
+
+        assertThatThrownBy(() -> s3AsyncService.upload(image)).isInstanceOf(IOException.class);
+        assertThat(image.destination).isNotNull().doesNotExist();
+    }
+
+    @Test
+    void tempFileIsDeletedWhenPutObjectThrows() {
+        s3AsyncService = service(1, 1, 1, 10);
+        given(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .willThrow(SdkClientException.create("bad request"));
+        RecordingFile image = new RecordingFile(false);
+
+        assertThatThrownBy(() -> s3AsyncService.upload(image)).isInstanceOf(SdkClientException.class);
+        assertThat(image.destination).isNotNull().doesNotExist();
+        verify(s3AsyncClient, never()).deleteObject(any(DeleteObjectRequest.class));
+    }
+
+    private S3AsyncService service(int uploadThreads, int uploadQueue, int downloadThreads, int downloadQueue) {
+        return new S3AsyncService(s3AsyncClient, "bucket", uploadThreads, uploadQueue, downloadThreads, downloadQueue, 60000) {
+            @Override
+            ResponseBodyEmitter createEmitter() {
+                return new SlowClientEmitter();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenS3Responds() {
+        given(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .willAnswer(invocation -> CompletableFuture.supplyAsync(() -> PutObjectResponse.builder().build(),
+                        CompletableFuture.delayedExecutor(S3_LATENCY_MILLIS, TimeUnit.MILLISECONDS, eventLoop)));
+
+        given(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .willAnswer(invocation -> {
+                    AsyncResponseTransformer<GetObjectResponse, Void> transformer = invocation.getArgument(1);
+                    CompletableFuture<Void> body = transformer.prepare();
+                    bodies.add(body);
+                    eventLoop.execute(() -> {
+                        transformer.onResponse(GetObjectResponse.builder()
+                                .eTag("\"etag\"")
+                                .contentType(MediaType.IMAGE_PNG_VALUE)
+                                .contentLength((long) CHUNKS)
+                                .build());
+                        transformer.onStream(new ChunkPublisher());
+                    });
+                    return body;
+                });
+    }
+
+    private MockMultipartFile image() {
+        return new MockMultipartFile("image", "image.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 임시 파일 경로를 기억하는 업로드 파일
+    private static class RecordingFile extends MockMultipartFile {
+        private final boolean failTransfer;
+        private File destination;
+
+        RecordingFile(boolean failTransfer) {
+            super("image", "image.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
+            this.failTransfer = failTransfer;
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            destination = dest;
+            super.transferTo(dest);
+            if (failTransfer) {
+                throw new IOException("disk full");
+            }
+        }
+    }
+
+    // 요청받은 만큼만 1 바이트씩 보내는 S3 본문
+    private class ChunkPublisher implements SdkPublisher<ByteBuffer> {
+        @Override
+        public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+            AtomicInteger remaining = new AtomicInteger(CHUNKS);
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    eventLoop.execute(() -> {
+                        if (remaining.getAndDecrement() > 0) {
+                            subscriber.onNext(ByteBuffer.wrap(new byte[]{1}));
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    });
+                }
+
+                @Override
+                public void cancel() {
+                    remaining.set(0);
+                }
+            });
+        }
+    }
+
+    // 응답을 천천히 읽는 클라이언트 -> send 가 블로킹된다
+    private class SlowClientEmitter extends ResponseBodyEmitter {
+        @Override
+        public void send(Object object, MediaType mediaType) {
+            try {
+                Thread.sleep(SEND_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.cactusvilleage.server.support.FileMultipartFile;
+import com.cactusvilleage.server.support.LocalS3;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 실제 Netty 비동기 클라이언트로 S3 호환 서버(MinIO)에 동시에 N 개를 올리고 내려받으면서,
+ * 고정된 업로드/다운로드 풀(각 THREADS 스레드)로 동시에 몇 개의 전송을 유지하는지 잰다.
+ * 동시 전송 수는 (전송마다 걸린 시간의 합 / 전체 시간), 스레드 수와 상관없이 N 에 가까워야 한다.
+ * 전송 수가 늘어도 JVM 스레드는 Netty event loop 외에 늘지 않아야 한다.
+ * ./gradlew benchmark --tests '*S3AsyncServiceLocalS3LoadTest'
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class S3AsyncServiceLocalS3LoadTest {
+
+    private static final int THREADS = 4;
+    private static final int MAX_CONCURRENCY = 200;
+    private static final long IMAGE_SIZE = 256 * 1024;
+    private static final int[] TRANSFERS = {16, 64, 256};
+
+    private static LocalS3 localS3;
+    private static S3AsyncClient s3AsyncClient;
+    private static String bucket;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @BeforeAll
+    static void startS3() throws Exception {
+        localS3 = new LocalS3();
+        s3AsyncClient = localS3.asyncClient(MAX_CONCURRENCY);
+        bucket = "test-" + UUID.randomUUID();
+        s3AsyncClient.createBucket(CreateBucketRequest.builder().bucket(bucket).build()).get(30, TimeUnit.SECONDS);
+    }
+
+    @AfterAll
+    static void stopS3() {
+        s3AsyncClient.close();
+        localS3.close();
+    }
+
+    @Test
+    void fixedPoolsSustainManyConcurrentTransfers() throws Exception {
+        // event loop, 커넥션 풀을 먼저 띄워 두고 스레드 수를 잰다
+        run(8);
+        int baselineThreads = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        for (int transfers : TRANSFERS) {
+            Result result = run(transfers);
+            System.out.printf("[LOAD] %3d transfers, %d + %d threads: upload %.0f/s (%.1f MB/s, %.1f concurrent), " +
+                            "download %.0f/s (%.1f MB/s, %.1f concurrent)%n",
+                    transfers, THREADS, THREADS,
+                    result.upload.perSecond(), result.upload.megabytesPerSecond(), result.upload.concurrency(),
+                    result.download.perSecond(), result.download.megabytesPerSecond(), result.download.concurrency());
+
+            // 풀 스레드보다 훨씬 많은 전송이 동시에 진행된다
+            assertThat(result.upload.concurrency()).isGreaterThan(THREADS);
+            assertThat(result.download.concurrency()).isGreaterThan(THREADS);
+        }
+
+        int peakThreads = threads.getPeakThreadCount();
+        System.out.printf("[LOAD] threads: %d before, peak %d%n", baselineThreads, peakThreads);
+        assertThat(peakThreads - baselineThreads).isLessThan(TRANSFERS[0]);
+    }
+
+    private Result run(int transfers) throws Exception {
+        List<CountingEmitter> emitters = new CopyOnWriteArrayList<>();
+        S3AsyncService service = new S3AsyncService(s3AsyncClient, bucket, THREADS, transfers, THREADS, transfers, 60_000) {
+            @Override
+            ResponseBodyEmitter createEmitter() {
+                CountingEmitter emitter = new CountingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+
+        List<FileMultipartFile> images = new ArrayList<>();
+        for (int i = 0; i < transfers; i++) {
+            images.add(FileMultipartFile.ofSize(IMAGE_SIZE, "image-" + i + ".png", MediaType.IMAGE_PNG_VALUE));
+        }
+
+        try {
+            // 업로드: 호출 시각부터 업로드 풀에서 후속 작업이 실행될 때까지
+            Timing upload = new Timing(transfers);
+            List<CompletableFuture<String>> keys = new ArrayList<>();
+            long started = System.nanoTime();
+            for (FileMultipartFile image : images) {
+                long begin = System.nanoTime();
+                keys.add(service.upload(image).whenComplete((key, e) -> upload.record(begin)));
+            }
+            List<String> uploaded = new ArrayList<>();
+            for (CompletableFuture<String> key : keys) {
+                uploaded.add(key.get(2, TimeUnit.MINUTES));
+            }
+            upload.finish(started);
+
+            // 다운로드: 호출 시각부터 본문을 다 보낼 때까지
+            Timing download = new Timing(transfers);
+            started = System.nanoTime();
+            List<CompletableFuture<?>> headers = new ArrayList<>();
+            List<CompletableFuture<Long>> bodies = new ArrayList<>();
+            for (String key : uploaded) {
+                long begin = System.nanoTime();
+                headers.add(service.download(key, null, null));
+                // emitter 는 download 호출 안에서 바로 만들어지므로 마지막 것이 이 다운로드의 것
+                bodies.add(emitters.get(emitters.size() - 1).done.whenComplete((bytes, e) -> download.record(begin)));
+            }
+            for (CompletableFuture<?> header : headers) {
+                header.get(2, TimeUnit.MINUTES);
+            }
+            for (CompletableFuture<Long> body : bodies) {
+                assertThat(body.get(2, TimeUnit.MINUTES)).isEqualTo(IMAGE_SIZE);
+            }
+            download.finish(started);
+
+            return new Result(upload, download);
+        } finally {
+            service.shutdown();
+            for (FileMultipartFile image : images) {
+                image.delete();
+            }
+        }
+    }
+
+    private static class Timing {
+        private final int transfers;
+        private final AtomicLong busyNanos = new AtomicLong();
+        private long wallNanos;
+
+        Timing(int transfers) {
+            this.transfers = transfers;
+        }
+
+        void record(long begin) {
+            busyNanos.addAndGet(System.nanoTime() - begin);
+        }
+
+        void finish(long started) {
+            wallNanos = Math.max(1, System.nanoTime() - started);
+        }
+
+        double perSecond() {
+            return transfers * 1e9 / wallNanos;
+        }
+
+        double megabytesPerSecond() {
+            return perSecond() * IMAGE_SIZE / (1024 * 1024);
+        }
+
+        // 평균 동시 전송 수 (Little's law)
+        double concurrency() {
+            return (double) busyNanos.get() / wallNanos;
+        }
+    }
+
+    private static class Result {
+        private final Timing upload;
+        private final Timing download;
+
+        Result(Timing upload, Timing download) {
+            this.upload = upload;
+            this.download = download;
+        }
+    }
+
+    // 받은 바이트 수만 세는 응답 (HTTP 응답에 연결되지 않은 emitter 는 보낸 데이터를 메모리에 모아 둔다)
+    private static class CountingEmitter extends ResponseBodyEmitter {
+        private final AtomicLong bytes = new AtomicLong();
+        private final CompletableFuture<Long> done = new CompletableFuture<>();
+
+        @Override
+        public void send(Object object, MediaType mediaType) {
+            bytes.addAndGet(((byte[]) object).length);
+        }
+
+        @Override
+        public void complete() {
+            done.complete(bytes.get());
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            done.completeExceptionally(ex);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.Upload;
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.File;
+import java.io.InputStream;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.STUDY_IMAGE_NOT_UPLOADED;
+import static com.cactusvilleage.server.global.exception.ExceptionCode.STUDY_IMAGE_TOO_LARGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class S3ServiceTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String FILE_NAME = "uuid-image.png";
+    private static final long MAX_SIZE = 100;
+    private static final long PART_SIZE = 16;
+
+    private AmazonS3 amazonS3;
+    private TransferManager transferManager;
+    private S3Service s3Service;
+
+    @BeforeEach
+    void setUp() {
+        amazonS3 = mock(AmazonS3.class);
+        transferManager = mock(TransferManager.class);
+        s3Service = new S3Service(amazonS3, transferManager);
+        ReflectionTestUtils.setField(s3Service, "bucket", BUCKET);
+        ReflectionTestUtils.setField(s3Service, "presignedMaxSize", MAX_SIZE);
+        ReflectionTestUtils.setField(s3Service, "partSize", PART_SIZE);
+    }
+
+    @Test
+    void rangeOfZeroByteObjectIsNotSatisfiable() {
+        givenObjectOfLength(0);
+
+        ResponseEntity<StreamingResponseBody> response = s3Service.download(FILE_NAME, null, "bytes=0-");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */0");
+        verify(amazonS3, never()).getObject(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void rangeStartingPastEndIsNotSatisfiable() {
+        givenObjectOfLength(10);
+
+        ResponseEntity<StreamingResponseBody> response = s3Service.download(FILE_NAME, null, "bytes=10-20");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void malformedRangeIsNotSatisfiable() {
+        givenObjectOfLength(10);
+
+        ResponseEntity<StreamingResponseBody> response = s3Service.download(FILE_NAME, null, "bytes=5-2");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void rangeIsClampedToObjectEnd() {
+        givenObjectOfLength(10);
+        given(amazonS3.getObject(any(GetObjectRequest.class))).willReturn(new S3Object());
+
+        ResponseEntity<StreamingResponseBody> response = s3Service.download(FILE_NAME, null, "bytes=4-100");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 4-9/10");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(6);
+    }
+
+    @Test
+    void suffixRangeReturnsLastBytes() {
+        givenObjectOfLength(10);
+        given(amazonS3.getObject(any(GetObjectRequest.class))).willReturn(new S3Object());
+
+        ResponseEntity<StreamingResponseBody> response = s3Service.download(FILE_NAME, null, "bytes=-3");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+    }
+
+    @Test
+    void matchingETagOnRangeRequestIsNotModified() {
+        givenObjectOfLength(10);
+
+        ResponseEntity<StreamingResponseBody> response = s3Service.download(FILE_NAME, "\"etag\"", "bytes=0-");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"etag\"");
+    }
+
+    @Test
+    void parseETagsStripsQuotesAndWeakPrefix() {
+        assertThat(S3Service.parseETags("\"a\", W/\"b\",c")).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void smallFileIsStreamedWithItsRealSize() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("image", "image.png", "image/png", new byte[(int) PART_SIZE]);
+
+        String fileName = s3Service.upload(file);
+
+        ArgumentCaptor<ObjectMetadata> metadata = ArgumentCaptor.forClass(ObjectMetadata.class);
+        verify(amazonS3).putObject(eq(BUCKET), eq(fileName), any(InputStream.class), metadata.capture());
+        assertThat(fileName).endsWith("-image.png");
+        assertThat(metadata.getValue().getContentLength()).isEqualTo(PART_SIZE);
+        assertThat(metadata.getValue().getContentType()).isEqualTo("image/png");
+        verify(transferManager, never()).upload(any(PutObjectRequest.class));
+    }
+
+    @Test
+    void fileOfTwoPartsGoesMultipartFromTempFile() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("image", "image.png", "image/png", new byte[(int) PART_SIZE * 2]);
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        given(transferManager.upload(request.capture())).willReturn(mock(Upload.class));
+
+        String fileName = s3Service.upload(file);
+
+        PutObjectRequest sent = request.getValue();
+        assertThat(sent.getKey()).isEqualTo(fileName);
+        assertThat(sent.getMetadata().getContentLength()).isEqualTo(PART_SIZE * 2);
+        // part 를 다 올린 뒤 임시 파일은 지운다
+        File tempFile = sent.getFile();
+        assertThat(tempFile).doesNotExist();
+        verify(amazonS3, never()).putObject(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class));
+    }
+
+    @Test
+    void presignedUploadWithinLimitIsKept() {
+        givenObjectOfLength(MAX_SIZE);
+
+        s3Service.verifyPresignedUpload(FILE_NAME);
+
+        verify(amazonS3, never()).deleteObject(anyString(), anyString());
+    }
+
+    @Test
+    void presignedUploadOverLimitIsDeleted() {
+        givenObjectOfLength(MAX_SIZE + 1);
+
+        assertThatThrownBy(() -> s3Service.verifyPresignedUpload(FILE_NAME))
+                .isInstanceOf(BusinessLogicException.class)
+                .extracting("exceptionCode").isEqualTo(STUDY_IMAGE_TOO_LARGE);
+        verify(amazonS3).deleteObject(BUCKET, FILE_NAME);
+    }
+
+    @Test
+    void missingPresignedUploadIsNotUploaded() {
+        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+        notFound.setStatusCode(404);
+        given(amazonS3.getObjectMetadata(BUCKET, FILE_NAME)).willThrow(notFound);
+
+        assertThatThrownBy(() -> s3Service.verifyPresignedUpload(FILE_NAME))
+                .isInstanceOf(BusinessLogicException.class)
+                .extracting("exceptionCode").isEqualTo(STUDY_IMAGE_NOT_UPLOADED);
+    }
+
+    private void givenObjectOfLength(long length) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(length);
+        metadata.setHeader("ETag", "etag");
+        given(amazonS3.getObjectMetadata(BUCKET, FILE_NAME)).willReturn(metadata);
+    }
+}
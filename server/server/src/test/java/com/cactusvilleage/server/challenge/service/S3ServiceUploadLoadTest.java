@@ -0,0 +1,138 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.cactusvilleage.server.support.FileMultipartFile;
+import com.cactusvilleage.server.support.LocalS3;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 큰 이미지 여러 개를 S3 호환 서버(MinIO)에 동시에 올리면서 살아 있는 heap 을 잰다.
+ * 작은 파일은 putObject 스트림, part 두 개 이상인 파일은 TransferManager 멀티파트로 올라가고,
+ * 어느 쪽도 파일 전체나 part 를 메모리에 올리지 않으므로 업로드 하나당 heap 증가는 수백 KB 안이어야 한다.
+ * 저장된 객체 크기가 getSize() 로 보낸 실제 크기와 같은지도 확인한다.
+ * ./gradlew benchmark --tests '*S3ServiceUploadLoadTest'
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class S3ServiceUploadLoadTest {
+
+    private static final long PART_SIZE = 8 * 1024 * 1024;
+    private static final int UPLOADS = 32;
+    private static final long SMALL_SIZE = PART_SIZE;
+    private static final long LARGE_SIZE = PART_SIZE * 3;
+    // SDK 의 mark/reset 버퍼(128 KB)와 연결별 송신 버퍼 정도만 허용한다
+    private static final long MAX_HEAP_PER_UPLOAD = 384 * 1024;
+
+    private static LocalS3 localS3;
+    private static AmazonS3 amazonS3;
+    private static TransferManager transferManager;
+    private static String bucket;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @BeforeAll
+    static void startS3() {
+        localS3 = new LocalS3();
+        amazonS3 = localS3.amazonS3();
+        transferManager = localS3.transferManager(amazonS3, PART_SIZE, 8);
+        bucket = localS3.createBucket(amazonS3);
+    }
+
+    @AfterAll
+    static void stopS3() {
+        transferManager.shutdownNow(true);
+        localS3.close();
+    }
+
+    @Test
+    void concurrentLargeUploadsKeepHeapPerUploadWithinAFewHundredKilobytes() throws Exception {
+        S3Service s3Service = new S3Service(amazonS3, transferManager);
+        ReflectionTestUtils.setField(s3Service, "bucket", bucket);
+        ReflectionTestUtils.setField(s3Service, "partSize", PART_SIZE);
+
+        List<FileMultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            files.add(FileMultipartFile.ofSize(i % 2 == 0 ? SMALL_SIZE : LARGE_SIZE, "image-" + i + ".png", "image/png"));
+        }
+
+        long baseline = liveHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean uploading = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (uploading.get()) {
+                peak.accumulateAndGet(liveHeap(), Math::max);
+                sleep(200);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(UPLOADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> keys = new ArrayList<>();
+        for (FileMultipartFile file : files) {
+            keys.add(executor.submit(() -> {
+                start.await();
+                return s3Service.upload(file);
+            }));
+        }
+
+        long started = System.nanoTime();
+        sampler.start();
+        start.countDown();
+        for (int i = 0; i < UPLOADS; i++) {
+            String key = keys.get(i).get(5, TimeUnit.MINUTES);
+            ObjectMetadata stored = amazonS3.getObjectMetadata(bucket, key);
+            assertThat(stored.getContentLength()).isEqualTo(files.get(i).getSize());
+            assertThat(stored.getContentType()).isEqualTo("image/png");
+            // 멀티파트로 올린 객체의 ETag 는 "<md5>-<part 수>"
+            assertThat(stored.getETag().contains("-")).isEqualTo(files.get(i).getSize() >= PART_SIZE * 2);
+        }
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        uploading.set(false);
+        sampler.join();
+        executor.shutdown();
+        for (FileMultipartFile file : files) {
+            file.delete();
+        }
+
+        long totalBytes = files.stream().mapToLong(FileMultipartFile::getSize).sum();
+        long perUpload = Math.max(0, peak.get() - baseline) / UPLOADS;
+        System.out.printf("[LOAD] %d concurrent uploads, %d MB in %d ms: peak live heap +%d MB (%d KB per upload)%n",
+                UPLOADS, totalBytes >> 20, millis, (peak.get() - baseline) >> 20, perUpload >> 10);
+        assertThat(perUpload).isLessThan(MAX_HEAP_PER_UPLOAD);
+    }
+
+    // GC 직후 사용량 = 살아 있는 객체 크기 (아직 수거되지 않은 버퍼는 세지 않는다)
+    private long liveHeap() {
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
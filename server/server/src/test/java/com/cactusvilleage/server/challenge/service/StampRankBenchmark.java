@@ -0,0 +1,95 @@
+package com.cactusvilleage.server.challenge.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 랭킹 한 페이지(20명)의 순위 계산 비용.
+ * linear: 이전 구현처럼 정렬된 전체 목록에서 나보다 도장이 많은 회원을 stream 으로 세고 indexOf 로 위치를 찾는다.
+ * index: StampRankIndex 의 Fenwick tree 조회.
+ * 실행: main 을 실행하거나 테스트 클래스패스로 org.openjdk.jmh.Main StampRankBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StampRankBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_STAMPS = 200;
+
+    @Param("100000")
+    private int members;
+
+    private List<Map.Entry<Long, Integer>> sorted;
+    private List<Map.Entry<Long, Integer>> page;
+    private StampRankIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<Long, Integer> stamps = new HashMap<>();
+        for (long id = 1; id <= members; id++) {
+            stamps.put(id, 1 + random.nextInt(MAX_STAMPS));
+        }
+
+        sorted = stamps.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder()))
+                .collect(Collectors.toList());
+        // 중간쯤의 페이지 -> indexOf 가 목록의 절반을 훑는다
+        int from = members / 2;
+        page = new ArrayList<>(sorted.subList(from, from + PAGE_SIZE));
+
+        index = new StampRankIndex();
+        Map<Integer, Long> histogram = stamps.values().stream()
+                .collect(Collectors.groupingBy(value -> value, Collectors.counting()));
+        index.reset(histogram);
+    }
+
+    @Benchmark
+    public void linear(Blackhole blackhole) {
+        for (Map.Entry<Long, Integer> me : page) {
+            List<Map.Entry<Long, Integer>> above = sorted.stream()
+                    .filter(entry -> entry.getValue() > me.getValue())
+                    .collect(Collectors.toList());
+            blackhole.consume(above.size() + 1);
+            blackhole.consume(sorted.indexOf(me) + 1);
+        }
+    }
+
+    @Benchmark
+    public void index(Blackhole blackhole) {
+        for (Map.Entry<Long, Integer> me : page) {
+            blackhole.consume(index.competitionRank(me.getValue()));
+            blackhole.consume(index.denseRank(me.getValue()));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StampRankBenchmark.class.getSimpleName()).build()).run();
+    }
+}
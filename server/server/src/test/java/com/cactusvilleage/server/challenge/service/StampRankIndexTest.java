@@ -0,0 +1,124 @@
+package com.cactusvilleage.server.challenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StampRankIndexTest {
+
+    @Test
+    void tiesShareRank() {
+        StampRankIndex index = new StampRankIndex();
+        List.of(5, 3, 3, 1).forEach(index::add);
+
+        assertThat(index.competitionRank(5)).isEqualTo(1);
+        assertThat(index.competitionRank(3)).isEqualTo(2);
+        assertThat(index.competitionRank(1)).isEqualTo(4);
+        assertThat(index.denseRank(5)).isEqualTo(1);
+        assertThat(index.denseRank(3)).isEqualTo(2);
+        assertThat(index.denseRank(1)).isEqualTo(3);
+    }
+
+    @Test
+    void membersWithoutStampsRankAfterEveryone() {
+        StampRankIndex index = new StampRankIndex();
+        List.of(2, 2, 1).forEach(index::add);
+        index.add(0);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.competitionRank(0)).isEqualTo(4);
+        assertThat(index.denseRank(0)).isEqualTo(3);
+    }
+
+    @Test
+    void removingLastMemberOfStampCountDropsItFromDenseRank() {
+        StampRankIndex index = new StampRankIndex();
+        List.of(4, 2, 1).forEach(index::add);
+
+        index.remove(2);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.competitionRank(1)).isEqualTo(2);
+        assertThat(index.denseRank(1)).isEqualTo(2);
+
+        // 없는 도장 수를 더 빼도 음수가 되지 않는다
+        index.remove(2);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.denseRank(1)).isEqualTo(2);
+    }
+
+    @Test
+    void moveUpdatesBothStampCounts() {
+        StampRankIndex index = new StampRankIndex();
+        List.of(3, 3).forEach(index::add);
+
+        index.move(3, 4);
+
+        assertThat(index.competitionRank(4)).isEqualTo(1);
+        assertThat(index.competitionRank(3)).isEqualTo(2);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        StampRankIndex index = new StampRankIndex();
+        List.of(10, 64, 65, 300).forEach(index::add);
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.competitionRank(300)).isEqualTo(1);
+        assertThat(index.competitionRank(65)).isEqualTo(2);
+        assertThat(index.competitionRank(64)).isEqualTo(3);
+        assertThat(index.competitionRank(10)).isEqualTo(4);
+        assertThat(index.denseRank(1000)).isEqualTo(1);
+    }
+
+    @Test
+    void resetReplacesContents() {
+        StampRankIndex index = new StampRankIndex();
+        List.of(1, 2, 3).forEach(index::add);
+
+        index.reset(Map.of(100, 2L, 7, 1L, 0, 5L));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.competitionRank(100)).isEqualTo(1);
+        assertThat(index.competitionRank(7)).isEqualTo(3);
+        assertThat(index.denseRank(7)).isEqualTo(2);
+        assertThat(index.competitionRank(3)).isEqualTo(4);
+
+        index.reset(Map.of());
+        assertThat(index.size()).isZero();
+        assertThat(index.competitionRank(1)).isEqualTo(1);
+    }
+
+    @Test
+    void matchesLinearScanAfterRandomUpdates() {
+        Random random = new Random(42);
+        StampRankIndex index = new StampRankIndex();
+        List<Integer> stamps = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            if (stamps.isEmpty() || random.nextInt(4) > 0) {
+                int value = 1 + random.nextInt(200);
+                stamps.add(value);
+                index.add(value);
+            } else {
+                int value = stamps.remove(random.nextInt(stamps.size()));
+                index.remove(value);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(stamps.size());
+        for (int value = 0; value <= 201; value++) {
+            int target = value;
+            long above = stamps.stream().filter(s -> s > target).count();
+            long distinctAbove = stamps.stream().filter(s -> s > target).distinct().count();
+            assertThat(index.competitionRank(value)).isEqualTo(above + 1);
+            assertThat(index.denseRank(value)).isEqualTo(distinctAbove + 1);
+        }
+    }
+}
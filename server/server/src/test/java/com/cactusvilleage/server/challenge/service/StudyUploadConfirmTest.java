@@ -0,0 +1,181 @@
+package com.cactusvilleage.server.challenge.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.web.dto.request.StudyConfirmDto;
+import com.cactusvilleage.server.challenge.web.dto.response.HistoryResponseDto;
+import com.cactusvilleage.server.challenge.web.dto.response.PresignedUploadResponseDto;
+import com.cactusvilleage.server.global.exception.BusinessLogicException;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import com.cactusvilleage.server.support.LocalS3;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+
+import static com.cactusvilleage.server.global.exception.ExceptionCode.STUDY_IMAGE_NOT_UPLOADED;
+import static com.cactusvilleage.server.global.exception.ExceptionCode.STUDY_IMAGE_TOO_LARGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * presigned URL 로 올린 공부 인증 사진 등록 (S3 호환 서버 MinIO 에 실제로 PUT, HEAD, DELETE, GET).
+ * key 에 챌린지 id 와 발급한 날짜가 들어가므로 이전에 등록한 key 를 다른 날 다시 쓸 수 없다.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StudyUploadConfirmTest extends CommittingJpaTest {
+
+    private static final int MAX_SIZE = 1024;
+
+    private static LocalS3 localS3;
+    private static AmazonS3 amazonS3;
+    private static TransferManager transferManager;
+    private static String bucket;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private S3Service s3Service;
+    private HistoryUploadPipeline pipeline;
+    private Long challengeId;
+
+    @BeforeAll
+    static void startS3() {
+        localS3 = new LocalS3();
+        amazonS3 = localS3.amazonS3();
+        transferManager = localS3.transferManager(amazonS3, 8 * 1024 * 1024, 1);
+        bucket = localS3.createBucket(amazonS3);
+    }
+
+    @AfterAll
+    static void stopS3() {
+        transferManager.shutdownNow(true);
+        localS3.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        s3Service = new S3Service(amazonS3, transferManager);
+        ReflectionTestUtils.setField(s3Service, "bucket", bucket);
+        ReflectionTestUtils.setField(s3Service, "presignedExpiration", 300_000L);
+        ReflectionTestUtils.setField(s3Service, "presignedMaxSize", (long) MAX_SIZE);
+        pipeline = pipeline(s3Service);
+        challengeId = enroll(Challenge.ChallengeType.STUDY, 7).getId();
+    }
+
+    @Test
+    void issuedKeyCarriesChallengeAndDate() throws Exception {
+        PresignedUploadResponseDto issued = pipeline.issueStudyUploadUrl("image.png", "image/png");
+        String objectKey = issued.getObjectKey();
+
+        assertThat(objectKey).startsWith("study-" + challengeId + "-" + LocalDate.now(SeoulTime.CLOCK) + "-").endsWith("-image.png");
+        assertThat(put(issued.getUploadUrl(), "image/png", new byte[MAX_SIZE])).isEqualTo(200);
+
+        HistoryResponseDto response = pipeline.confirmStudyHistory(confirm(objectKey));
+
+        assertThat(response.getStatus()).isEqualTo("in_progress");
+        assertThat(historyRepository.count()).isEqualTo(1);
+        assertThat(amazonS3.doesObjectExist(bucket, objectKey)).isTrue();
+    }
+
+    // 서명에 Content-Type 이 들어가므로 다른 타입으로는 올릴 수 없다
+    @Test
+    void presignedUploadRequiresSignedContentType() throws Exception {
+        PresignedUploadResponseDto issued = pipeline.issueStudyUploadUrl("image.png", "image/png");
+
+        assertThat(put(issued.getUploadUrl(), "image/jpeg", new byte[16])).isEqualTo(403);
+        assertThat(amazonS3.doesObjectExist(bucket, issued.getObjectKey())).isFalse();
+    }
+
+    @Test
+    void presignedDownloadServesUploadedBytes() throws Exception {
+        byte[] image = "png-bytes".getBytes();
+        PresignedUploadResponseDto issued = pipeline.issueStudyUploadUrl("image.png", "image/png");
+        put(issued.getUploadUrl(), "image/png", image);
+
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(s3Service.presignDownload(issued.getObjectKey())).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(image);
+    }
+
+    @Test
+    void notUploadedKeyIsRejected() throws Exception {
+        String objectKey = pipeline.issueStudyUploadUrl("image.png", "image/png").getObjectKey();
+
+        assertThatThrownBy(() -> pipeline.confirmStudyHistory(confirm(objectKey)))
+                .isInstanceOf(BusinessLogicException.class)
+                .extracting("exceptionCode").isEqualTo(STUDY_IMAGE_NOT_UPLOADED);
+        assertThat(historyRepository.count()).isZero();
+    }
+
+    @Test
+    void keyIssuedOnAnotherDayIsRejected() throws Exception {
+        String reused = "study-" + challengeId + "-" + LocalDate.now(SeoulTime.CLOCK).minusDays(1) + "-uuid-image.png";
+        putDirectly(reused);
+
+        assertThatThrownBy(() -> pipeline.confirmStudyHistory(confirm(reused)))
+                .isInstanceOf(BusinessLogicException.class)
+                .extracting("exceptionCode").isEqualTo(STUDY_IMAGE_NOT_UPLOADED);
+        assertThat(historyRepository.count()).isZero();
+        // 이미 다른 날 히스토리로 등록된 이미지이므로 지우지 않는다
+        assertThat(amazonS3.doesObjectExist(bucket, reused)).isTrue();
+    }
+
+    @Test
+    void keyOfAnotherChallengeIsRejected() throws Exception {
+        String other = "study-" + (challengeId + 1) + "-" + LocalDate.now(SeoulTime.CLOCK) + "-uuid-image.png";
+        putDirectly(other);
+
+        assertThatThrownBy(() -> pipeline.confirmStudyHistory(confirm(other)))
+                .isInstanceOf(BusinessLogicException.class)
+                .extracting("exceptionCode").isEqualTo(STUDY_IMAGE_NOT_UPLOADED);
+        assertThat(historyRepository.count()).isZero();
+        assertThat(amazonS3.doesObjectExist(bucket, other)).isTrue();
+    }
+
+    @Test
+    void oversizedUploadIsDeletedAndLeavesNoHistory() throws Exception {
+        PresignedUploadResponseDto issued = pipeline.issueStudyUploadUrl("image.png", "image/png");
+        put(issued.getUploadUrl(), "image/png", new byte[MAX_SIZE + 1]);
+
+        assertThatThrownBy(() -> pipeline.confirmStudyHistory(confirm(issued.getObjectKey())))
+                .isInstanceOf(BusinessLogicException.class)
+                .extracting("exceptionCode").isEqualTo(STUDY_IMAGE_TOO_LARGE);
+        assertThat(amazonS3.doesObjectExist(bucket, issued.getObjectKey())).isFalse();
+        assertThat(historyRepository.count()).isZero();
+        assertThat(challengeRepository.findById(challengeId).orElseThrow().getHistoryCount()).isZero();
+    }
+
+    private int put(String uploadUrl, String contentType, byte[] body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uploadUrl))
+                .header("Content-Type", contentType)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private void putDirectly(String objectKey) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(16);
+        metadata.setContentType("image/png");
+        amazonS3.putObject(bucket, objectKey, new ByteArrayInputStream(new byte[16]), metadata);
+    }
+
+    private StudyConfirmDto confirm(String objectKey) throws Exception {
+        return new ObjectMapper().readValue("{\"time\":\"90\",\"objectKey\":\"" + objectKey + "\"}", StudyConfirmDto.class);
+    }
+}
@@ -0,0 +1,158 @@
+package com.cactusvilleage.server.challenge.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 시작할 때 기본 메시지를 읽어 두는지, 외부 파일이 수정되면 목록 전체를 한 번에 바꾸는지,
+ * 다시 읽기에 실패하면 이전 목록을 그대로 쓰는지, 메시지를 고를 때 파일을 읽지 않는지 확인한다.
+ */
+class WateringMessagePoolTest {
+
+    private static final int PICKS = 1_000;
+
+    @TempDir
+    Path dir;
+
+    private Resource fileResource;
+    private Path external;
+    private WateringMessagePool pool;
+
+    @BeforeEach
+    void setUp() {
+        fileResource = spy(new ClassPathResource("static/water.txt"));
+        external = dir.resolve("water.txt");
+        pool = new WateringMessagePool();
+        ReflectionTestUtils.setField(pool, "fileResource", fileResource);
+        ReflectionTestUtils.setField(pool, "messagePath", "");
+    }
+
+    @Test
+    void preloadsDefaultMessages() throws IOException {
+        pool.init();
+
+        List<String> defaults = new String(new ClassPathResource("static/water.txt").getInputStream().readAllBytes(), StandardCharsets.UTF_8)
+                .lines()
+                .map(String::trim)
+                .collect(Collectors.toList());
+        assertThat(picks()).isSubsetOf(defaults).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void reloadsExternalMessagesWhenModified() throws IOException {
+        write(1_000, "first-a", "first-b");
+        usingExternal();
+        assertThat(picks()).containsExactlyInAnyOrder("first-a", "first-b");
+
+        // 수정 시각이 같으면 다시 읽지 않는다
+        Files.write(external, List.of("ignored"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(external, FileTime.fromMillis(1_000));
+        pool.reloadIfChanged();
+        assertThat(picks()).containsExactlyInAnyOrder("first-a", "first-b");
+
+        write(2_000, "second");
+        pool.reloadIfChanged();
+        assertThat(picks()).containsExactly("second");
+    }
+
+    // 고르는 쪽은 항상 이전 목록이나 새 목록 중 하나만 본다
+    @Test
+    void concurrentPicksSeeWholeListsDuringReloads() throws Exception {
+        write(1, "old");
+        usingExternal();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Set<String>> picked = executor.submit(() -> {
+            Set<String> seen = new HashSet<>();
+            while (running.get()) {
+                seen.add(pool.pick());
+            }
+            return seen;
+        });
+
+        for (int i = 2; i < 200; i++) {
+            write(i, i % 2 == 0 ? "new" : "old");
+            pool.reloadIfChanged();
+        }
+        running.set(false);
+        executor.shutdown();
+
+        assertThat(picked.get(10, TimeUnit.SECONDS)).isSubsetOf("old", "new");
+    }
+
+    @Test
+    void failedReloadKeepsPreviousMessages() throws IOException {
+        write(1_000, "kept");
+        usingExternal();
+
+        // 빈 파일
+        write(2_000);
+        pool.reloadIfChanged();
+        assertThat(picks()).containsExactly("kept");
+
+        // 깨진 UTF-8
+        Files.write(external, new byte[]{(byte) 0xC3, (byte) 0x28, (byte) 0xFF});
+        Files.setLastModifiedTime(external, FileTime.fromMillis(3_000));
+        pool.reloadIfChanged();
+        assertThat(picks()).containsExactly("kept");
+
+        // 파일이 사라짐
+        Files.delete(external);
+        pool.reloadIfChanged();
+        assertThat(picks()).containsExactly("kept");
+    }
+
+    @Test
+    void pickDoesNoIo() throws IOException {
+        write(1_000, "cached");
+        usingExternal();
+        Files.delete(external);
+
+        assertThat(picks()).containsExactly("cached");
+        // 기본 메시지 파일은 시작할 때 한 번만 읽는다
+        verify(fileResource, times(1)).getInputStream();
+    }
+
+    private void usingExternal() {
+        ReflectionTestUtils.setField(pool, "messagePath", external.toString());
+        pool.init();
+    }
+
+    private void write(long modifiedMillis, String... lines) throws IOException {
+        Files.write(external, List.of(lines), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(external, FileTime.fromMillis(modifiedMillis));
+    }
+
+    private Set<String> picks() {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < PICKS; i++) {
+            seen.add(pool.pick());
+        }
+        return seen;
+    }
+}
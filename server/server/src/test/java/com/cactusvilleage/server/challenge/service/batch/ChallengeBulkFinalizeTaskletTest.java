@@ -0,0 +1,164 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.MemberOneDayDate;
+import com.cactusvilleage.server.challenge.entities.MemberStats;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.challenge.service.MemberStatsService;
+import com.cactusvilleage.server.challenge.service.RankingService;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 기간이 끝난 챌린지를 히스토리 수로 SUCCESS / FAIL 로 나누고, 성공한 챌린지에만 1~8 도장을 주는지 확인한다 (H2).
+ * 통계는 같은 조건으로 더하고, 랭킹에는 탈퇴하지 않은 회원의 늘어난 도장 수만 넘겨야 한다.
+ */
+class ChallengeBulkFinalizeTaskletTest extends CommittingJpaTest {
+
+    private static final LocalDate TODAY = LocalDate.now(SeoulTime.CLOCK);
+    private static final int SUCCESSES = 30;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private RankingService rankingService;
+    private ChallengeBulkFinalizeTasklet tasklet;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        rankingService = mock(RankingService.class);
+        MemberStatsService memberStatsService =
+                new MemberStatsService(memberStatsRepository, oneDayDateRepository, challengeRepository, transactionManager);
+        tasklet = new ChallengeBulkFinalizeTasklet(challengeRepository, memberStatsService, rankingService,
+                SeoulTime.CLOCK, FencingTokens.Fence.NONE);
+    }
+
+    @Test
+    void dueChallengesAreSplitByHistoryCount() {
+        List<Challenge> successes = new ArrayList<>();
+        for (int i = 0; i < SUCCESSES; i++) {
+            successes.add(challenge("success" + i, 3, TODAY.minusDays(3), 3));
+        }
+        Challenge failed = challenge("failed", 7, TODAY.minusDays(7), 2);
+        Challenge oneDay = challenge("oneDay", 7, TODAY.minusDays(7), 1);
+        Challenge recordedOneDay = challenge("recordedOneDay", 7, TODAY.minusDays(7), 1);
+        Challenge running = challenge("running", 7, TODAY.minusDays(3), 3);
+        Challenge legacy = challenge("legacy", 3, TODAY, 3);
+        Challenge deleted = challenge("deleted", 3, TODAY.minusDays(3), 3);
+        // DUE_DATE 가 없는 이전 챌린지는 생성일 + 목표일로 판단한다
+        jdbcTemplate.update("update challenge set due_date = null, created_at = ? where challenge_id = ?",
+                Timestamp.valueOf(TODAY.minusDays(3).atTime(9, 0)), legacy.getId());
+        jdbcTemplate.update("update member set deleted = 1 where member_id = ?", deleted.getMember().getId());
+        // 이미 기록한 시작 날짜는 다시 세지 않는다
+        oneDayDateRepository.save(new MemberOneDayDate(recordedOneDay.getMember().getId(), TODAY));
+
+        run();
+
+        for (Challenge success : successes) {
+            Challenge finished = read(success);
+            assertThat(finished.getStatus()).isEqualTo(Status.SUCCESS);
+            assertThat(finished.getStamp()).isBetween(1, 8);
+            MemberStats stats = stats(success);
+            assertThat(stats.getTotalChall()).isEqualTo(1);
+            assertThat(stats.getTotalDate()).isEqualTo(3);
+            assertThat(stats.getStampList()).containsExactly(finished.getStamp());
+        }
+        assertThat(read(legacy).getStatus()).isEqualTo(Status.SUCCESS);
+        assertThat(read(deleted).getStatus()).isEqualTo(Status.SUCCESS);
+        for (Challenge fail : List.of(failed, oneDay, recordedOneDay)) {
+            assertThat(read(fail).getStatus()).isEqualTo(Status.FAIL);
+            assertThat(read(fail).getStamp()).isZero();
+            assertThat(stats(fail).getStampList()).isEmpty();
+        }
+        assertThat(read(running).getStatus()).isEqualTo(Status.IN_PROGRESS);
+        assertThat(read(running).getStamp()).isZero();
+        assertThat(memberStatsRepository.findById(running.getMember().getId())).isEmpty();
+
+        assertThat(stats(failed).getTotalDate()).isEqualTo(2);
+        assertThat(stats(oneDay).getTotalDate()).isEqualTo(1);
+        assertThat(stats(recordedOneDay).getTotalDate()).isZero();
+        assertThat(oneDayDateRepository.findAllByMemberId(oneDay.getMember().getId()))
+                .extracting(date -> date.getKey().getStartDate())
+                .containsExactly(read(oneDay).getCreatedAt().toLocalDate());
+
+        // 탈퇴한 회원은 랭킹에 넘기지 않는다
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, Long>> stamps = ArgumentCaptor.forClass(Map.class);
+        verify(rankingService).increaseStamps(stamps.capture());
+        assertThat(stamps.getValue())
+                .hasSize(SUCCESSES + 1)
+                .containsEntry(legacy.getMember().getId(), 1L)
+                .doesNotContainKey(deleted.getMember().getId())
+                .allSatisfy((memberId, count) -> assertThat(count).isEqualTo(1L));
+    }
+
+    @Test
+    void successAddsToExistingStats() {
+        Challenge success = challenge("success", 3, TODAY.minusDays(3), 3);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            MemberStats stats = new MemberStats(success.getMember().getId());
+            stats.reset(2, 10, Map.of(1, 1, 2, 1));
+            memberStatsRepository.save(stats);
+        });
+
+        run();
+
+        int stamp = read(success).getStamp();
+        MemberStats stats = stats(success);
+        assertThat(stats.getTotalChall()).isEqualTo(3);
+        assertThat(stats.getTotalDate()).isEqualTo(13);
+        assertThat(stats.getStampList()).hasSize(3).contains(1, 2, stamp);
+    }
+
+    private void run() {
+        StepContribution contribution = new StepContribution(new StepExecution("bulk", new JobExecution(1L)));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> tasklet.execute(contribution, null));
+    }
+
+    // 회원 하나와 startDate 에 등록한 진행 중인 챌린지, 히스토리 수는 컬럼만 채운다
+    private Challenge challenge(String username, int targetDate, LocalDate startDate, int historyCount) {
+        Challenge saved = new TransactionTemplate(transactionManager).execute(status -> {
+            Challenge challenge = Challenge.builder()
+                    .challengeType(Challenge.ChallengeType.THANKS)
+                    .targetDate(targetDate)
+                    .startDate(startDate)
+                    .build();
+            challenge.setStatus(Status.IN_PROGRESS);
+            challenge.setMember(memberRepository.save(Member.builder().username(username).build()));
+            return challengeRepository.save(challenge);
+        });
+        jdbcTemplate.update("update challenge set history_count = ? where challenge_id = ?", historyCount, saved.getId());
+        return saved;
+    }
+
+    private Challenge read(Challenge challenge) {
+        return challengeRepository.findById(challenge.getId()).orElseThrow();
+    }
+
+    private MemberStats stats(Challenge challenge) {
+        return memberStatsRepository.findById(challenge.getMember().getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,131 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.repository.IdRange;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+import static com.cactusvilleage.server.challenge.service.batch.ChallengeIdRangePartitioner.MAX_ID;
+import static com.cactusvilleage.server.challenge.service.batch.ChallengeIdRangePartitioner.MIN_ID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+class ChallengeIdRangePartitionerTest {
+
+    private ChallengeRepository challengeRepository;
+    private ChallengeIdRangePartitioner partitioner;
+
+    @BeforeEach
+    void setUp() {
+        challengeRepository = mock(ChallengeRepository.class);
+        partitioner = new ChallengeIdRangePartitioner(challengeRepository, SeoulTime.CLOCK);
+    }
+
+    @Test
+    void noDueChallengesMeansNoPartitions() {
+        givenRange(null, null);
+
+        assertThat(partitioner.partition(4)).isEmpty();
+    }
+
+    @Test
+    void splitsRangeIntoContiguousPartitions() {
+        givenRange(1L, 100L);
+
+        List<long[]> ranges = ranges(partitioner.partition(4));
+
+        assertThat(ranges).hasSize(4);
+        assertThat(ranges.get(0)).containsExactly(1, 25);
+        assertThat(ranges.get(3)).containsExactly(76, 100);
+        assertCovers(ranges, 1, 100);
+    }
+
+    @Test
+    void unevenRangeKeepsLastIdInLastPartition() {
+        givenRange(10L, 20L);
+
+        List<long[]> ranges = ranges(partitioner.partition(3));
+
+        assertThat(ranges).hasSize(3);
+        assertCovers(ranges, 10, 20);
+    }
+
+    @Test
+    void fewerIdsThanGridSizeGivesOnePartitionPerId() {
+        givenRange(5L, 7L);
+
+        List<long[]> ranges = ranges(partitioner.partition(8));
+
+        assertThat(ranges).hasSize(3);
+        assertCovers(ranges, 5, 7);
+    }
+
+    @Test
+    void singleChallengeGivesSinglePartition() {
+        givenRange(42L, 42L);
+
+        List<long[]> ranges = ranges(partitioner.partition(4));
+
+        assertThat(ranges).hasSize(1);
+        assertThat(ranges.get(0)).containsExactly(42, 42);
+    }
+
+    @Test
+    void fillsLegacyColumnsBeforeReadingRange() {
+        givenRange(1L, 10L);
+
+        partitioner.partition(2);
+
+        var order = inOrder(challengeRepository);
+        order.verify(challengeRepository).fillMissingDueDates();
+        order.verify(challengeRepository).fillMissingHistoryColumns();
+        order.verify(challengeRepository).findIdRangeByStatusAndDueDate(IN_PROGRESS, LocalDate.now(SeoulTime.CLOCK));
+    }
+
+    private void givenRange(Long min, Long max) {
+        IdRange range = new IdRange() {
+            @Override
+            public Long getMinId() {
+                return min;
+            }
+
+            @Override
+            public Long getMaxId() {
+                return max;
+            }
+        };
+        given(challengeRepository.findIdRangeByStatusAndDueDate(eq(IN_PROGRESS), any(LocalDate.class))).willReturn(range);
+    }
+
+    private List<long[]> ranges(Map<String, ExecutionContext> partitions) {
+        return partitions.values().stream()
+                .map(context -> new long[]{context.getLong(MIN_ID), context.getLong(MAX_ID)})
+                .sorted(Comparator.comparingLong(range -> range[0]))
+                .collect(Collectors.toList());
+    }
+
+    // 파티션끼리 겹치거나 비는 id 없이 min ~ max 를 모두 덮는다
+    private void assertCovers(List<long[]> ranges, long min, long max) {
+        assertThat(ranges.get(0)[0]).isEqualTo(min);
+        assertThat(ranges.get(ranges.size() - 1)[1]).isEqualTo(max);
+        for (int i = 0; i < ranges.size(); i++) {
+            assertThat(ranges.get(i)[0]).isLessThanOrEqualTo(ranges.get(i)[1]);
+            if (i > 0) {
+                assertThat(ranges.get(i)[0]).isEqualTo(ranges.get(i - 1)[1] + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 파티션 reader 가 건너뛴 (아직 IN_PROGRESS 인) 챌린지를 다시 읽지 않고 끝나는지,
+ * 읽는 도중 앞의 챌린지가 마무리되어 조건에서 빠져도 뒤의 챌린지를 빠뜨리지 않는지 확인한다.
+ */
+@DataJpaTest(properties = "spring.batch.job.enabled=false")
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChallengeKeysetItemReaderTest {
+
+    private static final int DUE = 25;
+    private static final int PAGE_SIZE = 10;
+    private static final LocalDate TODAY = LocalDate.now(SeoulTime.CLOCK);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private long minId;
+    private long maxId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 0; i < DUE; i++) {
+            insert(TODAY.minusDays(1));
+            // 기간이 남은 챌린지는 읽지 않는다
+            if (i % 5 == 0) {
+                insert(TODAY.plusDays(3));
+            }
+        }
+        minId = jdbcTemplate.queryForObject("select min(challenge_id) from challenge", Long.class);
+        maxId = jdbcTemplate.queryForObject("select max(challenge_id) from challenge", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from challenge");
+    }
+
+    // 모두 버전 충돌로 건너뛰어도 (IN_PROGRESS 그대로) 한 번씩만 읽고 끝난다
+    @Test
+    void skippedChallengesAreNotReadAgain() throws Exception {
+        List<Challenge> read = readAll(reader(minId, maxId), challenge -> {
+        });
+
+        assertThat(read).hasSize(DUE);
+        assertThat(read).extracting(Challenge::getId).isSorted().doesNotHaveDuplicates();
+    }
+
+    // writer 처럼 읽은 챌린지를 바로 마무리해도 뒤 페이지의 챌린지를 빠뜨리지 않는다
+    @Test
+    void closedChallengesDoNotShiftTheNextPage() throws Exception {
+        List<Challenge> read = readAll(reader(minId, maxId), challenge ->
+                jdbcTemplate.update("update challenge set status = 'FAIL' where challenge_id = ?", challenge.getId()));
+
+        assertThat(read).hasSize(DUE);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from challenge where status = 'IN_PROGRESS' and due_date <= ?",
+                Integer.class, TODAY)).isZero();
+    }
+
+    @Test
+    void readsOnlyItsOwnIdRange() throws Exception {
+        long middle = minId + (maxId - minId) / 2;
+
+        List<Challenge> lower = readAll(reader(minId, middle), challenge -> {
+        });
+        List<Challenge> upper = readAll(reader(middle + 1, maxId), challenge -> {
+        });
+
+        assertThat(lower).extracting(Challenge::getId).allMatch(id -> id >= minId && id <= middle);
+        assertThat(upper).extracting(Challenge::getId).allMatch(id -> id > middle && id <= maxId);
+        assertThat(lower.size() + upper.size()).isEqualTo(DUE);
+    }
+
+    private ChallengeKeysetItemReader reader(long minId, long maxId) {
+        return new ChallengeKeysetItemReader(entityManagerFactory, minId, maxId, TODAY, PAGE_SIZE);
+    }
+
+    // 예전 reader 처럼 끝나지 않으면 실패하도록 읽는 횟수를 제한한다
+    private List<Challenge> readAll(ChallengeKeysetItemReader reader, Consumer<Challenge> afterRead) throws Exception {
+        reader.afterPropertiesSet();
+        reader.open(new ExecutionContext());
+        List<Challenge> read = new ArrayList<>();
+        try {
+            Challenge challenge;
+            while ((challenge = reader.read()) != null) {
+                read.add(challenge);
+                afterRead.accept(challenge);
+                assertThat(read).hasSizeLessThanOrEqualTo(DUE);
+            }
+        } finally {
+            reader.close();
+        }
+        return read;
+    }
+
+    private void insert(LocalDate dueDate) {
+        jdbcTemplate.update("insert into challenge (challenge_type, target_date, due_date, stamp, notified, status, version, " +
+                        "history_count, created_at, updated_at) values ('THANKS', 7, ?, 0, 0, 'IN_PROGRESS', 0, 0, ?, ?)",
+                dueDate, LocalDateTime.now(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,208 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.MemberStats;
+import com.cactusvilleage.server.challenge.service.ChallengeFinalizer;
+import com.cactusvilleage.server.challenge.service.MemberStatsService;
+import com.cactusvilleage.server.challenge.service.RankingService;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import com.cactusvilleage.server.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.*;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.database.JpaCursorItemReader;
+import org.springframework.batch.item.database.builder.JpaCursorItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.cactusvilleage.server.challenge.entities.Status.IN_PROGRESS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 배치가 챌린지를 읽은 뒤 히스토리 등록이 같은 챌린지의 version 을 올리는 상황을 만든다.
+ * 충돌한 챌린지는 본 step 에서 건너뛰고, recheck step 이 다시 읽어 같은 실행 안에서 마무리해야 한다.
+ * 건너뛰거나 다시 처리한 챌린지도 통계(member_stats)와 랭킹(Redis ZSET)에는 정확히 한 번만 반영되어야 한다.
+ * 처리량(건/초)을 로그로 남겨 충돌 비율에 따른 비용을 비교한다.
+ * ./gradlew benchmark --tests '*ChallengeStatusContentionTest'
+ */
+@Tag("benchmark")
+class ChallengeStatusContentionTest extends CommittingJpaTest {
+
+    private static final int CHALLENGES = 200;
+    private static final int CONFLICT_EVERY = 5;
+    private static final int CHUNK_SIZE = 10;
+
+    @Autowired
+    private JobBuilderFactory jobBuilderFactory;
+
+    @Autowired
+    private StepBuilderFactory stepBuilderFactory;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private EmbeddedRedis redis;
+    private StringRedisTemplate redisTemplate;
+    private ChallengeFinalizer challengeFinalizer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        redis = new EmbeddedRedis();
+        redisTemplate = redis.template();
+        challengeFinalizer = new ChallengeFinalizer(new RankingService(redisTemplate, challengeRepository),
+                new MemberStatsService(memberStatsRepository, oneDayDateRepository, challengeRepository, transactionManager), SeoulTime.CLOCK);
+
+        // 회원당 진행 중인 챌린지는 하나뿐이므로 챌린지마다 회원을 만든다, targetDate 0 -> 오늘이 종료일
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < CHALLENGES; i++) {
+                Member member = memberRepository.save(Member.builder().username("member" + i).build());
+                Challenge challenge = Challenge.builder()
+                        .challengeType(Challenge.ChallengeType.THANKS)
+                        .targetDate(0)
+                        .startDate(LocalDate.now(SeoulTime.CLOCK))
+                        .build();
+                challenge.setStatus(IN_PROGRESS);
+                challenge.setMember(member);
+                challengeRepository.save(challenge);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        redis.close();
+    }
+
+    @Test
+    void conflictedChallengesAreFinalizedInTheSameRun() throws Exception {
+        long started = System.nanoTime();
+        JobExecution execution = jobLauncher.run(job(), new JobParametersBuilder()
+                .addLong("run", System.currentTimeMillis())
+                .toJobParameters());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        int conflicts = CHALLENGES / CONFLICT_EVERY;
+        StepExecution main = stepExecution(execution, "contentionStep");
+        StepExecution recheck = stepExecution(execution, "contentionRecheckStep");
+        System.out.printf("[contention] %d challenges, %d conflicts, %d ms (%.0f challenges/s)%n",
+                CHALLENGES, conflicts, elapsedMillis, CHALLENGES * 1000.0 / Math.max(1, elapsedMillis));
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(main.getWriteSkipCount()).isEqualTo(conflicts);
+        assertThat(main.getWriteCount()).isEqualTo(CHALLENGES - conflicts);
+        assertThat(recheck.getWriteCount()).isEqualTo(conflicts);
+        assertThat(challengeRepository.findDueIdsByStatus(IN_PROGRESS, LocalDate.now(SeoulTime.CLOCK))).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from challenge where active_member_id is not null", Integer.class))
+                .isZero();
+
+        // targetDate 0, 히스토리 0 -> 모두 SUCCESS, 회원마다 끝난 챌린지 하나, 도장 하나
+        List<MemberStats> stats = memberStatsRepository.findAll();
+        assertThat(stats).hasSize(CHALLENGES);
+        assertThat(stats).allSatisfy(memberStats -> {
+            assertThat(memberStats.getTotalChall()).isEqualTo(1);
+            assertThat(memberStats.getStampList()).hasSize(1);
+        });
+        Map<Long, Integer> stamps = jdbcTemplate.query("select member_id, stamp from challenge",
+                rs -> {
+                    Map<Long, Integer> result = new HashMap<>();
+                    while (rs.next()) {
+                        result.put(rs.getLong("member_id"), rs.getInt("stamp"));
+                    }
+                    return result;
+                });
+        // 통계의 도장은 다시 처리하며 새로 뽑은 값이 아니라 DB 에 쓰인 값이다
+        assertThat(stats).allSatisfy(memberStats ->
+                assertThat(memberStats.getStampList()).containsExactly(stamps.get(memberStats.getMemberId())));
+
+        Set<TypedTuple<String>> ranking = redisTemplate.opsForZSet().rangeWithScores("ranking:stamps", 0, -1);
+        assertThat(ranking).hasSize(CHALLENGES);
+        assertThat(ranking).extracting(TypedTuple::getScore).containsOnly(1.0);
+        assertThat(redisTemplate.<String, String>opsForHash().entries("ranking:stamps:counts"))
+                .containsExactly(Map.entry("1", String.valueOf(CHALLENGES)));
+    }
+
+    private Job job() {
+        Step main = stepBuilderFactory.get("contentionStep")
+                .<Challenge, Challenge>chunk(CHUNK_SIZE)
+                .reader(reader())
+                .processor(conflictingProcessor())
+                .writer(new ChallengeStatusItemWriter(dataSource, FencingTokens.Fence.NONE, challengeFinalizer::recordFinished), SeoulTime.CLOCK)
+                .faultTolerant()
+                .retryLimit(3)
+                .retry(TransientDataAccessException.class)
+                .skipLimit(CHALLENGES)
+                .skip(OptimisticLockingFailureException.class)
+                .build();
+        Step recheck = stepBuilderFactory.get("contentionRecheckStep")
+                .tasklet(new ChallengeRecheckTasklet(challengeRepository, challengeFinalizer, SeoulTime.CLOCK, FencingTokens.Fence.NONE))
+                .build();
+
+        return jobBuilderFactory.get("challengeStatusContentionJob")
+                .start(main)
+                .next(recheck)
+                .build();
+    }
+
+    private JpaCursorItemReader<Challenge> reader() {
+        return new JpaCursorItemReaderBuilder<Challenge>()
+                .name("contentionReader")
+                .entityManagerFactory(entityManagerFactory)
+                .queryString("select c from Challenge c where c.status = :status and c.dueDate <= :today order by c.id")
+                .parameterValues(Map.of("status", IN_PROGRESS, "today", LocalDate.now(SeoulTime.CLOCK)))
+                .build();
+    }
+
+    // 읽은 뒤 CONFLICT_EVERY 개마다 한 번 다른 트랜잭션이 version 을 올린다 (히스토리 등록 흉내), 다시 처리할 때는 올리지 않는다
+    private ItemProcessor<Challenge, Challenge> conflictingProcessor() {
+        TransactionTemplate upload = new TransactionTemplate(transactionManager);
+        upload.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Set<Long> touched = ConcurrentHashMap.newKeySet();
+
+        return challenge -> {
+            if (challenge.getId() % CONFLICT_EVERY == 0 && touched.add(challenge.getId())) {
+                upload.executeWithoutResult(status ->
+                        jdbcTemplate.update("update challenge set version = version + 1 where challenge_id = ?", challenge.getId()));
+            }
+            return challengeFinalizer.closeIfDue(challenge) ? challenge : null;
+        };
+    }
+
+    private StepExecution stepExecution(JobExecution execution, String stepName) {
+        return execution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().equals(stepName))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,88 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.CommittingJpaTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 행을 미리 잠그지 않고 version 조건 UPDATE 의 행별 update count 로 충돌을 찾는지 확인한다.
+ * 충돌하면 chunk 전체가 롤백되고 afterUpdate 는 불리지 않아야 한다.
+ */
+class ChallengeStatusItemWriterTest extends CommittingJpaTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<Challenge> updated = new ArrayList<>();
+
+    @Test
+    void writesStatusAndBumpsVersion() {
+        Challenge read = read(enroll(Challenge.ChallengeType.THANKS, 7).getId());
+        long version = read.getVersion();
+
+        write(read);
+
+        Challenge written = read(read.getId());
+        assertThat(written.getStatus()).isEqualTo(Status.SUCCESS);
+        assertThat(written.getStamp()).isEqualTo(3);
+        assertThat(written.getVersion()).isEqualTo(version + 1);
+        assertThat(updated).extracting(Challenge::getId).containsExactly(read.getId());
+    }
+
+    // 읽은 뒤 히스토리 등록 등으로 version 이 바뀌면 update count 가 0 -> chunk 롤백
+    @Test
+    void modifiedChallengeFailsTheChunk() {
+        Challenge first = read(enroll(Challenge.ChallengeType.THANKS, 7).getId());
+        Challenge second = read(enrollOther().getId());
+        new JdbcTemplate(dataSource).update("update challenge set version = version + 1 where challenge_id = ?", second.getId());
+
+        assertThatThrownBy(() -> write(first, second)).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(read(first.getId()).getStatus()).isEqualTo(Status.IN_PROGRESS);
+        assertThat(read(second.getId()).getStatus()).isEqualTo(Status.IN_PROGRESS);
+        assertThat(updated).isEmpty();
+    }
+
+    private void write(Challenge... challenges) {
+        ChallengeStatusItemWriter writer = new ChallengeStatusItemWriter(dataSource, FencingTokens.Fence.NONE, updated::add, SeoulTime.CLOCK);
+        for (Challenge challenge : challenges) {
+            challenge.setStatus(Status.SUCCESS);
+            challenge.setStamp(3);
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> writer.write(List.of(challenges)));
+    }
+
+    // enroll 과 다른 회원의 진행 중인 챌린지 (회원당 진행 중인 챌린지는 하나)
+    private Challenge enrollOther() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Challenge challenge = Challenge.builder()
+                    .challengeType(Challenge.ChallengeType.THANKS)
+                    .targetDate(7)
+                    .startDate(LocalDate.now(SeoulTime.CLOCK))
+                    .build();
+            challenge.setStatus(Status.IN_PROGRESS);
+            challenge.setMember(memberRepository.save(Member.builder().username("other").build()));
+            return challengeRepository.save(challenge);
+        });
+    }
+
+    private Challenge read(Long id) {
+        return challengeRepository.findById(id).orElseThrow();
+    }
+}
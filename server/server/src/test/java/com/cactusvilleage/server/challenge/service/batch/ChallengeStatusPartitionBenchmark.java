@@ -0,0 +1,230 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.service.ChallengeFinalizer;
+import com.cactusvilleage.server.challenge.service.MemberStatsService;
+import com.cactusvilleage.server.challenge.service.RankingService;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.LocalMySql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 기간이 끝난 챌린지 N 개(기본 100만, 절반은 성공)를 마무리하는 데 걸리는 시간을 같은 데이터로 두 방식에 대해 잰다.
+ * chunk: 운영 설정과 같은 파티셔너, keyset reader, JDBC writer 로 스레드 수(1, 2, 4, 8)별
+ * bulk: ChallengeBulkFinalizeTasklet 의 도장 UPDATE 와 상태 UPDATE 문 두 번
+ * 통계, 랭킹 반영(afterUpdate, MemberStatsService.recordDue)은 빼고 잰다.
+ * 쿼리는 H2 에서도 돌지만 운영과 같은 실행 계획, 잠금으로 재도록 MySQL 컨테이너에서 실행한다.
+ * ./gradlew benchmark -Dbenchmark.partition.rows=1000000 -Dbenchmark.partition.threads=1,2,4,8
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {"spring.batch.job.enabled=false", "logging.level.root=INFO"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChallengeStatusPartitionBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.partition.rows", 1_000_000);
+    private static final String THREADS = System.getProperty("benchmark.partition.threads", "1,2,4,8");
+    private static final int COMMIT_INTERVAL = Integer.getInteger("benchmark.partition.commit-interval", 1_000);
+    private static final int INSERT_BATCH = 10_000;
+    private static final LocalDate TODAY = LocalDate.now(SeoulTime.CLOCK);
+
+    @Autowired
+    private JobBuilderFactory jobBuilderFactory;
+
+    @Autowired
+    private StepBuilderFactory stepBuilderFactory;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private JpaPagingItemReader<Challenge> benchmarkPartitionReader;
+
+    @DynamicPropertySource
+    static void mySql(DynamicPropertyRegistry registry) {
+        LocalMySql.register(registry);
+    }
+
+    private JdbcTemplate jdbcTemplate;
+    // closeIfDue 만 쓰므로 통계, 랭킹 서비스는 필요 없다
+    private final ChallengeFinalizer challengeFinalizer = new ChallengeFinalizer(null, null, SeoulTime.CLOCK);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= ROWS; i++) {
+            // 짝수 번째는 목표일만큼 히스토리를 채운 챌린지 (SUCCESS), 나머지는 FAIL
+            batch.add(new Object[]{TODAY.minusDays(1), i % 2 == 0 ? 7 : 0, now, now});
+            if (i % INSERT_BATCH == 0 || i == ROWS) {
+                jdbcTemplate.batchUpdate("insert into challenge (challenge_type, target_date, due_date, stamp, notified, status, " +
+                        "version, history_count, created_at, updated_at) values ('THANKS', 7, ?, 0, 0, 'IN_PROGRESS', 0, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        System.out.printf("[BENCHMARK] seeded %d challenges in %d ms%n", ROWS, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from challenge");
+    }
+
+    @Test
+    void finalizeDueChallengesChunkAndBulk() throws Exception {
+        for (String value : THREADS.split(",")) {
+            int threads = Integer.parseInt(value.trim());
+            reset();
+
+            ThreadPoolTaskExecutor executor = executor(threads);
+            long millis = run(job(threads, executor), threads);
+            executor.shutdown();
+
+            assertFinalized();
+            System.out.printf("[BENCHMARK] chunk (partition step), %d threads: %d challenges in %d ms (%.0f rows/s)%n",
+                    threads, ROWS, millis, ROWS * 1000.0 / millis);
+        }
+
+        reset();
+        long millis = run(bulkJob(), 0);
+
+        assertFinalized();
+        System.out.printf("[BENCHMARK] bulk (2 update statements): %d challenges in %d ms (%.0f rows/s)%n",
+                ROWS, millis, ROWS * 1000.0 / millis);
+    }
+
+    private void reset() {
+        jdbcTemplate.update("update challenge set status = 'IN_PROGRESS', stamp = 0");
+    }
+
+    private long run(Job job, int threads) throws Exception {
+        long started = System.nanoTime();
+        JobExecution execution = jobLauncher.run(job, new JobParametersBuilder()
+                .addLong("threads", (long) threads)
+                .addLong("run", System.nanoTime())
+                .toJobParameters());
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        return millis;
+    }
+
+    private void assertFinalized() {
+        assertThat(jdbcTemplate.queryForObject("select count(*) from challenge where status = 'IN_PROGRESS'", Integer.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from challenge where status = 'SUCCESS' and stamp between 1 and 8",
+                Integer.class)).isEqualTo(ROWS / 2);
+    }
+
+    private ItemProcessor<Challenge, Challenge> processor() {
+        return challenge -> challengeFinalizer.closeIfDue(challenge) ? challenge : null;
+    }
+
+    private ThreadPoolTaskExecutor executor(int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("challenge-status-");
+        executor.initialize();
+        return executor;
+    }
+
+    private Job job(int threads, ThreadPoolTaskExecutor executor) {
+        Step worker = stepBuilderFactory.get("benchmarkWorkerStep")
+                .<Challenge, Challenge>chunk(COMMIT_INTERVAL)
+                .reader(benchmarkPartitionReader)
+                .processor(processor())
+                .writer(new ChallengeStatusItemWriter(dataSource, FencingTokens.Fence.NONE, challenge -> {
+                }), SeoulTime.CLOCK)
+                .build();
+        Step partition = stepBuilderFactory.get("benchmarkPartitionStep")
+                .partitioner("benchmarkWorkerStep", new ChallengeIdRangePartitioner(challengeRepository, SeoulTime.CLOCK))
+                .step(worker)
+                .gridSize(threads)
+                .taskExecutor(executor)
+                .build();
+
+        return jobBuilderFactory.get("challengeStatusPartitionBenchmark")
+                .start(partition)
+                .build();
+    }
+
+    // 회원이 없는 챌린지라 통계, 랭킹 반영은 mock 으로 건너뛴다
+    private Job bulkJob() {
+        Step bulk = stepBuilderFactory.get("benchmarkBulkStep")
+                .tasklet(new ChallengeBulkFinalizeTasklet(challengeRepository, mock(MemberStatsService.class),
+                        mock(RankingService.class), SeoulTime.CLOCK, FencingTokens.Fence.NONE))
+                .build();
+
+        return jobBuilderFactory.get("challengeStatusBulkBenchmark")
+                .start(bulk)
+                .build();
+    }
+
+    // 운영 설정처럼 파티션마다 id 범위를 받아 reader 를 만든다
+    @TestConfiguration
+    static class PartitionReaderConfig {
+        @StepScope
+        @Bean
+        JpaPagingItemReader<Challenge> benchmarkPartitionReader(
+                EntityManagerFactory entityManagerFactory,
+                @Value("#{stepExecutionContext['minId']}") Long minId,
+                @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+            return new ChallengeKeysetItemReader(entityManagerFactory, minId, maxId, TODAY, COMMIT_INTERVAL);
+        }
+    }
+}
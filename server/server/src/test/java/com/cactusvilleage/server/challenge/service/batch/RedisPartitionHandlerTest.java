@@ -0,0 +1,95 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RedisPartitionHandlerTest {
+
+    private static final long JOB_EXECUTION_ID = 7L;
+
+    private StringRedisTemplate redisTemplate;
+    private ListOperations<String, String> listOperations;
+    private JobExplorer jobExplorer;
+    private StepExecutionSplitter splitter;
+    private StepExecution manager;
+    private StepExecution first;
+    private StepExecution second;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        redisTemplate = mock(StringRedisTemplate.class);
+        listOperations = mock(ListOperations.class);
+        jobExplorer = mock(JobExplorer.class);
+        splitter = mock(StepExecutionSplitter.class);
+        given(redisTemplate.opsForList()).willReturn(listOperations);
+
+        JobExecution jobExecution = new JobExecution(JOB_EXECUTION_ID);
+        manager = new StepExecution("manager", jobExecution, 1L);
+        first = new StepExecution("worker:partition0", jobExecution, 2L);
+        second = new StepExecution("worker:partition1", jobExecution, 3L);
+        given(splitter.split(manager, 2)).willReturn(Set.of(first, second));
+    }
+
+    @Test
+    void pushesEveryPartitionAndWaitsUntilAllFinish() throws Exception {
+        given(jobExplorer.getStepExecution(JOB_EXECUTION_ID, 2L))
+                .willReturn(withStatus(first, BatchStatus.STARTED), withStatus(first, BatchStatus.COMPLETED));
+        given(jobExplorer.getStepExecution(JOB_EXECUTION_ID, 3L))
+                .willReturn(withStatus(second, BatchStatus.COMPLETED));
+
+        Collection<StepExecution> results = handler(10_000).handle(splitter, manager);
+
+        verify(listOperations).leftPush(RedisPartitionHandler.QUEUE_KEY, JOB_EXECUTION_ID + ":2");
+        verify(listOperations).leftPush(RedisPartitionHandler.QUEUE_KEY, JOB_EXECUTION_ID + ":3");
+        assertThat(results).extracting(StepExecution::getStatus).containsOnly(BatchStatus.COMPLETED);
+        verify(jobExplorer, times(2)).getStepExecution(JOB_EXECUTION_ID, 2L);
+    }
+
+    @Test
+    void failedPartitionIsReturnedToManager() throws Exception {
+        given(jobExplorer.getStepExecution(JOB_EXECUTION_ID, 2L)).willReturn(withStatus(first, BatchStatus.FAILED));
+        given(jobExplorer.getStepExecution(JOB_EXECUTION_ID, 3L)).willReturn(withStatus(second, BatchStatus.COMPLETED));
+
+        Collection<StepExecution> results = handler(10_000).handle(splitter, manager);
+
+        assertThat(results).extracting(StepExecution::getStatus)
+                .containsExactlyInAnyOrder(BatchStatus.FAILED, BatchStatus.COMPLETED);
+    }
+
+    @Test
+    void timesOutWhenNoWorkerPicksUpPartitions() {
+        given(jobExplorer.getStepExecution(JOB_EXECUTION_ID, 2L)).willReturn(withStatus(first, BatchStatus.STARTING));
+        given(jobExplorer.getStepExecution(JOB_EXECUTION_ID, 3L)).willReturn(withStatus(second, BatchStatus.STARTING));
+
+        assertThatThrownBy(() -> handler(50).handle(splitter, manager)).isInstanceOf(TimeoutException.class);
+    }
+
+    private RedisPartitionHandler handler(long timeout) {
+        return new RedisPartitionHandler(redisTemplate, jobExplorer, 2, 10, timeout);
+    }
+
+    private StepExecution withStatus(StepExecution partition, BatchStatus status) {
+        StepExecution result = new StepExecution(partition.getStepName(), partition.getJobExecution(), partition.getId());
+        result.setStatus(status);
+        return result;
+    }
+}
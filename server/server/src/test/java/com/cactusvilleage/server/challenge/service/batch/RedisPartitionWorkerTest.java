@@ -0,0 +1,207 @@
+package com.cactusvilleage.server.challenge.service.batch;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.service.ChallengeFinalizer;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import com.cactusvilleage.server.support.EmbeddedRedis;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 두 노드 역할의 RedisPartitionWorker 가 embedded Redis 큐에서 파티션을 나눠 실행하고,
+ * manager 의 JobExecution 에 모든 파티션 결과(읽기, 쓰기 수)가 모이는지 확인한다.
+ */
+@DataJpaTest(properties = "spring.batch.job.enabled=false")
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RedisPartitionWorkerTest {
+
+    private static final int CHALLENGES = 120;
+    private static final int GRID_SIZE = 6;
+    private static final int COMMIT_INTERVAL = 5;
+    private static final LocalDate TODAY = LocalDate.now(SeoulTime.CLOCK);
+
+    @Autowired
+    private JobBuilderFactory jobBuilderFactory;
+
+    @Autowired
+    private StepBuilderFactory stepBuilderFactory;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private JpaPagingItemReader<Challenge> remotePartitionReader;
+
+    private final ChallengeFinalizer challengeFinalizer = new ChallengeFinalizer(null, null, SeoulTime.CLOCK);
+    // 노드별로 실행한 파티션 이름
+    private final Map<String, Set<String>> executedBy = new ConcurrentHashMap<>();
+    private final AtomicInteger written = new AtomicInteger();
+
+    private JdbcTemplate jdbcTemplate;
+    private EmbeddedRedis redis;
+    private StringRedisTemplate redisTemplate;
+    private Step workerStep;
+    private RedisPartitionWorker node1;
+    private RedisPartitionWorker node2;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < CHALLENGES; i++) {
+            jdbcTemplate.update("insert into challenge (challenge_type, target_date, due_date, stamp, notified, status, version, " +
+                    "history_count, created_at, updated_at) values ('THANKS', 7, ?, 0, 0, 'IN_PROGRESS', 0, 0, ?, ?)", TODAY, now, now);
+        }
+
+        redis = new EmbeddedRedis();
+        redisTemplate = redis.template();
+        workerStep = stepBuilderFactory.get("remoteWorkerStep")
+                .<Challenge, Challenge>chunk(COMMIT_INTERVAL)
+                .reader(remotePartitionReader)
+                .processor(processor())
+                .writer(new ChallengeStatusItemWriter(dataSource, FencingTokens.Fence.NONE, challenge -> written.incrementAndGet()), SeoulTime.CLOCK)
+                .build();
+
+        node1 = new RedisPartitionWorker(redisTemplate, jobExplorer, recording("node1"), 2);
+        node2 = new RedisPartitionWorker(redis.template(), jobExplorer, recording("node2"), 2);
+        node1.start();
+        node2.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        node1.stop();
+        node2.stop();
+        redis.close();
+        jdbcTemplate.update("delete from challenge");
+    }
+
+    @Test
+    void partitionsRunOnBothNodesAndAggregateIntoManager() throws Exception {
+        JobExecution execution = jobLauncher.run(job(), new JobParametersBuilder()
+                .addLong("run", System.nanoTime())
+                .toJobParameters());
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        StepExecution manager = execution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().equals("remoteManagerStep"))
+                .findFirst()
+                .orElseThrow();
+        // 워커가 JobRepository 에 남긴 파티션 결과를 manager step 이 합친다
+        assertThat(manager.getReadCount()).isEqualTo(CHALLENGES);
+        assertThat(manager.getWriteCount()).isEqualTo(CHALLENGES);
+        assertThat(written.get()).isEqualTo(CHALLENGES);
+        assertThat(jobExplorer.getJobExecution(execution.getId()).getStepExecutions())
+                .filteredOn(step -> step.getStepName().startsWith("remoteWorkerStep:"))
+                .hasSize(GRID_SIZE)
+                .allSatisfy(step -> assertThat(step.getStatus()).isEqualTo(BatchStatus.COMPLETED));
+
+        assertThat(executedBy.keySet()).containsExactlyInAnyOrder("node1", "node2");
+        assertThat(executedBy.values().stream().mapToInt(Set::size).sum()).isEqualTo(GRID_SIZE);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from challenge where status = 'IN_PROGRESS'", Integer.class))
+                .isZero();
+        assertThat(redisTemplate.opsForList().size(RedisPartitionHandler.QUEUE_KEY)).isZero();
+    }
+
+    private Job job() {
+        Step manager = stepBuilderFactory.get("remoteManagerStep")
+                .partitioner("remoteWorkerStep", new ChallengeIdRangePartitioner(challengeRepository, SeoulTime.CLOCK))
+                .partitionHandler(new RedisPartitionHandler(redisTemplate, jobExplorer, GRID_SIZE, 100, 60_000))
+                .build();
+
+        return jobBuilderFactory.get("remotePartitionJob")
+                .start(manager)
+                .build();
+    }
+
+    private ItemProcessor<Challenge, Challenge> processor() {
+        return challenge -> challengeFinalizer.closeIfDue(challenge) ? challenge : null;
+    }
+
+    // 어느 노드가 파티션을 실행했는지 남긴다
+    private Step recording(String node) {
+        return new Step() {
+            @Override
+            public String getName() {
+                return workerStep.getName();
+            }
+
+            @Override
+            public boolean isAllowStartIfComplete() {
+                return workerStep.isAllowStartIfComplete();
+            }
+
+            @Override
+            public int getStartLimit() {
+                return workerStep.getStartLimit();
+            }
+
+            @Override
+            public void execute(StepExecution stepExecution) throws JobInterruptedException {
+                executedBy.computeIfAbsent(node, key -> ConcurrentHashMap.newKeySet()).add(stepExecution.getStepName());
+                workerStep.execute(stepExecution);
+            }
+        };
+    }
+
+    @TestConfiguration
+    static class PartitionReaderConfig {
+        @StepScope
+        @Bean
+        JpaPagingItemReader<Challenge> remotePartitionReader(
+                EntityManagerFactory entityManagerFactory,
+                @Value("#{stepExecutionContext['minId']}") Long minId,
+                @Value("#{stepExecutionContext['maxId']}") Long maxId) {
+            return new ChallengeKeysetItemReader(entityManagerFactory, minId, maxId, TODAY, COMMIT_INTERVAL);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.cactusvilleage.server.challenge.service.rule;
+
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.History;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryRuleTest {
+
+    private final MorningHistoryRule morning = new MorningHistoryRule();
+    private final StudyHistoryRule study = new StudyHistoryRule();
+    private final ThanksHistoryRule thanks = new ThanksHistoryRule();
+
+    @Test
+    void eachRuleServesItsOwnType() {
+        assertThat(morning.getChallengeType()).isEqualTo(Challenge.ChallengeType.MORNING);
+        assertThat(study.getChallengeType()).isEqualTo(Challenge.ChallengeType.STUDY);
+        assertThat(thanks.getChallengeType()).isEqualTo(Challenge.ChallengeType.THANKS);
+    }
+
+    @Test
+    void morningFailsOnlyAfterTargetHour() {
+        Challenge challenge = challenge(Challenge.ChallengeType.MORNING, 7);
+
+        assertThat(morning.isFailed(challenge, history("6:59:59 AM"))).isFalse();
+        assertThat(morning.isFailed(challenge, history("7:30:00 AM"))).isFalse();
+        assertThat(morning.isFailed(challenge, history("8:00:01 AM"))).isTrue();
+    }
+
+    @Test
+    void studyFailsWhenShorterThanTarget() {
+        Challenge challenge = challenge(Challenge.ChallengeType.STUDY, 60);
+
+        assertThat(study.isFailed(challenge, history("59"))).isTrue();
+        assertThat(study.isFailed(challenge, history("60"))).isFalse();
+        assertThat(study.isFailed(challenge, history("120"))).isFalse();
+    }
+
+    @Test
+    void thanksNeverFails() {
+        Challenge challenge = challenge(Challenge.ChallengeType.THANKS, null);
+
+        assertThat(thanks.isFailed(challenge, History.builder().contents("thanks").historyDate(LocalDate.now(SeoulTime.CLOCK)).build())).isFalse();
+    }
+
+    private Challenge challenge(Challenge.ChallengeType type, Integer targetTime) {
+        return Challenge.builder()
+                .challengeType(type)
+                .targetDate(7)
+                .targetTime(targetTime)
+                .startDate(LocalDate.now(SeoulTime.CLOCK))
+                .build();
+    }
+
+    private History history(String time) {
+        return History.builder().time(time).historyDate(LocalDate.now(SeoulTime.CLOCK)).build();
+    }
+}
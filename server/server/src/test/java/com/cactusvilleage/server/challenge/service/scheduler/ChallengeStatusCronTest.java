@@ -0,0 +1,41 @@
+package com.cactusvilleage.server.challenge.service.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChallengeStatusCronTest {
+
+    @Test
+    void runsAtMidnightWithoutExpiryWheel() {
+        assertThat(ChallengeStatusCron.resolve("", false, Duration.ofMinutes(30))).isEqualTo("0 0 0 * * *");
+    }
+
+    @Test
+    void runsAfterSpreadWhenExpiryWheelIsEnabled() {
+        String cron = ChallengeStatusCron.resolve("", true, Duration.ofMinutes(30));
+
+        assertThat(cron).isEqualTo("0 40 0 * * *");
+        LocalDateTime next = CronExpression.parse(cron).next(LocalDateTime.of(2022, 10, 1, 0, 0));
+        assertThat(next).isAfter(LocalDateTime.of(2022, 10, 1, 0, 30));
+    }
+
+    @Test
+    void roundsPartialMinutesUpAndCarriesIntoHours() {
+        assertThat(ChallengeStatusCron.resolve(null, true, Duration.ofMinutes(59).plusSeconds(1))).isEqualTo("0 10 1 * * *");
+    }
+
+    @Test
+    void staysWithinTheSameDayForVeryLongSpreads() {
+        assertThat(ChallengeStatusCron.resolve(null, true, Duration.ofHours(30))).isEqualTo("0 59 23 * * *");
+    }
+
+    @Test
+    void explicitCronWins() {
+        assertThat(ChallengeStatusCron.resolve("0 0 3 * * *", true, Duration.ofMinutes(30))).isEqualTo("0 0 3 * * *");
+    }
+}
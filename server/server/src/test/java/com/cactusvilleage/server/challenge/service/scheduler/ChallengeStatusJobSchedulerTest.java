@@ -0,0 +1,106 @@
+package com.cactusvilleage.server.challenge.service.scheduler;
+
+import com.cactusvilleage.server.challenge.service.batch.ChallengeStatusJobConfig;
+import com.cactusvilleage.server.global.infra.lock.FencedOutException;
+import com.cactusvilleage.server.global.infra.lock.FencingTokens;
+import com.cactusvilleage.server.global.infra.lock.RedisLeaderLock;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.JobLauncher;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+class ChallengeStatusJobSchedulerTest {
+
+    private JobLauncher jobLauncher;
+    private RedisLeaderLock leaderLock;
+    private RedisLeaderLock.Lease lease;
+    private FencingTokens fencingTokens;
+    private ChallengeStatusJobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        jobLauncher = mock(JobLauncher.class);
+        leaderLock = mock(RedisLeaderLock.class);
+        lease = mock(RedisLeaderLock.Lease.class);
+        fencingTokens = mock(FencingTokens.class);
+        ChallengeStatusJobConfig jobConfig = mock(ChallengeStatusJobConfig.class);
+        given(jobConfig.challengeStatusJob()).willReturn(mock(Job.class));
+        scheduler = new ChallengeStatusJobScheduler(jobLauncher, jobConfig, leaderLock, fencingTokens, SeoulTime.CLOCK);
+    }
+
+    @Test
+    void lockIsScopedToRunDateAndKeptAfterTheJob() throws Exception {
+        given(leaderLock.tryAcquire(eq("challengeStatusJob"), eq(LocalDate.now(SeoulTime.CLOCK).toString()), any(Duration.class)))
+                .willReturn(Optional.of(lease));
+        given(lease.isHeld()).willReturn(true);
+        given(lease.getToken()).willReturn(42L);
+        given(jobLauncher.run(any(Job.class), any(JobParameters.class))).willReturn(execution(BatchStatus.COMPLETED));
+
+        scheduler.challengeStatusJobSchedule();
+
+        // token 을 먼저 기록하고, 잡의 writer 가 검사하도록 잡 파라미터로 넘긴다
+        InOrder inOrder = inOrder(fencingTokens, jobLauncher, lease);
+        inOrder.verify(fencingTokens).advance("challengeStatusJob", 42L);
+        inOrder.verify(jobLauncher).run(any(Job.class),
+                argThat(parameters -> Long.valueOf(42L).equals(parameters.getLong(ChallengeStatusJobConfig.FENCING_TOKEN))));
+        inOrder.verify(lease).retainFor(Duration.ofDays(1));
+    }
+
+    @Test
+    void releasesLockWhenJobDidNotComplete() throws Exception {
+        given(leaderLock.tryAcquire(eq("challengeStatusJob"), eq(LocalDate.now(SeoulTime.CLOCK).toString()), any(Duration.class)))
+                .willReturn(Optional.of(lease));
+        given(lease.getToken()).willReturn(42L);
+        given(jobLauncher.run(any(Job.class), any(JobParameters.class))).willReturn(execution(BatchStatus.FAILED));
+
+        scheduler.challengeStatusJobSchedule();
+
+        // 남겨 두지 않고 해제해야 다음 실행에서 다시 잡을 수 있다
+        verify(lease, never()).retainFor(any(Duration.class));
+        verify(lease).close();
+    }
+
+    @Test
+    void skipsWhenNewerTokenIsRecorded() throws Exception {
+        given(leaderLock.tryAcquire(eq("challengeStatusJob"), eq(LocalDate.now(SeoulTime.CLOCK).toString()), any(Duration.class)))
+                .willReturn(Optional.of(lease));
+        given(lease.getToken()).willReturn(41L);
+        willThrow(new FencedOutException("challengeStatusJob", 41L, 42L)).given(fencingTokens).advance("challengeStatusJob", 41L);
+
+        scheduler.challengeStatusJobSchedule();
+
+        verify(jobLauncher, never()).run(any(Job.class), any(JobParameters.class));
+    }
+
+    @Test
+    void skipsWhenRunOfTheDayIsTaken() throws Exception {
+        given(leaderLock.tryAcquire(eq("challengeStatusJob"), eq(LocalDate.now(SeoulTime.CLOCK).toString()), any(Duration.class)))
+                .willReturn(Optional.empty());
+
+        scheduler.challengeStatusJobSchedule();
+
+        verify(jobLauncher, never()).run(any(Job.class), any(JobParameters.class));
+    }
+
+    private static JobExecution execution(BatchStatus status) {
+        JobExecution execution = new JobExecution(1L);
+        execution.setStatus(status);
+        return execution;
+    }
+}
@@ -0,0 +1,113 @@
+package com.cactusvilleage.server.global.infra.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.batch.job.enabled=false")
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Import(FencingTokens.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FencingTokensTest {
+
+    private static final String NAME = "challengeStatusJob";
+
+    @Autowired
+    private FencingTokens fencingTokens;
+
+    @Autowired
+    private FencingTokenRepository fencingTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fencingTokenRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void currentTokenMayWrite() {
+        fencingTokens.advance(NAME, 1);
+
+        transactionTemplate.executeWithoutResult(status -> fencingTokens.fence(NAME, 1L).check());
+    }
+
+    // 락이 만료된 뒤 다른 노드가 token 2 를 기록했다면 token 1 의 쓰기는 실패한다
+    @Test
+    void olderTokenIsFencedOut() {
+        fencingTokens.advance(NAME, 1);
+        fencingTokens.advance(NAME, 2);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> fencingTokens.fence(NAME, 1L).check()))
+                .isInstanceOf(FencedOutException.class);
+        assertThatThrownBy(() -> fencingTokens.advance(NAME, 1))
+                .isInstanceOf(FencedOutException.class);
+    }
+
+    @Test
+    void unrecordedTokenIsFencedOut() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> fencingTokens.fence(NAME, 1L).check()))
+                .isInstanceOf(FencedOutException.class);
+    }
+
+    @Test
+    void jobWithoutTokenIsNotChecked() {
+        assertThat(fencingTokens.fence(NAME, null)).isSameAs(FencingTokens.Fence.NONE);
+    }
+
+    // 검사한 쓰기 트랜잭션이 커밋되기 전에는 새 token 을 기록할 수 없다 -> 검사와 커밋 사이에 락이 넘어가도 그 쓰기는 이전 token 기준으로 끝난다
+    @Test
+    void newTokenWaitsForCheckedWriteToCommit() throws Exception {
+        fencingTokens.advance(NAME, 1);
+        CountDownLatch checked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            fencingTokens.fence(NAME, 1L).check();
+            checked.countDown();
+            await(commit);
+        }));
+        assertThat(checked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> takeover = CompletableFuture.runAsync(() -> fencingTokens.advance(NAME, 2));
+        Thread.sleep(300);
+        assertThat(takeover).isNotDone();
+
+        commit.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        takeover.get(5, TimeUnit.SECONDS);
+        assertThat(fencingTokenRepository.findById(NAME).orElseThrow().getToken()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
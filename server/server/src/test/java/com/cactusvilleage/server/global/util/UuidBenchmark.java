@@ -0,0 +1,56 @@
+package com.cactusvilleage.server.global.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UUID.randomUUID() (v4) 와 UuidV7.randomUUID() 생성 비용 비교.
+ * v7 은 카운터를 클래스 락으로 보호하므로 스레드가 많을 때의 차이도 같이 본다.
+ * BINARY(16) 인덱스에 insert 하는 비용은 UuidInsertBenchmark 에서 잰다.
+ * 실행: main 을 실행하거나 테스트 클래스패스로 org.openjdk.jmh.Main UuidBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidBenchmark {
+
+    @Benchmark
+    public UUID v4() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID v7() {
+        return UuidV7.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID v4Contended() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID v7Contended() {
+        return UuidV7.randomUUID();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UuidBenchmark.class.getSimpleName()).build()).run();
+    }
+}
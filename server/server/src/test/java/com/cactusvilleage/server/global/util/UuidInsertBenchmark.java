@@ -0,0 +1,94 @@
+package com.cactusvilleage.server.global.util;
+
+import com.cactusvilleage.server.support.LocalMySql;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UUID v4 와 v7 을 BINARY(16) 로 MySQL(InnoDB) 에 insert 하는 처리량과 인덱스 크기 비교.
+ * UuidBenchmark 는 생성 비용만 재므로, 여기서는 인덱스 위치에 따른 비용을 본다
+ * (v4 는 B-tree 곳곳에 흩어져 페이지 분할이 생기고, v7 은 끝에 붙는다).
+ * 두 가지 배치: uuid 가 PK (clustered index), AUTO_INCREMENT PK + uuid unique 인덱스 (Challenge 에 인덱스를 거는 경우).
+ * 버퍼 풀보다 인덱스가 커져야 차이가 크게 벌어지므로 행 수를 키워 가며 본다.
+ * ./gradlew benchmark -Dbenchmark.uuid.rows=1000000
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class UuidInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.uuid.rows", 1_000_000);
+    private static final int INSERT_BATCH = 1_000;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void connect() {
+        MySQLContainer<?> mysql = LocalMySql.container();
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword(), true));
+    }
+
+    @Test
+    void insertV4AndV7AsBinary16() {
+        // JIT, 커넥션 워밍업
+        run("uuid_warmup", "id binary(16) primary key", "insert into uuid_warmup (id) values (?)", UUID::randomUUID, INSERT_BATCH * 10);
+
+        run("uuid_v4_pk", "id binary(16) primary key",
+                "insert into uuid_v4_pk (id) values (?)", UUID::randomUUID, ROWS);
+        run("uuid_v7_pk", "id binary(16) primary key",
+                "insert into uuid_v7_pk (id) values (?)", UuidV7::randomUUID, ROWS);
+        run("uuid_v4_unique", "id bigint auto_increment primary key, uuid binary(16) not null, unique key uk_uuid (uuid)",
+                "insert into uuid_v4_unique (uuid) values (?)", UUID::randomUUID, ROWS);
+        run("uuid_v7_unique", "id bigint auto_increment primary key, uuid binary(16) not null, unique key uk_uuid (uuid)",
+                "insert into uuid_v7_unique (uuid) values (?)", UuidV7::randomUUID, ROWS);
+    }
+
+    private void run(String table, String columns, String insert, Supplier<UUID> generator, int rows) {
+        jdbcTemplate.execute("drop table if exists " + table);
+        jdbcTemplate.execute("create table " + table + " (" + columns + ") engine = InnoDB");
+
+        long started = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{toBytes(generator.get())});
+            if (i % INSERT_BATCH == 0 || i == rows) {
+                jdbcTemplate.batchUpdate(insert, batch);
+                batch.clear();
+            }
+        }
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class)).isEqualTo(rows);
+
+        // 통계를 새로 계산한 뒤 크기를 읽는다 (PK 가 uuid 면 data_length 가 곧 uuid 인덱스 크기)
+        jdbcTemplate.queryForList("analyze table " + table);
+        Map<String, Object> size = jdbcTemplate.queryForMap("select data_length, index_length from information_schema.tables " +
+                "where table_schema = database() and table_name = ?", table);
+        System.out.printf("[BENCHMARK] %s: %d rows in %d ms (%.0f rows/s), data %d KB, secondary index %d KB%n",
+                table, rows, millis, rows * 1000.0 / millis,
+                ((Number) size.get("data_length")).longValue() / 1024, ((Number) size.get("index_length")).longValue() / 1024);
+
+        jdbcTemplate.execute("drop table " + table);
+    }
+
+    // Hibernate 가 UUID 를 BINARY(16) 에 저장하는 것과 같은 순서 (상위 64bit, 하위 64bit, big-endian)
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,80 @@
+package com.cactusvilleage.server.global.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    private static final int COUNT = 100_000;
+    private static final int THREADS = 8;
+
+    @Test
+    void hasVersion7AndRfcVariant() {
+        UUID uuid = UuidV7.randomUUID();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void leadingBitsAreUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.randomUUID();
+        long after = System.currentTimeMillis();
+
+        long millis = uuid.getMostSignificantBits() >>> 16;
+        // 같은 ms 에 카운터가 넘치면 1ms 앞서 갈 수 있다
+        assertThat(millis).isBetween(before, after + 1);
+    }
+
+    @Test
+    void isStrictlyIncreasingWithinAndAcrossMillis() {
+        UUID previous = UuidV7.randomUUID();
+        for (int i = 0; i < COUNT; i++) {
+            UUID next = UuidV7.randomUUID();
+            // 상위 64bit (시간 + 카운터) 만으로 순서가 정해진다
+            assertThat(next.getMostSignificantBits()).isGreaterThan(previous.getMostSignificantBits());
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void isUniqueAndOrderedPerThreadUnderContention() throws Exception {
+        Set<UUID> all = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                UUID previous = null;
+                for (int i = 0; i < COUNT / THREADS; i++) {
+                    UUID uuid = UuidV7.randomUUID();
+                    if (previous != null && uuid.compareTo(previous) <= 0) {
+                        return false;
+                    }
+                    all.add(uuid);
+                    previous = uuid;
+                }
+                return true;
+            }));
+        }
+
+        for (Future<Boolean> future : futures) {
+            assertThat(future.get(30, TimeUnit.SECONDS)).isTrue();
+        }
+        executor.shutdown();
+        assertThat(all).hasSize(COUNT / THREADS * THREADS);
+    }
+}
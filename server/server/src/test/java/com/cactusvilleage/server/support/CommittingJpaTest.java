@@ -0,0 +1,110 @@
+package com.cactusvilleage.server.support;
+
+import com.cactusvilleage.server.auth.entities.Member;
+import com.cactusvilleage.server.auth.repository.MemberRepository;
+import com.cactusvilleage.server.challenge.entities.Challenge;
+import com.cactusvilleage.server.challenge.entities.Status;
+import com.cactusvilleage.server.challenge.repository.ChallengeRepository;
+import com.cactusvilleage.server.challenge.repository.HistoryRepository;
+import com.cactusvilleage.server.challenge.repository.MemberOneDayDateRepository;
+import com.cactusvilleage.server.challenge.repository.MemberStatsRepository;
+import com.cactusvilleage.server.challenge.service.HistoryUploadPipeline;
+import com.cactusvilleage.server.challenge.service.MemberStatsService;
+import com.cactusvilleage.server.challenge.service.RankingService;
+import com.cactusvilleage.server.challenge.service.S3Service;
+import com.cactusvilleage.server.challenge.service.rule.MorningHistoryRule;
+import com.cactusvilleage.server.challenge.service.rule.StudyHistoryRule;
+import com.cactusvilleage.server.challenge.service.rule.ThanksHistoryRule;
+import com.cactusvilleage.server.global.util.SeoulTime;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * 각 스레드가 자기 트랜잭션에서 커밋해야 하는 JPA 테스트의 공통 설정 (테스트 트랜잭션은 쓰지 않는다).
+ * BatchAutoConfiguration 이 빠지면 @EnableBatchProcessing 이 DataSourceTransactionManager 를 올리므로 같이 불러온다.
+ * 커밋된 행은 테스트마다 지우고 인증 정보를 비운다. 설정이 더 필요하면 하위 클래스에 @TestPropertySource 를 붙인다.
+ */
+@DataJpaTest(properties = "spring.batch.job.enabled=false")
+@ImportAutoConfiguration(BatchAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class CommittingJpaTest {
+
+    @Autowired
+    protected ChallengeRepository challengeRepository;
+
+    @Autowired
+    protected HistoryRepository historyRepository;
+
+    @Autowired
+    protected MemberRepository memberRepository;
+
+    @Autowired
+    protected MemberStatsRepository memberStatsRepository;
+
+    @Autowired
+    protected MemberOneDayDateRepository oneDayDateRepository;
+
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+
+    // 하위 클래스의 @AfterEach 가 먼저 실행된다
+    @AfterEach
+    protected void deleteCommitted() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            oneDayDateRepository.deleteAllInBatch();
+            // 도장 개수 (MEMBER_STAMP_COUNT) 행까지 지우도록 엔티티 단위로 지운다
+            memberStatsRepository.deleteAll();
+            historyRepository.deleteAllInBatch();
+            challengeRepository.deleteAllInBatch();
+            memberRepository.deleteAllInBatch();
+        });
+        SecurityContextHolder.clearContext();
+    }
+
+    // 회원 하나와 그 회원의 진행 중인 챌린지를 커밋하고 현재 스레드를 그 회원으로 인증한다
+    protected Challenge enroll(Challenge.ChallengeType type, int targetDate) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Member member = memberRepository.save(Member.builder().username("cactus").build());
+            Challenge challenge = Challenge.builder()
+                    .challengeType(type)
+                    .targetDate(targetDate)
+                    .targetTime(60)
+                    .startDate(LocalDate.now(SeoulTime.CLOCK))
+                    .build();
+            challenge.setStatus(Status.IN_PROGRESS);
+            challenge.setMember(member);
+            challengeRepository.save(challenge);
+
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(member.getId().toString(), null));
+            return challenge;
+        });
+    }
+
+    protected HistoryUploadPipeline pipeline() {
+        return pipeline(mock(S3Service.class));
+    }
+
+    // 통계, 랭킹, 비동기 업로드는 mock, 규칙은 운영과 같은 세 가지
+    @SuppressWarnings("unchecked")
+    protected HistoryUploadPipeline pipeline(S3Service s3Service) {
+        return new HistoryUploadPipeline(historyRepository, challengeRepository, s3Service,
+                mock(ObjectProvider.class), mock(RankingService.class), mock(MemberStatsService.class), transactionManager,
+                List.of(new MorningHistoryRule(), new StudyHistoryRule(), new ThanksHistoryRule()), SeoulTime.CLOCK);
+    }
+}
@@ -0,0 +1,56 @@
+package com.cactusvilleage.server.support;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * 테스트용 redis-server 프로세스 (embedded-redis 가 OS 별 바이너리를 풀어 실행한다).
+ * 빈 포트를 골라 띄우고, 연결된 StringRedisTemplate 을 만들어 준다.
+ */
+public class EmbeddedRedis implements AutoCloseable {
+
+    private final RedisServer server;
+    private final LettuceConnectionFactory connectionFactory;
+
+    public EmbeddedRedis() {
+        int port = freePort();
+        try {
+            server = new RedisServer(port);
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+    }
+
+    public StringRedisTemplate template() {
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Override
+    public void close() {
+        connectionFactory.destroy();
+        try {
+            server.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.cactusvilleage.server.support;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 디스크 파일을 그대로 가리키는 MultipartFile (Tomcat 이 큰 업로드를 임시 파일로 받은 것과 같다).
+ * MockMultipartFile 은 내용을 byte[] 로 들고 있어 업로드 경로의 메모리 사용량을 잴 수 없다.
+ */
+public class FileMultipartFile implements MultipartFile {
+
+    private final Path path;
+    private final String originalFilename;
+    private final String contentType;
+
+    public FileMultipartFile(Path path, String originalFilename, String contentType) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+    }
+
+    // size 바이트짜리 임시 파일 (내용은 0, 디스크에 바로 할당)
+    public static FileMultipartFile ofSize(long size, String originalFilename, String contentType) throws IOException {
+        Path path = Files.createTempFile("upload-", ".png");
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        return new FileMultipartFile(path, originalFilename, contentType);
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public String getName() {
+        return "image";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return path.toFile().length();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        throw new UnsupportedOperationException("upload paths must not read the whole file into memory");
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.copy(path, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cactusvilleage.server.support;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * 테스트용 MySQL (컨테이너). H2 가 실행하지 못하는 MySQL 전용 네이티브 쿼리(date_add, rand() 등)를 실제로 돌릴 때 쓴다.
+ * JVM 에서 한 번만 띄워 여러 테스트 클래스가 같이 쓴다 (JVM 이 끝나면 Testcontainers 가 정리한다).
+ * 쓰는 테스트는 @Testcontainers(disabledWithoutDocker = true), @AutoConfigureTestDatabase(replace = NONE) 를 붙이고
+ * @DynamicPropertySource 에서 register 를 부른다.
+ */
+public final class LocalMySql {
+
+    private static final DockerImageName IMAGE = DockerImageName.parse("mysql:8.0.30");
+
+    private static MySQLContainer<?> container;
+
+    private LocalMySql() {
+    }
+
+    public static synchronized MySQLContainer<?> container() {
+        if (container == null) {
+            container = new MySQLContainer<>(IMAGE)
+                    .withUrlParam("rewriteBatchedStatements", "true");
+            container.start();
+        }
+        return container;
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        MySQLContainer<?> mysql = container();
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        registry.add("spring.batch.jdbc.initialize-schema", () -> "always");
+    }
+}
@@ -0,0 +1,92 @@
+package com.cactusvilleage.server.support;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * 테스트용 S3 호환 서버 (MinIO 컨테이너).
+ * AwsConfig 와 같은 방식으로 만든 v1 클라이언트, TransferManager, v2 비동기(Netty) 클라이언트를 이 서버에 연결해 준다.
+ * Docker 가 필요하므로 쓰는 테스트는 @Testcontainers(disabledWithoutDocker = true) 를 붙인다.
+ */
+public class LocalS3 implements AutoCloseable {
+
+    private static final DockerImageName IMAGE = DockerImageName.parse("minio/minio:RELEASE.2022-10-08T20-11-00Z");
+    private static final String ACCESS_KEY = "cactus";
+    private static final String SECRET_KEY = "cactus-secret";
+    private static final String REGION = "us-east-1";
+    private static final int PORT = 9000;
+
+    private final GenericContainer<?> container;
+
+    public LocalS3() {
+        container = new GenericContainer<>(IMAGE)
+                .withEnv("MINIO_ROOT_USER", ACCESS_KEY)
+                .withEnv("MINIO_ROOT_PASSWORD", SECRET_KEY)
+                .withCommand("server", "/data")
+                .withExposedPorts(PORT)
+                .waitingFor(Wait.forHttp("/minio/health/live").forPort(PORT));
+        container.start();
+    }
+
+    public String endpoint() {
+        return "http://" + container.getHost() + ":" + container.getMappedPort(PORT);
+    }
+
+    // 컨테이너에는 버킷 DNS 가 없으므로 path-style 로 접근한다
+    public AmazonS3 amazonS3() {
+        return AmazonS3ClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint(), REGION))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(ACCESS_KEY, SECRET_KEY)))
+                .withPathStyleAccessEnabled(true)
+                .build();
+    }
+
+    public TransferManager transferManager(AmazonS3 amazonS3, long partSize, int threads) {
+        return TransferManagerBuilder.standard()
+                .withS3Client(amazonS3)
+                .withMinimumUploadPartSize(partSize)
+                .withMultipartUploadThreshold(partSize * 2)
+                .withExecutorFactory(() -> Executors.newFixedThreadPool(threads))
+                .build();
+    }
+
+    public S3AsyncClient asyncClient(int maxConcurrency) {
+        return S3AsyncClient.builder()
+                .endpointOverride(URI.create(endpoint()))
+                .region(Region.of(REGION))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(ACCESS_KEY, SECRET_KEY)))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(maxConcurrency))
+                .build();
+    }
+
+    // 테스트 클래스마다 새 버킷을 써서 남은 객체가 섞이지 않게 한다
+    public String createBucket(AmazonS3 amazonS3) {
+        String bucket = "test-" + UUID.randomUUID();
+        amazonS3.createBucket(bucket);
+        return bucket;
+    }
+
+    @Override
+    public void close() {
+        container.stop();
+    }
+}